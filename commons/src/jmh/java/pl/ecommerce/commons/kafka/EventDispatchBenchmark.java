@@ -0,0 +1,77 @@
+package pl.ecommerce.commons.kafka;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.ecommerce.commons.event.customer.CustomerRegisteredEvent;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of invoking an event handler through {@link Method#invoke}, the method handle fallback and the
+ * LambdaMetafactory invoker {@link EventHandlerRegistry} generates, including the per-event handler lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatchBenchmark {
+
+	private Handler target;
+	private CustomerRegisteredEvent event;
+	private Method method;
+	private EventHandlerRegistry.EventInvoker methodHandle;
+	private EventHandlerRegistry registry;
+
+	@Setup
+	public void setUp() throws Exception {
+		target = new Handler();
+		event = CustomerRegisteredEvent.builder()
+				.customerId(UUID.randomUUID())
+				.email("john.doe@example.com")
+				.timestamp(Instant.now())
+				.build();
+		method = Handler.class.getDeclaredMethod("on", CustomerRegisteredEvent.class);
+		method.setAccessible(true);
+		methodHandle = EventHandlerRegistry.methodHandleInvoker(method, false);
+		registry = EventHandlerRegistry.forTarget(target);
+	}
+
+	@Benchmark
+	public Object reflective() throws Exception {
+		return method.invoke(target, event);
+	}
+
+	@Benchmark
+	public Object methodHandle() throws Throwable {
+		return methodHandle.invoke(target, event, Map.of());
+	}
+
+	@Benchmark
+	public Object generated() throws Throwable {
+		return registry.resolve(event.getClass()).invoke(target, event, Map.of());
+	}
+
+	static class Handler {
+
+		private long handled;
+
+		@EventHandler
+		long on(CustomerRegisteredEvent event) {
+			return ++handled;
+		}
+	}
+}
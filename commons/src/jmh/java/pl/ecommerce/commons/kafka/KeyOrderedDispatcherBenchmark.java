@@ -0,0 +1,70 @@
+package pl.ecommerce.commons.kafka;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second through {@link KeyOrderedDispatcher} with 1, 4 and 16 workers. Each event burns a fixed
+ * amount of CPU and the events are spread over {@value #KEYS} aggregates, as a partition's records would be.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyOrderedDispatcherBenchmark {
+
+	private static final int EVENTS = 10_000;
+	private static final int KEYS = 512;
+
+	@Param({"1", "4", "16"})
+	private int workers;
+
+	@Param({"1000"})
+	private int workTokens;
+
+	private KeyOrderedDispatcher dispatcher;
+	private UUID[] keys;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dispatcher = new KeyOrderedDispatcher("benchmark", workers);
+		keys = new UUID[KEYS];
+		for (int i = 0; i < KEYS; i++) {
+			keys[i] = UUID.randomUUID();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dispatcher.dispose();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(EVENTS)
+	public void dispatch() {
+		Flux.range(0, EVENTS)
+				.flatMap(i -> dispatcher.submit(keys[i % KEYS], Mono.fromRunnable(() -> Blackhole.consumeCPU(workTokens))),
+						EVENTS)
+				.blockLast();
+	}
+}
@@ -0,0 +1,77 @@
+package pl.ecommerce.commons.tracing;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record overhead of propagating W3C trace context through Kafka headers, against building the same
+ * headers without it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KafkaTracingBenchmark {
+
+	private static final byte[] EVENT_TYPE = "CustomerRegisteredEvent".getBytes(StandardCharsets.UTF_8);
+
+	private Context context;
+	private Headers traced;
+
+	@Setup
+	public void setUp() {
+		GlobalOpenTelemetry.resetForTest();
+		GlobalOpenTelemetry.set(OpenTelemetry.propagating(ContextPropagators.create(W3CTraceContextPropagator.getInstance())));
+		context = Context.root().with(Span.wrap(SpanContext.create("0af7651916cd43dd8448eb211c80319c",
+				"b7ad6b7169203331", TraceFlags.getSampled(), TraceState.getDefault())));
+		traced = headers();
+		KafkaTracingPropagator.inject(context, traced);
+	}
+
+	@Benchmark
+	public Headers untraced() {
+		return headers();
+	}
+
+	@Benchmark
+	public Headers inject() {
+		Headers headers = headers();
+		KafkaTracingPropagator.inject(context, headers);
+		return headers;
+	}
+
+	@Benchmark
+	public Context extract() {
+		return KafkaTracingPropagator.extract(Context.root(), traced);
+	}
+
+	private static Headers headers() {
+		Headers headers = new RecordHeaders();
+		headers.add("eventType", EVENT_TYPE);
+		return headers;
+	}
+}
@@ -3,26 +3,46 @@ package pl.ecommerce.commons.kafka;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.context.Scope;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.header.Header;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.Acknowledgment;
 
 import pl.ecommerce.commons.event.AbstractDomainEvent;
-import pl.ecommerce.commons.kafka.dlq.DlqMetrics;
 import pl.ecommerce.commons.tracing.KafkaTracingPropagator;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 @Slf4j
@@ -33,82 +53,307 @@ public abstract class DomainEventHandler {
 	protected final TopicsProvider topicsProvider;
 	protected final String applicationName;
 
-	@Autowired(required = false)
-	private DlqMetrics dlqMetrics;
+	@Value("${event.listener.max-in-flight:64}")
+	private int maxInFlight;
 
-	private final Map<Class<? extends AbstractDomainEvent>, java.lang.reflect.Method> handlerMethods = new HashMap<>();
+	@Value("${event.listener.batch.timeout-ms:60000}")
+	private long batchTimeoutMs;
+
+	@Value("${event.listener.workers:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+	private int workers;
+
+	@Value("${event.listener.tracing.max-batch-links:128}")
+	private int maxBatchLinks;
+
+	private volatile Tracer tracer;
+	private EventHandlerRegistry handlerRegistry;
+	private EventTypeRouter eventRouter;
+	private KeyOrderedDispatcher dispatcher;
+	private final Map<TopicPartition, Semaphore> partitionPermits = new ConcurrentHashMap<>();
 
 	@PostConstruct
 	public void init() {
-		for (java.lang.reflect.Method method : this.getClass().getDeclaredMethods()) {
-			if (method.isAnnotationPresent(EventHandler.class)) {
-				Class<?>[] paramTypes = method.getParameterTypes();
-				if ((paramTypes.length == 1 && AbstractDomainEvent.class.isAssignableFrom(paramTypes[0])) ||
-						(paramTypes.length == 2 && AbstractDomainEvent.class.isAssignableFrom(paramTypes[0]) &&
-								Map.class.isAssignableFrom(paramTypes[1]))) {
-					@SuppressWarnings("unchecked")
-					Class<? extends AbstractDomainEvent> eventType = (Class<? extends AbstractDomainEvent>) paramTypes[0];
-					handlerMethods.put(eventType, method);
-					log.info("Registered handler for event type: {}", eventType.getSimpleName());
-				}
-			}
-		}
+		handlerRegistry = EventHandlerRegistry.forTarget(this);
+		eventRouter = new EventTypeRouter(objectMapper, handlerRegistry);
+		dispatcher = new KeyOrderedDispatcher(applicationName + "-event-worker", workers);
 	}
 
-	public boolean processEvent(AbstractDomainEvent event, Map<String, String> headers) {
-		java.lang.reflect.Method handler = handlerMethods.get(event.getClass());
-		if (nonNull(handler)) {
-			try {
-				if (handler.getParameterCount() == 1) {
-					handler.invoke(this, event);
-				} else {
-					handler.invoke(this, event, headers);
-				}
-				return true;
-			} catch (Exception e) {
-				log.error("Error invoking handler for event {}: {}",
-						event.getClass().getSimpleName(), e.getMessage(), e);
-			}
+	@PreDestroy
+	public void shutdown() {
+		dispatcher.dispose();
+	}
+
+	public Mono<Boolean> processEvent(AbstractDomainEvent event, Map<String, String> headers) {
+		EventHandlerRegistry.HandlerMethod handler = handlerRegistry.resolve(event.getClass());
+		if (isNull(handler)) {
+			return Mono.just(false);
 		}
-		return false;
+		return invoke(handler, event, headers)
+				.thenReturn(true)
+				.doOnError(e -> log.error("Error invoking handler for event {} ({}): {}",
+						event.getClass().getSimpleName(), event.getAggregateId(), e.getMessage(), e));
 	}
 
+	/**
+	 * Returns the pending result to the container, which acknowledges the record once it completes and hands
+	 * failures to the container's error handler for retries and the dead letter topic.
+	 */
 	@KafkaListener(
 			topics = "#{@topicsProvider.getTopics()}",
 			groupId = "${event.listener.group-id:${spring.application.name}-group}",
-			containerFactory = "kafkaListenerContainerFactory"
+			containerFactory = "kafkaListenerContainerFactory",
+			autoStartup = "#{'${event.listener.engine:container}' == 'container' && !${event.listener.batch.enabled:false}}"
 	)
-	public void consume(ConsumerRecord<String, Object> record, Acknowledgment ack) {
-		log.debug("Received Kafka headers: {}", extractHeaders(record));
-		log.debug("Processing Kafka message - topic: {}, partition: {}, offset: {}, key: {}",
-				record.topic(), record.partition(), record.offset(), record.key());
-
-		Context extractedContext = KafkaTracingPropagator.extract(Context.current(), record.headers());
-		Tracer tracer = GlobalOpenTelemetry.get().getTracer("customer-read");
-		Span consumerSpan = tracer.spanBuilder("Process Kafka message in customer-read")
-				.setParent(extractedContext)
-				.startSpan();
+	public CompletableFuture<Void> consume(ConsumerRecord<String, Object> record) {
+		if (log.isDebugEnabled()) {
+			log.debug("Processing Kafka message - topic: {}, partition: {}, offset: {}, key: {}",
+					record.topic(), record.partition(), record.offset(), record.key());
+		}
+
+		AbstractDomainEvent event;
+		try {
+			event = decode(record);
+		} catch (IOException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		if (isNull(event)) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		Semaphore permits = partitionPermits.computeIfAbsent(
+				new TopicPartition(record.topic(), record.partition()), tp -> new Semaphore(maxInFlight));
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return CompletableFuture.failedFuture(new IllegalStateException(
+					"Interrupted while waiting for a free handler slot, offset " + record.offset(), e));
+		}
+
+		Span consumerSpan = startConsumerSpan(record);
 		try (Scope scope = consumerSpan.makeCurrent()) {
+			return dispatcher.submit(event.getAggregateId(), processRecord(event, record)
+							.doOnNext(processed -> {
+								if (!processed) {
+									log.info("No handler processed event type: {}", event.getClass().getSimpleName());
+								}
+							})
+							.then())
+					.doFinally(signal -> {
+						permits.release();
+						consumerSpan.end();
+					})
+					.toFuture();
+		} catch (RuntimeException e) {
+			permits.release();
+			consumerSpan.end();
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	public Mono<Void> handleRecord(ConsumerRecord<String, Object> record) {
+		AbstractDomainEvent event;
+		try {
+			event = decode(record);
+		} catch (IOException e) {
+			return Mono.error(e);
+		}
+		if (isNull(event)) {
+			return Mono.empty();
+		}
+
+		Span consumerSpan = startConsumerSpan(record);
+		return processRecord(event, record)
+				.doOnNext(processed -> {
+					if (!processed) {
+						log.info("No handler processed event type: {}", event.getClass().getSimpleName());
+					}
+				})
+				.doFinally(signal -> consumerSpan.end())
+				.then();
+	}
+
+	@KafkaListener(
+			topics = "#{@topicsProvider.getTopics()}",
+			groupId = "${event.listener.group-id:${spring.application.name}-group}",
+			containerFactory = "batchKafkaListenerContainerFactory",
+			autoStartup = "#{'${event.listener.engine:container}' == 'container' && ${event.listener.batch.enabled:false}}"
+	)
+	public void consumeBatch(List<ConsumerRecord<String, Object>> records, Acknowledgment ack) {
+		log.debug("Processing Kafka batch of {} records", records.size());
+
+		Span batchSpan = startBatchSpan(records);
+		AtomicInteger position = new AtomicInteger();
+		try (Scope scope = batchSpan.makeCurrent()) {
+			processBatch(records, position)
+					.timeout(Duration.ofMillis(batchTimeoutMs))
+					.block();
+			ack.acknowledge();
+		} catch (RuntimeException e) {
+			Throwable cause = Exceptions.unwrap(e);
+			int failedIndex = Math.min(position.get(), records.size() - 1);
+			log.error("Error processing Kafka batch at offset {}: {}",
+					records.get(failedIndex).offset(), cause.getMessage(), cause);
+			batchSpan.recordException(cause);
+			throw new BatchListenerFailedException("Error processing Kafka batch", cause, failedIndex);
+		} finally {
+			batchSpan.end();
+		}
+	}
+
+	/**
+	 * Processes the batch run by run, keeping {@code position} at the index of the first record of the run in
+	 * progress, so a failure can be reported to the container's error handler from that record on. Earlier
+	 * runs are complete by then and get committed; the failed run is redelivered as a whole. A record that
+	 * cannot be decoded ends the batch: the runs before it are processed and the failure is reported at its index.
+	 */
+	protected Mono<Void> processBatch(List<ConsumerRecord<String, Object>> records, AtomicInteger position) {
+		List<List<DecodedRecord>> runs = new ArrayList<>();
+		List<DecodedRecord> run = new ArrayList<>();
+		Class<?> runType = null;
+		Mono<Void> decodeFailure = Mono.empty();
+		for (int i = 0; i < records.size(); i++) {
+			ConsumerRecord<String, Object> record = records.get(i);
+			AbstractDomainEvent event;
 			try {
-				Object value = record.value();
-				if (!(value instanceof AbstractDomainEvent event)) {
-					log.error("Received message is not a AbstractDomainEvent: {}", value);
-					ack.acknowledge();
-					return;
-				}
-				Map<String, String> headersMap = extractHeaders(record);
-				boolean processed = processEvent(event, headersMap);
-				if (!processed) {
-					log.info("No handler found for event type: {}", event.getClass().getSimpleName());
-				}
-				ack.acknowledge();
-			} catch (Exception e) {
-				log.error("Error processing Kafka message: {}", e.getMessage(), e);
-				ack.acknowledge();
+				event = decode(record);
+			} catch (IOException e) {
+				int failedIndex = i;
+				decodeFailure = Mono.defer(() -> {
+					position.set(failedIndex);
+					return Mono.error(e);
+				});
+				break;
 			}
-		} finally {
-			consumerSpan.end();
+			if (isNull(event)) {
+				continue;
+			}
+			if (event.getClass() != runType && !run.isEmpty()) {
+				runs.add(run);
+				run = new ArrayList<>();
+			}
+			runType = event.getClass();
+			run.add(new DecodedRecord(i, record, event));
+		}
+		if (!run.isEmpty()) {
+			runs.add(run);
+		}
+		return Flux.fromIterable(runs)
+				.concatMap(decoded -> {
+					position.set(decoded.get(0).index());
+					return dispatchRun(decoded);
+				})
+				.then(decodeFailure);
+	}
+
+	private Mono<Void> dispatchRun(List<DecodedRecord> run) {
+		Class<?> eventType = run.get(0).event().getClass();
+		Map<UUID, List<DecodedRecord>> byAggregate = new LinkedHashMap<>();
+		for (DecodedRecord decoded : run) {
+			byAggregate.computeIfAbsent(decoded.event().getAggregateId(), id -> new ArrayList<>()).add(decoded);
+		}
+
+		EventHandlerRegistry.HandlerMethod batchHandler = handlerRegistry.resolveBatch(eventType);
+		if (nonNull(batchHandler)) {
+			List<AbstractDomainEvent> events = new ArrayList<>(run.size());
+			byAggregate.values().forEach(decoded -> decoded.forEach(d -> events.add(d.event())));
+			return invoke(batchHandler, events, Map.of())
+					.doOnSuccess(v -> run.forEach(decoded -> onEventApplied(decoded.event(), decoded.record())))
+					.doOnError(e -> log.error("Error invoking batch handler for {} {} events: {}",
+							events.size(), eventType.getSimpleName(), e.getMessage(), e));
 		}
+
+		return Flux.fromIterable(byAggregate.entrySet())
+				.flatMap(entry -> dispatcher.submit(entry.getKey(), Flux.fromIterable(entry.getValue())
+						.concatMap(decoded -> processRecord(decoded.event(), decoded.record()))
+						.then()), maxInFlight)
+				.then();
+	}
+
+	/**
+	 * Starts a consumer span for the record. When the producer's trace was not sampled the
+	 * remote context is only propagated, without creating and exporting a span.
+	 */
+	private Span startConsumerSpan(ConsumerRecord<String, Object> record) {
+		Context parent = KafkaTracingPropagator.extract(Context.root(), record.headers());
+		SpanContext parentSpanContext = Span.fromContext(parent).getSpanContext();
+		if (parentSpanContext.isValid() && !parentSpanContext.isSampled()) {
+			return Span.wrap(parentSpanContext);
+		}
+		return tracer().spanBuilder("Process Kafka message in " + applicationName)
+				.setParent(parent)
+				.setSpanKind(SpanKind.CONSUMER)
+				.setAttribute("messaging.destination.name", record.topic())
+				.startSpan();
+	}
+
+	private Span startBatchSpan(List<ConsumerRecord<String, Object>> records) {
+		SpanBuilder builder = tracer().spanBuilder("Process Kafka batch in " + applicationName)
+				.setNoParent()
+				.setSpanKind(SpanKind.CONSUMER)
+				.setAttribute("messaging.batch.message_count", records.size());
+		int links = 0;
+		for (ConsumerRecord<String, Object> record : records) {
+			if (links >= maxBatchLinks) {
+				break;
+			}
+			SpanContext linked = Span.fromContext(KafkaTracingPropagator.extract(Context.root(), record.headers()))
+					.getSpanContext();
+			if (linked.isValid() && linked.isSampled()) {
+				builder.addLink(linked);
+				links++;
+			}
+		}
+		return builder.startSpan();
+	}
+
+	private Tracer tracer() {
+		Tracer current = tracer;
+		if (isNull(current)) {
+			current = GlobalOpenTelemetry.get().getTracer(isNull(applicationName) ? "event-consumer" : applicationName);
+			tracer = current;
+		}
+		return current;
+	}
+
+	private Mono<Boolean> processRecord(AbstractDomainEvent event, ConsumerRecord<String, Object> record) {
+		EventHandlerRegistry.HandlerMethod handler = handlerRegistry.resolve(event.getClass());
+		Map<String, String> headers = nonNull(handler) && handler.acceptsHeaders() ? extractHeaders(record) : Map.of();
+		return processEvent(event, headers)
+				.doOnNext(processed -> {
+					if (processed) {
+						onEventApplied(event, record);
+					}
+				});
+	}
+
+	protected void onEventApplied(AbstractDomainEvent event, ConsumerRecord<String, Object> record) {
+	}
+
+	/**
+	 * Decodes the record, or returns {@code null} when no handler takes its type. A payload that cannot be parsed
+	 * fails the record; parse and mapping errors are not retried by the container's error handler, so the record
+	 * goes straight to the dead letter topic.
+	 */
+	private AbstractDomainEvent decode(ConsumerRecord<String, Object> record) throws IOException {
+		AbstractDomainEvent event = eventRouter.decode(record);
+		if (isNull(event)) {
+			log.debug("No handler for record - topic: {}, partition: {}, offset: {}, skipping without parsing",
+					record.topic(), record.partition(), record.offset());
+		}
+		return event;
+	}
+
+	private Mono<Void> invoke(EventHandlerRegistry.HandlerMethod handler, Object payload, Map<String, String> headers) {
+		return Mono.defer(() -> {
+			Object result;
+			try {
+				result = handler.invoke(this, payload, headers);
+			} catch (Throwable e) {
+				return Mono.error(e);
+			}
+			return result instanceof Publisher<?> publisher ? Mono.from(publisher).then() : Mono.empty();
+		});
 	}
 
 	private Map<String, String> extractHeaders(ConsumerRecord<String, Object> record) {
@@ -121,4 +366,7 @@ public abstract class DomainEventHandler {
 		}
 		return result;
 	}
+
+	private record DecodedRecord(int index, ConsumerRecord<String, Object> record, AbstractDomainEvent event) {
+	}
 }
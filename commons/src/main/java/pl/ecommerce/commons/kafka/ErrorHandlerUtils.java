@@ -4,13 +4,15 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.common.TopicPartition;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
 import pl.ecommerce.commons.kafka.dlq.DlqMetrics;
 
+import java.util.List;
 import java.util.function.BiConsumer;
 
 import static java.util.Objects.nonNull;
@@ -19,8 +21,16 @@ import static java.util.Objects.nonNull;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ErrorHandlerUtils {
 
+	private static final List<Class<? extends Exception>> NOT_RETRYABLE_EXCEPTIONS = List.of(
+			org.springframework.kafka.support.converter.ConversionException.class,
+			com.fasterxml.jackson.core.JsonParseException.class,
+			com.fasterxml.jackson.databind.JsonMappingException.class,
+			com.fasterxml.jackson.databind.exc.InvalidFormatException.class,
+			org.apache.kafka.common.errors.RecordTooLargeException.class
+	);
+
 	public static CommonErrorHandler createDeadLetterErrorHandler(
-			KafkaTemplate<String, String> kafkaTemplate,
+			KafkaOperations<String, Object> kafkaTemplate,
 			int retryAttempts,
 			long initialIntervalMs,
 			double multiplier,
@@ -28,12 +38,41 @@ public class ErrorHandlerUtils {
 			DlqMetrics dlqMetrics,
 			BiConsumer<Object, Exception> additionalAction) {
 
+		return createDeadLetterErrorHandler(
+				createDeadLetterRecoverer(kafkaTemplate, dlqMetrics, additionalAction),
+				retryAttempts,
+				initialIntervalMs,
+				multiplier,
+				maxIntervalMs);
+	}
+
+	public static CommonErrorHandler createDeadLetterErrorHandler(
+			ConsumerRecordRecoverer recoverer,
+			int retryAttempts,
+			long initialIntervalMs,
+			double multiplier,
+			long maxIntervalMs) {
+
 		ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(retryAttempts);
 		backOff.setInitialInterval(initialIntervalMs);
 		backOff.setMultiplier(multiplier);
 		backOff.setMaxInterval(maxIntervalMs);
 
-		DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+		DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+		NOT_RETRYABLE_EXCEPTIONS.forEach(errorHandler::addNotRetryableExceptions);
+
+		return errorHandler;
+	}
+
+	/**
+	 * Publishes failed records to {@code <topic>.DLT}, on the partition they were consumed from.
+	 */
+	public static DeadLetterPublishingRecoverer createDeadLetterRecoverer(
+			KafkaOperations<String, Object> kafkaTemplate,
+			DlqMetrics dlqMetrics,
+			BiConsumer<Object, Exception> additionalAction) {
+
+		return new DeadLetterPublishingRecoverer(kafkaTemplate,
 				(record, exception) -> {
 					String deadLetterTopic = record.topic() + ".DLT";
 					log.error("Sending message to dead letter topic {} due to exception: {}",
@@ -49,17 +88,19 @@ public class ErrorHandlerUtils {
 
 					return new TopicPartition(deadLetterTopic, record.partition());
 				});
+	}
 
-		DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
-
-		errorHandler.addNotRetryableExceptions(
-				org.springframework.kafka.support.converter.ConversionException.class,
-				com.fasterxml.jackson.core.JsonParseException.class,
-				com.fasterxml.jackson.databind.JsonMappingException.class,
-				com.fasterxml.jackson.databind.exc.InvalidFormatException.class,
-				org.apache.kafka.common.errors.RecordTooLargeException.class
-		);
-
-		return errorHandler;
+	/**
+	 * Returns whether retrying could help: parse, mapping and size errors anywhere in the cause chain fail the
+	 * same way every time and are dead-lettered without retries.
+	 */
+	public static boolean isRetryable(Throwable error) {
+		for (Throwable cause = error; nonNull(cause); cause = cause.getCause()) {
+			Throwable current = cause;
+			if (NOT_RETRYABLE_EXCEPTIONS.stream().anyMatch(type -> type.isInstance(current))) {
+				return false;
+			}
+		}
+		return true;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,237 @@
+package pl.ecommerce.commons.kafka;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import lombok.extern.slf4j.Slf4j;
+import pl.ecommerce.commons.event.AbstractDomainEvent;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import static java.util.Objects.nonNull;
+
+@Slf4j
+public final class EventHandlerRegistry {
+
+	private static final HandlerMethod NO_HANDLER = new HandlerMethod(AbstractDomainEvent.class, null, false, "none");
+
+	private final Map<Class<?>, HandlerMethod> declared;
+	private final Map<Class<?>, HandlerMethod> declaredBatch;
+	private final Map<Class<?>, HandlerMethod> resolved = new ConcurrentHashMap<>();
+	private final Map<Class<?>, HandlerMethod> resolvedBatch = new ConcurrentHashMap<>();
+
+	private EventHandlerRegistry(Map<Class<?>, HandlerMethod> declared, Map<Class<?>, HandlerMethod> declaredBatch) {
+		this.declared = declared;
+		this.declaredBatch = declaredBatch;
+		this.resolved.putAll(declared);
+		this.resolvedBatch.putAll(declaredBatch);
+		JsonSubTypes subTypes = AbstractDomainEvent.class.getAnnotation(JsonSubTypes.class);
+		if (nonNull(subTypes)) {
+			for (JsonSubTypes.Type type : subTypes.value()) {
+				resolve(type.value());
+				resolveBatch(type.value());
+			}
+		}
+	}
+
+	public static EventHandlerRegistry forTarget(Object target) {
+		Map<Class<?>, HandlerMethod> handlers = new HashMap<>();
+		Map<Class<?>, HandlerMethod> batchHandlers = new HashMap<>();
+		for (Class<?> type = target.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+			for (Method method : type.getDeclaredMethods()) {
+				if (!method.isAnnotationPresent(EventHandler.class)) {
+					continue;
+				}
+				Class<?> batchType = batchEventType(method);
+				if (nonNull(batchType)) {
+					if (!batchHandlers.containsKey(batchType)) {
+						batchHandlers.put(batchType, new HandlerMethod(batchType, compile(method), false,
+								method.toGenericString()));
+						log.info("Registered batch handler for event type: {}", batchType.getSimpleName());
+					}
+					continue;
+				}
+				if (!isHandlerSignature(method)) {
+					continue;
+				}
+				Class<?> eventType = method.getParameterTypes()[0];
+				if (handlers.containsKey(eventType)) {
+					continue;
+				}
+				handlers.put(eventType, new HandlerMethod(eventType, compile(method),
+						method.getParameterCount() == 2, method.toGenericString()));
+				log.info("Registered handler for event type: {}", eventType.getSimpleName());
+			}
+		}
+		return new EventHandlerRegistry(handlers, batchHandlers);
+	}
+
+	public HandlerMethod resolve(Class<?> eventClass) {
+		return resolveIn(eventClass, declared, resolved);
+	}
+
+	public HandlerMethod resolveBatch(Class<?> eventClass) {
+		return resolveIn(eventClass, declaredBatch, resolvedBatch);
+	}
+
+	public Set<Class<?>> handledTypes() {
+		return Collections.unmodifiableSet(declared.keySet());
+	}
+
+	private static HandlerMethod resolveIn(Class<?> eventClass, Map<Class<?>, HandlerMethod> declared,
+										   Map<Class<?>, HandlerMethod> resolved) {
+		HandlerMethod handler = resolved.get(eventClass);
+		if (handler == null) {
+			handler = lookupHierarchy(eventClass, declared);
+			resolved.put(eventClass, handler);
+		}
+		return handler == NO_HANDLER ? null : handler;
+	}
+
+	private static HandlerMethod lookupHierarchy(Class<?> eventClass, Map<Class<?>, HandlerMethod> declared) {
+		for (Class<?> type = eventClass; type != null && type != Object.class; type = type.getSuperclass()) {
+			HandlerMethod handler = declared.get(type);
+			if (nonNull(handler)) {
+				return handler;
+			}
+			for (Class<?> iface : type.getInterfaces()) {
+				handler = declared.get(iface);
+				if (nonNull(handler)) {
+					return handler;
+				}
+			}
+		}
+		return NO_HANDLER;
+	}
+
+	private static Class<?> batchEventType(Method method) {
+		if (method.getParameterCount() != 1 || !List.class.isAssignableFrom(method.getParameterTypes()[0])) {
+			return null;
+		}
+		Type parameterType = method.getGenericParameterTypes()[0];
+		if (parameterType instanceof ParameterizedType parameterized
+				&& parameterized.getActualTypeArguments()[0] instanceof Class<?> elementType
+				&& AbstractDomainEvent.class.isAssignableFrom(elementType)) {
+			return elementType;
+		}
+		return null;
+	}
+
+	private static boolean isHandlerSignature(Method method) {
+		Class<?>[] paramTypes = method.getParameterTypes();
+		return (paramTypes.length == 1 && AbstractDomainEvent.class.isAssignableFrom(paramTypes[0])) ||
+				(paramTypes.length == 2 && AbstractDomainEvent.class.isAssignableFrom(paramTypes[0]) &&
+						Map.class.isAssignableFrom(paramTypes[1]));
+	}
+
+	boolean isCached(Class<?> eventClass) {
+		return resolved.containsKey(eventClass);
+	}
+
+	static EventInvoker compile(Method method) {
+		try {
+			return lambdaInvoker(method);
+		} catch (Throwable e) {
+			log.warn("Falling back to method handle dispatch for {}: {}", method, e.getMessage());
+			return methodHandleInvoker(method, method.getParameterCount() == 2);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	static EventInvoker lambdaInvoker(Method method) throws Throwable {
+		boolean withHeaders = method.getParameterCount() == 2;
+		boolean returnsValue = method.getReturnType() != void.class;
+		MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+		MethodHandle handle = lookup.unreflect(method);
+		if (!withHeaders && !returnsValue) {
+			BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) metafactory(lookup, handle,
+					BiConsumer.class, "accept", MethodType.methodType(void.class, Object.class, Object.class))
+					.invoke();
+			return (target, event, headers) -> {
+				consumer.accept(target, event);
+				return null;
+			};
+		}
+		if (!withHeaders) {
+			BiFunction<Object, Object, Object> function = (BiFunction<Object, Object, Object>) metafactory(lookup, handle,
+					BiFunction.class, "apply", MethodType.methodType(Object.class, Object.class, Object.class))
+					.invoke();
+			return (target, event, headers) -> function.apply(target, event);
+		}
+		if (!returnsValue) {
+			TriConsumer consumer = (TriConsumer) metafactory(lookup, handle,
+					TriConsumer.class, "accept", MethodType.methodType(void.class, Object.class, Object.class, Object.class))
+					.invoke();
+			return (target, event, headers) -> {
+				consumer.accept(target, event, headers);
+				return null;
+			};
+		}
+		TriFunction function = (TriFunction) metafactory(lookup, handle,
+				TriFunction.class, "apply", MethodType.methodType(Object.class, Object.class, Object.class, Object.class))
+				.invoke();
+		return function::apply;
+	}
+
+	static EventInvoker methodHandleInvoker(Method method, boolean withHeaders) {
+		MethodHandle generic;
+		try {
+			method.setAccessible(true);
+			generic = MethodHandles.lookup().unreflect(method)
+					.asType(MethodType.genericMethodType(method.getParameterCount() + 1));
+		} catch (IllegalAccessException | RuntimeException e) {
+			throw new IllegalStateException("Cannot access event handler " + method, e);
+		}
+		if (withHeaders) {
+			return (target, event, headers) -> (Object) generic.invokeExact(target, (Object) event, (Object) headers);
+		}
+		return (target, event, headers) -> (Object) generic.invokeExact(target, (Object) event);
+	}
+
+	private static MethodHandle metafactory(MethodHandles.Lookup lookup, MethodHandle handle, Class<?> samType,
+											String samName, MethodType samMethodType) throws Exception {
+		CallSite site = LambdaMetafactory.metafactory(
+				lookup,
+				samName,
+				MethodType.methodType(samType),
+				samMethodType,
+				handle,
+				handle.type());
+		return site.getTarget();
+	}
+
+	@FunctionalInterface
+	public interface EventInvoker {
+		Object invoke(Object target, Object payload, Map<String, String> headers) throws Throwable;
+	}
+
+	@FunctionalInterface
+	public interface TriConsumer {
+		void accept(Object target, Object event, Object headers);
+	}
+
+	@FunctionalInterface
+	public interface TriFunction {
+		Object apply(Object target, Object event, Object headers);
+	}
+
+	public record HandlerMethod(Class<?> eventType, EventInvoker invoker, boolean acceptsHeaders, String name) {
+
+		public Object invoke(Object target, Object payload, Map<String, String> headers) throws Throwable {
+			return invoker.invoke(target, payload, headers);
+		}
+	}
+}
@@ -10,17 +10,23 @@ import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 import pl.ecommerce.commons.event.AbstractDomainEvent;
 import pl.ecommerce.commons.event.Message;
+import pl.ecommerce.commons.kafka.publisher.PublishGate;
+import pl.ecommerce.commons.kafka.publisher.PublishMetrics;
 import reactor.core.publisher.Mono;
 
-import java.util.concurrent.CompletableFuture;
+import java.nio.charset.StandardCharsets;
 
 @RequiredArgsConstructor
 @Component
 @Slf4j
 public class EventPublisher {
 
+	public static final String EVENT_TYPE_HEADER = "eventType";
+
 	private final KafkaTemplate<String, String> kafkaTemplate;
 	private final ObjectMapper objectMapper;
+	private final PublishGate publishGate;
+	private final PublishMetrics publishMetrics;
 
 	public Mono<Void> publish(AbstractDomainEvent event) {
 		return publish(event, null, null);
@@ -53,16 +59,27 @@ public class EventPublisher {
 					(partition != null)
 							? new ProducerRecord<>(topic, partition, key, eventJson)
 							: new ProducerRecord<>(topic, key, eventJson);
+			String eventType = event.getEventType();
+			record.headers().add(EVENT_TYPE_HEADER, eventType.getBytes(StandardCharsets.UTF_8));
 
-			log.debug("Publishing event {} to topic {}", event.getEventType(), topic);
-			CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(record).toCompletableFuture();
+			log.debug("Publishing event {} to topic {}", eventType, topic);
 
-			return Mono.fromFuture(future)
-					.doOnSuccess(result -> log.debug("Successfully published event {} with offset {}",
-							event.getEventType(), result.getRecordMetadata().offset()))
-					.doOnError(error -> log.error("Failed to publish event {}: {}",
-							event.getEventType(), error.getLocalizedMessage(), error))
-					.then();
+			return Mono.defer(() -> {
+				publishMetrics.recordPayloadSize(topic, eventType, eventJson.getBytes(StandardCharsets.UTF_8).length);
+				long start = System.nanoTime();
+				return publishGate.<SendResult<String, String>>submit(() -> Mono.fromFuture(() -> kafkaTemplate.send(record)))
+						.doOnSuccess(result -> {
+							publishMetrics.recordPublish(topic, eventType, true, System.nanoTime() - start);
+							log.debug("Successfully published event {} with offset {}",
+									eventType, result.getRecordMetadata().offset());
+						})
+						.doOnError(error -> {
+							publishMetrics.recordPublish(topic, eventType, false, System.nanoTime() - start);
+							log.error("Failed to publish event {}: {}",
+									eventType, error.getLocalizedMessage(), error);
+						})
+						.then();
+			});
 		} catch (JsonProcessingException e) {
 			log.error("Error serializing event {}: {}", event.getEventType(), e.getLocalizedMessage(), e);
 			return Mono.error(e);
@@ -0,0 +1,88 @@
+package pl.ecommerce.commons.kafka;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import pl.ecommerce.commons.event.AbstractDomainEvent;
+import pl.ecommerce.commons.event.Message;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+@Slf4j
+final class EventTypeRouter {
+
+	private final ObjectMapper objectMapper;
+	private final EventHandlerRegistry registry;
+	private final Map<String, Class<?>> typesByName = new HashMap<>();
+	private final Map<String, Class<?>> typesByTopic = new HashMap<>();
+	private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+	private final ObjectReader fallbackReader;
+
+	EventTypeRouter(ObjectMapper objectMapper, EventHandlerRegistry registry) {
+		this.objectMapper = objectMapper;
+		this.registry = registry;
+		this.fallbackReader = objectMapper.readerFor(AbstractDomainEvent.class);
+
+		JsonSubTypes subTypes = AbstractDomainEvent.class.getAnnotation(JsonSubTypes.class);
+		if (nonNull(subTypes)) {
+			for (JsonSubTypes.Type type : subTypes.value()) {
+				typesByName.put(type.name(), type.value());
+				Message message = type.value().getAnnotation(Message.class);
+				if (nonNull(message)) {
+					typesByTopic.putIfAbsent(message.value(), type.value());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Resolves the event class from the eventType header, falling back to the topic
+	 * for records published before the header existed. Returns null when unknown.
+	 */
+	Class<?> resolveType(ConsumerRecord<String, ?> record) {
+		Header header = record.headers().lastHeader(EventPublisher.EVENT_TYPE_HEADER);
+		if (nonNull(header) && nonNull(header.value())) {
+			Class<?> type = typesByName.get(new String(header.value(), StandardCharsets.UTF_8));
+			if (nonNull(type)) {
+				return type;
+			}
+		}
+		return typesByTopic.get(record.topic());
+	}
+
+	boolean isHandled(Class<?> eventType) {
+		return nonNull(registry.resolve(eventType)) || nonNull(registry.resolveBatch(eventType));
+	}
+
+	/**
+	 * Returns the decoded event, or null when the record carries a type without a handler.
+	 */
+	AbstractDomainEvent decode(ConsumerRecord<String, ?> record) throws IOException {
+		Object value = record.value();
+		if (value instanceof AbstractDomainEvent event) {
+			return event;
+		}
+		if (!(value instanceof byte[] bytes)) {
+			throw new IOException("Unsupported record value type: " + (isNull(value) ? "null" : value.getClass().getName()));
+		}
+
+		Class<?> eventType = resolveType(record);
+		if (isNull(eventType)) {
+			return fallbackReader.readValue(bytes);
+		}
+		if (!isHandled(eventType)) {
+			return null;
+		}
+		return readers.computeIfAbsent(eventType, objectMapper::readerFor).readValue(bytes);
+	}
+}
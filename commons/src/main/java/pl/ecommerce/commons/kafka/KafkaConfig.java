@@ -1,9 +1,10 @@
 package pl.ecommerce.commons.kafka;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
@@ -11,10 +12,10 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.CommonErrorHandler;
 import org.springframework.kafka.listener.ContainerProperties;
-import org.springframework.kafka.support.converter.StringJsonMessageConverter;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -24,24 +25,22 @@ import java.util.Map;
 @Slf4j
 public class KafkaConfig {
 
-	private final ObjectMapper objectMapper;
 	private final KafkaProperties kafkaProperties;
+	private final MeterRegistry meterRegistry;
+	private final CommonErrorHandler deadLetterErrorHandler;
 
 	@Bean
 	public ConsumerFactory<String, Object> kafkaConsumerFactory() {
 		Map<String, Object> props = new HashMap<>(kafkaProperties.buildConsumerProperties());
 
 		props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class.getName());
-		props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class.getName());
+		props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
 
 		props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class.getName());
-		props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
 
-		props.put(JsonDeserializer.TRUSTED_PACKAGES, "pl.ecommerce.commons.event");
-		props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "pl.ecommerce.commons.event.AbstractDomainEvent");
-		props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, true);
-
-		return new DefaultKafkaConsumerFactory<>(props);
+		DefaultKafkaConsumerFactory<String, Object> consumerFactory = new DefaultKafkaConsumerFactory<>(props);
+		consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+		return consumerFactory;
 	}
 
 	@Bean
@@ -49,10 +48,21 @@ public class KafkaConfig {
 		ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
 		factory.setConsumerFactory(kafkaConsumerFactory());
 
-		StringJsonMessageConverter messageConverter = new StringJsonMessageConverter(objectMapper);
-		factory.setRecordMessageConverter(messageConverter);
+		factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+		factory.getContainerProperties().setAsyncAcks(true);
+		factory.setCommonErrorHandler(deadLetterErrorHandler);
+
+		return factory;
+	}
+
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory() {
+		ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(kafkaConsumerFactory());
+		factory.setBatchListener(true);
 
 		factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+		factory.setCommonErrorHandler(deadLetterErrorHandler);
 
 		return factory;
 	}
@@ -13,6 +13,7 @@ import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import pl.ecommerce.commons.kafka.dlq.DlqMetrics;
@@ -26,7 +27,7 @@ import java.util.Map;
 public class KafkaErrorHandlingConfig {
 
 	private final KafkaProperties kafkaProperties;
-	private final KafkaTemplate<String, String> kafkaTemplate;
+	private final KafkaTemplate<String, Object> deadLetterKafkaTemplate;
 	private final DlqMetrics dlqMetrics;
 
 	@Value("${spring.kafka.listener.concurrency:1}")
@@ -67,20 +68,24 @@ public class KafkaErrorHandlingConfig {
 		ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
 		factory.setConsumerFactory(errorHandlingConsumerFactory());
 		factory.setConcurrency(concurrency);
-		factory.setCommonErrorHandler(createDeadLetterErrorHandler());
+		factory.setCommonErrorHandler(deadLetterErrorHandler());
 		factory.setRecordMessageConverter(new org.springframework.kafka.support.converter.JsonMessageConverter());
 		return factory;
 	}
 
-	private CommonErrorHandler createDeadLetterErrorHandler() {
+	@Bean
+	public DeadLetterPublishingRecoverer deadLetterRecoverer() {
+		return ErrorHandlerUtils.createDeadLetterRecoverer(deadLetterKafkaTemplate, dlqMetrics, null);
+	}
+
+	@Bean
+	public CommonErrorHandler deadLetterErrorHandler() {
 		return ErrorHandlerUtils.createDeadLetterErrorHandler(
-				kafkaTemplate,
+				deadLetterRecoverer(),
 				retryAttempts,
 				initialIntervalMs,
 				multiplier,
-				maxIntervalMs,
-				dlqMetrics,
-				null
+				maxIntervalMs
 		);
 	}
 }
\ No newline at end of file
@@ -1,17 +1,25 @@
 package pl.ecommerce.commons.kafka;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -22,8 +30,11 @@ public class KafkaProducerConfig {
 	@Value("${spring.kafka.bootstrap-servers}")
 	private String bootstrapServers;
 
+	@Value("${spring.application.name:unknown}")
+	private String applicationName;
+
 	@Bean
-	public ProducerFactory<String, String> producerFactory() {
+	public ProducerFactory<String, String> producerFactory(MeterRegistry meterRegistry) {
 		Map<String, Object> configProps = new HashMap<>();
 		configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
 		configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
@@ -33,11 +44,35 @@ public class KafkaProducerConfig {
 				"pl.ecommerce.commons.kafka.CustomKafkaProducerInterceptor"
 		));
 		log.debug("configProps: {}", configProps);
-		return new DefaultKafkaProducerFactory<>(configProps);
+		DefaultKafkaProducerFactory<String, String> factory = new DefaultKafkaProducerFactory<>(configProps);
+		factory.addListener(new MicrometerProducerListener<>(meterRegistry,
+				List.of(Tag.of("application", applicationName))));
+		return factory;
+	}
+
+	@Bean
+	public KafkaTemplate<String, String> kafkaTemplate(ProducerFactory<String, String> producerFactory) {
+		return new KafkaTemplate<>(producerFactory);
 	}
 
+	/**
+	 * Publishes dead letter records with the value as it was consumed: raw bytes from the event listener
+	 * factories, strings, or events deserialized by the error handling factory.
+	 */
 	@Bean
-	public KafkaTemplate<String, String> kafkaTemplate() {
-		return new KafkaTemplate<>(producerFactory());
+	public KafkaTemplate<String, Object> deadLetterKafkaTemplate(MeterRegistry meterRegistry) {
+		Map<String, Object> configProps = new HashMap<>();
+		configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+
+		Map<Class<?>, Serializer<?>> valueSerializers = new LinkedHashMap<>();
+		valueSerializers.put(byte[].class, new ByteArraySerializer());
+		valueSerializers.put(String.class, new StringSerializer());
+		valueSerializers.put(Object.class, new JsonSerializer<>());
+
+		DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configProps,
+				new StringSerializer(), new DelegatingByTypeSerializer(valueSerializers, true));
+		factory.addListener(new MicrometerProducerListener<>(meterRegistry,
+				List.of(Tag.of("application", applicationName))));
+		return new KafkaTemplate<>(factory);
 	}
-}
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package pl.ecommerce.commons.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import static java.util.Objects.isNull;
+
+@Slf4j
+public class KeyOrderedDispatcher {
+
+	private final Lane[] lanes;
+	private final Scheduler scheduler;
+	private final Disposable.Composite subscriptions = Disposables.composite();
+
+	public KeyOrderedDispatcher(String name, int workers) {
+		int size = Math.max(1, workers);
+		this.scheduler = Schedulers.newParallel(name, size, true);
+		this.lanes = new Lane[size];
+		for (int i = 0; i < size; i++) {
+			Lane lane = new Lane();
+			lanes[i] = lane;
+			subscriptions.add(lane.sink.asFlux()
+					.concatMap(work -> work.subscribeOn(scheduler))
+					.subscribe());
+		}
+		log.info("Started {} key-ordered workers for {}", size, name);
+	}
+
+	public Mono<Void> submit(Object key, Mono<Void> work) {
+		if (isNull(key)) {
+			return work.subscribeOn(scheduler);
+		}
+		Sinks.Empty<Void> done = Sinks.empty();
+		Mono<Void> job = work
+				.doOnSuccess(v -> done.tryEmitEmpty())
+				.doOnError(done::tryEmitError)
+				.doOnCancel(done::tryEmitEmpty)
+				.onErrorResume(e -> Mono.empty());
+		lanes[Math.floorMod(key.hashCode(), lanes.length)].emit(job);
+		return done.asMono();
+	}
+
+	public int workers() {
+		return lanes.length;
+	}
+
+	public void dispose() {
+		for (Lane lane : lanes) {
+			lane.complete();
+		}
+		subscriptions.dispose();
+		scheduler.dispose();
+	}
+
+	private static final class Lane {
+		private final Sinks.Many<Mono<Void>> sink = Sinks.many().unicast().onBackpressureBuffer();
+
+		private synchronized void emit(Mono<Void> job) {
+			Sinks.EmitResult result = sink.tryEmitNext(job);
+			if (result.isFailure()) {
+				throw new IllegalStateException("Cannot schedule event handler: " + result);
+			}
+		}
+
+		private synchronized void complete() {
+			sink.tryEmitComplete();
+		}
+	}
+}
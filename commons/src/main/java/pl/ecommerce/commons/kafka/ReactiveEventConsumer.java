@@ -0,0 +1,168 @@
+package pl.ecommerce.commons.kafka;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.MicrometerConsumerListener;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "event.listener.engine", havingValue = "reactive")
+public class ReactiveEventConsumer implements SmartLifecycle {
+
+	private final ConsumerFactory<String, Object> consumerFactory;
+	private final List<DomainEventHandler> handlers;
+	private final MeterRegistry meterRegistry;
+	private final String groupId;
+	private final Duration commitInterval;
+	private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+	private final int retryAttempts;
+	private final Duration retryBackoff;
+
+	private Disposable.Composite subscriptions = Disposables.composite();
+	private volatile boolean running;
+
+	public ReactiveEventConsumer(ConsumerFactory<String, Object> consumerFactory,
+								 List<DomainEventHandler> handlers,
+								 MeterRegistry meterRegistry,
+								 @Value("${event.listener.group-id:${spring.application.name}-group}") String groupId,
+								 @Value("${event.listener.reactive.commit-interval-ms:1000}") long commitIntervalMs,
+								 DeadLetterPublishingRecoverer deadLetterRecoverer,
+								 @Value("${event.listener.retry.max-attempts:3}") int retryAttempts,
+								 @Value("${event.listener.retry.backoff-ms:200}") long retryBackoffMs) {
+		this.consumerFactory = consumerFactory;
+		this.handlers = handlers;
+		this.meterRegistry = meterRegistry;
+		this.groupId = groupId;
+		this.commitInterval = Duration.ofMillis(commitIntervalMs);
+		this.deadLetterRecoverer = deadLetterRecoverer;
+		this.retryAttempts = retryAttempts;
+		this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+	}
+
+	@Override
+	public void start() {
+		subscriptions = Disposables.composite();
+		for (DomainEventHandler handler : handlers) {
+			subscriptions.add(consume(handler));
+		}
+		running = true;
+	}
+
+	@Override
+	public void stop() {
+		subscriptions.dispose();
+		running = false;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Processes each assigned partition in order, all partitions concurrently. A partition's group is completed
+	 * when it is revoked, so records already polled from it are dropped rather than handled and acknowledged
+	 * after another consumer took it over.
+	 */
+	private Disposable consume(DomainEventHandler handler) {
+		Map<String, Object> props = new HashMap<>(consumerFactory.getConfigurationProperties());
+		props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+		props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+		Map<TopicPartition, Sinks.Empty<Void>> assigned = new ConcurrentHashMap<>();
+		ReceiverOptions<String, Object> options = ReceiverOptions.<String, Object>create(props)
+				.subscription(List.of(handler.topicsProvider.getTopics()))
+				.commitInterval(commitInterval)
+				.consumerListener(new MicrometerConsumerListener(meterRegistry))
+				.addAssignListener(partitions -> {
+					log.info("Reactive consumer assigned partitions: {}", partitions);
+					partitions.forEach(partition -> assigned.put(partition.topicPartition(), Sinks.empty()));
+				})
+				.addRevokeListener(partitions -> {
+					log.info("Reactive consumer revoked partitions: {}", partitions);
+					partitions.forEach(partition -> revoke(assigned.remove(partition.topicPartition())));
+				});
+
+		log.info("Starting reactive consumer for {} with group {}", handler.getClass().getSimpleName(), groupId);
+		return KafkaReceiver.create(options)
+				.receive()
+				.groupBy(record -> record.receiverOffset().topicPartition())
+				.flatMap(partition -> partition
+						.takeUntilOther(revocation(assigned, partition.key()))
+						.concatMap(record -> handle(handler, record)), Integer.MAX_VALUE)
+				.doFinally(signal -> {
+					assigned.values().forEach(ReactiveEventConsumer::revoke);
+					assigned.clear();
+				})
+				.retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+						.maxBackoff(Duration.ofSeconds(30))
+						.doBeforeRetry(signal -> log.warn("Reactive consumer failed, restarting: {}",
+								signal.failure().getMessage())))
+				.subscribe();
+	}
+
+	/**
+	 * Acknowledges the record once it is handled or, after the retries run out, published to its dead letter
+	 * topic, so a failing record holds back its partition only for the retry back-off. Errors that fail the same
+	 * way every time are dead-lettered without retries, as in the container engine. If the dead letter publish
+	 * fails the record stays unacknowledged and the receiver restarts from the last committed offset.
+	 */
+	private Mono<Void> handle(DomainEventHandler handler, ReceiverRecord<String, Object> record) {
+		if (log.isDebugEnabled()) {
+			log.debug("Processing Kafka message - topic: {}, partition: {}, offset: {}, key: {}",
+					record.topic(), record.partition(), record.offset(), record.key());
+		}
+		return Mono.defer(() -> handler.handleRecord(record))
+				.retryWhen(Retry.backoff(retryAttempts, retryBackoff)
+						.filter(ErrorHandlerUtils::isRetryable)
+						.doBeforeRetry(signal -> log.warn("Error processing Kafka message {}-{}@{}, retrying (attempt {}): {}",
+								record.topic(), record.partition(), record.offset(), signal.totalRetries() + 1,
+								signal.failure().getMessage()))
+						.onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+				.onErrorResume(error -> deadLetter(record, error))
+				.doOnSuccess(v -> record.receiverOffset().acknowledge());
+	}
+
+	private Mono<Void> deadLetter(ReceiverRecord<String, Object> record, Throwable error) {
+		Exception exception = error instanceof Exception e ? e : new IllegalStateException(error);
+		return Mono.<Void>fromRunnable(() -> deadLetterRecoverer.accept(record, exception))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private static Mono<Void> revocation(Map<TopicPartition, Sinks.Empty<Void>> assigned, TopicPartition partition) {
+		Sinks.Empty<Void> revoked = assigned.get(partition);
+		return isNull(revoked) ? Mono.empty() : revoked.asMono();
+	}
+
+	private static void revoke(Sinks.Empty<Void> revoked) {
+		if (nonNull(revoked)) {
+			revoked.tryEmitEmpty();
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package pl.ecommerce.commons.kafka.publisher;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+@Slf4j
+public class PublishGate {
+
+	private final int maxInFlight;
+	private final int maxQueued;
+	private final Duration maxWait;
+	private final Scheduler senderScheduler;
+	private final CircuitBreaker circuitBreaker;
+	private final PublishMetrics metrics;
+
+	private final Deque<Waiter> waiters = new ArrayDeque<>();
+	private int inFlight;
+
+	public PublishGate(int maxInFlight, int maxQueued, Duration maxWait, Scheduler senderScheduler,
+					   CircuitBreaker circuitBreaker, PublishMetrics metrics) {
+		this.maxInFlight = maxInFlight;
+		this.maxQueued = maxQueued;
+		this.maxWait = maxWait;
+		this.senderScheduler = senderScheduler;
+		this.circuitBreaker = circuitBreaker;
+		this.metrics = metrics;
+
+		metrics.bindGate(this::queueDepth, this::inFlight);
+		metrics.bindCircuitBreaker(circuitBreaker);
+	}
+
+	public <T> Mono<T> submit(Supplier<Mono<T>> send) {
+		return acquire()
+				.then(Mono.defer(send)
+						.subscribeOn(senderScheduler)
+						.doFinally(signal -> release()))
+				.transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+				.doOnError(CallNotPermittedException.class, e -> metrics.recordRejection("circuit_open"));
+	}
+
+	public synchronized int queueDepth() {
+		return waiters.size();
+	}
+
+	public synchronized int inFlight() {
+		return inFlight;
+	}
+
+	private Mono<Void> acquire() {
+		return Mono.<Void>create(sink -> {
+					Waiter waiter;
+					synchronized (this) {
+						if (inFlight < maxInFlight) {
+							inFlight++;
+							waiter = null;
+						} else if (waiters.size() >= maxQueued) {
+							metrics.recordRejection("queue_full");
+							sink.error(new PublishRejectedException("queue_full",
+									"Publish queue is full (" + maxQueued + " waiting)"));
+							return;
+						} else {
+							waiter = new Waiter(sink, System.nanoTime());
+							waiters.addLast(waiter);
+						}
+					}
+					if (waiter == null) {
+						sink.success();
+						return;
+					}
+					sink.onCancel(() -> abandon(waiter));
+				})
+				.timeout(maxWait, Mono.defer(() -> {
+					metrics.recordRejection("wait_timeout");
+					return Mono.error(new PublishRejectedException("wait_timeout",
+							"No free publish slot within " + maxWait.toMillis() + " ms"));
+				}));
+	}
+
+	private void release() {
+		Waiter next;
+		synchronized (this) {
+			next = waiters.pollFirst();
+			if (next == null) {
+				inFlight--;
+				return;
+			}
+			next.granted = true;
+		}
+		metrics.recordQueueWait(Duration.ofNanos(System.nanoTime() - next.enqueuedAt));
+		next.sink.success();
+	}
+
+	private void abandon(Waiter waiter) {
+		boolean releaseSlot;
+		synchronized (this) {
+			releaseSlot = !waiters.remove(waiter) && waiter.granted;
+		}
+		if (releaseSlot) {
+			log.debug("Publish slot granted to a cancelled waiter, handing it over");
+			release();
+		}
+	}
+
+	private static final class Waiter {
+		private final MonoSink<Void> sink;
+		private final long enqueuedAt;
+		private boolean granted;
+
+		private Waiter(MonoSink<Void> sink, long enqueuedAt) {
+			this.sink = sink;
+			this.enqueuedAt = enqueuedAt;
+		}
+	}
+}
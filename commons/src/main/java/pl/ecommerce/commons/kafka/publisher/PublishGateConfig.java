@@ -0,0 +1,61 @@
+package pl.ecommerce.commons.kafka.publisher;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+@Configuration
+public class PublishGateConfig {
+
+	@Value("${kafka.publisher.max-in-flight:256}")
+	private int maxInFlight;
+
+	@Value("${kafka.publisher.max-queued:1024}")
+	private int maxQueued;
+
+	@Value("${kafka.publisher.max-wait-ms:5000}")
+	private long maxWaitMs;
+
+	@Value("${kafka.publisher.circuit-breaker.failure-rate-threshold:50}")
+	private float failureRateThreshold;
+
+	@Value("${kafka.publisher.circuit-breaker.sliding-window-size:50}")
+	private int slidingWindowSize;
+
+	@Value("${kafka.publisher.circuit-breaker.wait-in-open-state-ms:30000}")
+	private long waitInOpenStateMs;
+
+	@Value("${kafka.publisher.circuit-breaker.half-open-calls:5}")
+	private int halfOpenCalls;
+
+	@Bean(destroyMethod = "dispose")
+	public Scheduler kafkaPublisherScheduler() {
+		return Schedulers.newSingle("kafka-publisher", true);
+	}
+
+	@Bean
+	public CircuitBreaker kafkaPublisherCircuitBreaker() {
+		CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+				.failureRateThreshold(failureRateThreshold)
+				.slidingWindowSize(slidingWindowSize)
+				.minimumNumberOfCalls(Math.min(slidingWindowSize, 10))
+				.waitDurationInOpenState(Duration.ofMillis(waitInOpenStateMs))
+				.permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+				.ignoreExceptions(PublishRejectedException.class)
+				.build();
+		return CircuitBreaker.of("kafka-publisher", config);
+	}
+
+	@Bean
+	public PublishGate publishGate(Scheduler kafkaPublisherScheduler, CircuitBreaker kafkaPublisherCircuitBreaker,
+								   PublishMetrics publishMetrics) {
+		return new PublishGate(maxInFlight, maxQueued, Duration.ofMillis(maxWaitMs),
+				kafkaPublisherScheduler, kafkaPublisherCircuitBreaker, publishMetrics);
+	}
+}
@@ -0,0 +1,96 @@
+package pl.ecommerce.commons.kafka.publisher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Component
+public class PublishMetrics {
+
+	private final MeterRegistry registry;
+	private final String serviceName;
+	private final Timer queueWaitTimer;
+	private final Map<String, Counter> rejectionCounters = new ConcurrentHashMap<>();
+	private final Map<String, Timer> publishTimers = new ConcurrentHashMap<>();
+	private final Map<String, DistributionSummary> payloadSummaries = new ConcurrentHashMap<>();
+
+	public PublishMetrics(MeterRegistry registry,
+						  @Value("${spring.application.name:unknown}") String serviceName) {
+		this.registry = registry;
+		this.serviceName = serviceName;
+
+		queueWaitTimer = Timer.builder("kafka_publisher_queue_wait_seconds")
+				.description("Time a publish waited for a free in-flight slot")
+				.tag("service", serviceName)
+				.publishPercentileHistogram()
+				.register(registry);
+	}
+
+	public void bindGate(Supplier<Number> queueDepth, Supplier<Number> inFlight) {
+		Gauge.builder("kafka_publisher_queue_depth", queueDepth)
+				.description("Number of publishes waiting for a free in-flight slot")
+				.tag("service", serviceName)
+				.register(registry);
+
+		Gauge.builder("kafka_publisher_in_flight", inFlight)
+				.description("Number of sends handed to the Kafka producer and not yet acknowledged")
+				.tag("service", serviceName)
+				.register(registry);
+	}
+
+	public void bindCircuitBreaker(CircuitBreaker circuitBreaker) {
+		Gauge.builder("kafka_publisher_circuit_state", circuitBreaker, cb -> cb.getState().getOrder())
+				.description("State of the publisher circuit breaker (0 closed, 1 open, 2 half open)")
+				.tag("service", serviceName)
+				.register(registry);
+	}
+
+	public void recordQueueWait(Duration wait) {
+		queueWaitTimer.record(wait);
+	}
+
+	public void recordRejection(String reason) {
+		rejectionCounters.computeIfAbsent(reason, r -> Counter.builder("kafka_publisher_rejected_total")
+						.description("Publishes rejected before reaching the Kafka producer")
+						.tag("service", serviceName)
+						.tag("reason", r)
+						.register(registry))
+				.increment();
+	}
+
+	public void recordPublish(String topic, String eventType, boolean success, long durationNanos) {
+		String outcome = success ? "success" : "failure";
+		publishTimers.computeIfAbsent(topic + '|' + eventType + '|' + outcome, k -> Timer.builder("kafka_publisher_publish_seconds")
+						.description("Time from publish call until the broker acknowledged the record")
+						.tag("service", serviceName)
+						.tag("topic", topic)
+						.tag("event_type", eventType)
+						.tag("outcome", outcome)
+						.publishPercentileHistogram()
+						.register(registry))
+				.record(durationNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void recordPayloadSize(String topic, String eventType, int bytes) {
+		payloadSummaries.computeIfAbsent(topic + '|' + eventType, k -> DistributionSummary.builder("kafka_publisher_payload_bytes")
+						.description("Serialized size of published event payloads")
+						.baseUnit("bytes")
+						.tag("service", serviceName)
+						.tag("topic", topic)
+						.tag("event_type", eventType)
+						.publishPercentileHistogram()
+						.register(registry))
+				.record(bytes);
+	}
+}
@@ -0,0 +1,14 @@
+package pl.ecommerce.commons.kafka.publisher;
+
+import lombok.Getter;
+
+@Getter
+public class PublishRejectedException extends RuntimeException {
+
+	private final String reason;
+
+	public PublishRejectedException(String reason, String message) {
+		super(message);
+		this.reason = reason;
+	}
+}
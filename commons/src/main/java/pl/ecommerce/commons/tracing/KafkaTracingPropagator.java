@@ -12,35 +12,39 @@ import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
 
 import java.nio.charset.StandardCharsets;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class KafkaTracingPropagator {
 
 	private static final TextMapPropagator PROPAGATOR =
 			GlobalOpenTelemetry.getPropagators().getTextMapPropagator();
 
-	private static final TextMapSetter<Headers> KAFKA_SETTER = (carrier, key, value) -> {
+	static final TextMapSetter<Headers> KAFKA_SETTER = (carrier, key, value) -> {
 		if (isNull(carrier) || isNull(value)) return;
 		carrier.remove(key);
 		carrier.add(key, value.getBytes(StandardCharsets.UTF_8));
 	};
 
-	private static final TextMapGetter<Headers> KAFKA_GETTER = new TextMapGetter<Headers>() {
+	static final TextMapGetter<Headers> KAFKA_GETTER = new TextMapGetter<Headers>() {
 		@Override
 		public Iterable<String> keys(Headers carrier) {
-			return (isNull(carrier))
-					? java.util.Collections.emptyList()
-					: StreamSupport.stream(carrier.spliterator(), false)
-					.map(Header::key)
-					.collect(Collectors.toList());
+			if (isNull(carrier)) {
+				return Collections.emptyList();
+			}
+			List<String> keys = new ArrayList<>();
+			for (Header header : carrier) {
+				keys.add(header.key());
+			}
+			return keys;
 		}
 
 		@Override
 		public String get(Headers carrier, String key) {
 			if (isNull(carrier)) return null;
 			Header header = carrier.lastHeader(key);
-			return nonNull(header)
+			return nonNull(header) && nonNull(header.value())
 					? new String(header.value(), StandardCharsets.UTF_8)
 					: null;
 		}
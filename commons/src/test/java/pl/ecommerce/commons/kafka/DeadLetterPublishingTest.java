@@ -0,0 +1,132 @@
+package pl.ecommerce.commons.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+class DeadLetterPublishingTest {
+
+	private static final byte[] PAYLOAD = "{\"customerId\":\"42\"}".getBytes(StandardCharsets.UTF_8);
+
+	@Container
+	static final KafkaContainer kafkaContainer = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.5.0"));
+
+	private String topic;
+	private KafkaTemplate<String, Object> deadLetterTemplate;
+	private KafkaMessageListenerContainer<String, byte[]> container;
+
+	@BeforeEach
+	void setUp() {
+		topic = "customer.test-" + UUID.randomUUID() + ".event";
+		KafkaProducerConfig producerConfig = new KafkaProducerConfig();
+		ReflectionTestUtils.setField(producerConfig, "bootstrapServers", kafkaContainer.getBootstrapServers());
+		ReflectionTestUtils.setField(producerConfig, "applicationName", "test");
+		deadLetterTemplate = producerConfig.deadLetterKafkaTemplate(new SimpleMeterRegistry());
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (nonNull(container)) {
+			container.stop();
+		}
+	}
+
+	@Test
+	@DisplayName("Should publish a record whose handler keeps failing to the dead letter topic with its raw value")
+	void shouldPublishRawRecordToDeadLetterTopic() {
+		AtomicInteger attempts = new AtomicInteger();
+		container = listenerContainer(record -> {
+			attempts.incrementAndGet();
+			throw new IllegalStateException("handler failed");
+		});
+		container.start();
+
+		send("customer-1", PAYLOAD);
+
+		try (Consumer<String, byte[]> consumer = deadLetterConsumer()) {
+			ConsumerRecord<String, byte[]> deadLetter = KafkaTestUtils.getSingleRecord(consumer, topic + ".DLT",
+					Duration.ofSeconds(30));
+
+			assertThat(deadLetter.key()).isEqualTo("customer-1");
+			assertThat(deadLetter.value()).isEqualTo(PAYLOAD);
+			assertThat(new String(deadLetter.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC).value(),
+					StandardCharsets.UTF_8)).isEqualTo(topic);
+			assertThat(new String(deadLetter.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE).value(),
+					StandardCharsets.UTF_8)).contains("handler failed");
+		}
+		assertThat(attempts).hasValue(3);
+	}
+
+	private KafkaMessageListenerContainer<String, byte[]> listenerContainer(MessageListener<String, byte[]> listener) {
+		Map<String, Object> props = Map.of(
+				ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers(),
+				ConsumerConfig.GROUP_ID_CONFIG, "listener-" + topic,
+				ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+		ContainerProperties containerProperties = new ContainerProperties(topic);
+		containerProperties.setMessageListener(listener);
+
+		KafkaMessageListenerContainer<String, byte[]> listenerContainer = new KafkaMessageListenerContainer<>(
+				new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ByteArrayDeserializer()),
+				containerProperties);
+		listenerContainer.setCommonErrorHandler(ErrorHandlerUtils.createDeadLetterErrorHandler(
+				deadLetterTemplate, 2, 10, 1.0, 10, null, null));
+		return listenerContainer;
+	}
+
+	private void send(String key, byte[] value) {
+		Map<String, Object> props = Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers());
+		DefaultKafkaProducerFactory<String, byte[]> producerFactory = new DefaultKafkaProducerFactory<>(props,
+				new StringSerializer(), new ByteArraySerializer());
+		try {
+			new KafkaTemplate<>(producerFactory).send(new ProducerRecord<>(topic, key, value)).join();
+		} finally {
+			producerFactory.destroy();
+		}
+	}
+
+	private Consumer<String, byte[]> deadLetterConsumer() {
+		Map<String, Object> props = Map.of(
+				ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers(),
+				ConsumerConfig.GROUP_ID_CONFIG, "dlt-" + topic,
+				ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+		Consumer<String, byte[]> consumer = new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+				new ByteArrayDeserializer()).createConsumer();
+		consumer.subscribe(List.of(topic + ".DLT"));
+		return consumer;
+	}
+}
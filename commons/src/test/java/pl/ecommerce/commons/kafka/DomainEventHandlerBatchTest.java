@@ -0,0 +1,168 @@
+package pl.ecommerce.commons.kafka;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.ecommerce.commons.event.AbstractDomainEvent;
+import pl.ecommerce.commons.event.customer.CustomerDeletedEvent;
+import pl.ecommerce.commons.event.customer.CustomerRegisteredEvent;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class DomainEventHandlerBatchTest {
+
+	private static final String TOPIC = "customer.events";
+
+	private RecordingHandler handler;
+	private Acknowledgment ack;
+
+	@BeforeEach
+	void setUp() {
+		handler = new RecordingHandler();
+		ReflectionTestUtils.setField(handler, "maxInFlight", 16);
+		ReflectionTestUtils.setField(handler, "batchTimeoutMs", 5000L);
+		ReflectionTestUtils.setField(handler, "workers", 2);
+		ReflectionTestUtils.setField(handler, "maxBatchLinks", 8);
+		handler.init();
+		ack = mock(Acknowledgment.class);
+	}
+
+	@AfterEach
+	void tearDown() {
+		handler.shutdown();
+	}
+
+	@Test
+	@DisplayName("Should hand runs of one type to the batch handler, process the rest per record and then acknowledge")
+	void shouldProcessRunsAndAcknowledge() {
+		UUID first = UUID.randomUUID();
+		UUID second = UUID.randomUUID();
+		UUID third = UUID.randomUUID();
+
+		handler.consumeBatch(records(registered(first), registered(second), deleted(first), deleted(second),
+				registered(third)), ack);
+
+		assertThat(handler.registered).containsExactlyInAnyOrder(first, second, third);
+		assertThat(handler.deletedBatches).containsExactly(List.of(first, second));
+		assertThat(handler.applied).hasSize(5);
+		verify(ack).acknowledge();
+	}
+
+	@Test
+	@DisplayName("Should not acknowledge a failed batch and report the first record of the failed run")
+	void shouldReportFailedRun() {
+		UUID failing = UUID.randomUUID();
+		handler.failFor = failing;
+
+		List<ConsumerRecord<String, Object>> records = records(deleted(UUID.randomUUID()),
+				registered(UUID.randomUUID()), registered(failing), deleted(UUID.randomUUID()));
+
+		assertThatThrownBy(() -> handler.consumeBatch(records, ack))
+				.isInstanceOfSatisfying(BatchListenerFailedException.class,
+						error -> assertThat(error.getIndex()).isEqualTo(1))
+				.hasRootCauseMessage("handler failed for " + failing);
+		assertThat(handler.deletedBatches).hasSize(1);
+		verify(ack, never()).acknowledge();
+	}
+
+	@Test
+	@DisplayName("Should process the records before an undecodable one and report the batch failed at its index")
+	void shouldReportUndecodableRecord() {
+		UUID first = UUID.randomUUID();
+		List<ConsumerRecord<String, Object>> records = records(registered(first), registered(UUID.randomUUID()));
+		ConsumerRecord<String, Object> corrupt = new ConsumerRecord<>(TOPIC, 0, 1L, "key",
+				"not json".getBytes(StandardCharsets.UTF_8));
+		corrupt.headers().add(EventPublisher.EVENT_TYPE_HEADER, "CustomerRegisteredEvent".getBytes(StandardCharsets.UTF_8));
+		records.set(1, corrupt);
+
+		assertThatThrownBy(() -> handler.consumeBatch(records, ack))
+				.isInstanceOfSatisfying(BatchListenerFailedException.class,
+						error -> assertThat(error.getIndex()).isEqualTo(1))
+				.hasRootCauseInstanceOf(JsonParseException.class);
+		assertThat(handler.registered).containsExactly(first);
+		verify(ack, never()).acknowledge();
+	}
+
+	@Test
+	@DisplayName("Should leave retries of a failing handler to the container's error handler")
+	void shouldNotRetryInHandler() {
+		UUID flaky = UUID.randomUUID();
+		handler.failFor = flaky;
+		handler.failuresLeft = 1;
+
+		assertThatThrownBy(() -> handler.consumeBatch(records(registered(flaky)), ack))
+				.isInstanceOf(BatchListenerFailedException.class);
+		assertThat(handler.failuresLeft).isZero();
+		assertThat(handler.registered).isEmpty();
+		verify(ack, never()).acknowledge();
+	}
+
+	@SafeVarargs
+	private static List<ConsumerRecord<String, Object>> records(AbstractDomainEvent... events) {
+		List<ConsumerRecord<String, Object>> records = new ArrayList<>();
+		for (int i = 0; i < events.length; i++) {
+			records.add(new ConsumerRecord<>(TOPIC, 0, i, events[i].getAggregateId().toString(), events[i]));
+		}
+		return records;
+	}
+
+	private static CustomerRegisteredEvent registered(UUID customerId) {
+		return CustomerRegisteredEvent.builder().customerId(customerId).timestamp(Instant.now()).build();
+	}
+
+	private static CustomerDeletedEvent deleted(UUID customerId) {
+		return CustomerDeletedEvent.builder().customerId(customerId).timestamp(Instant.now()).build();
+	}
+
+	static class RecordingHandler extends DomainEventHandler {
+
+		final List<UUID> registered = Collections.synchronizedList(new ArrayList<>());
+		final List<List<UUID>> deletedBatches = Collections.synchronizedList(new ArrayList<>());
+		final List<AbstractDomainEvent> applied = Collections.synchronizedList(new ArrayList<>());
+		volatile UUID failFor;
+		volatile int failuresLeft = Integer.MAX_VALUE;
+
+		RecordingHandler() {
+			super(new ObjectMapper(), new TopicsProvider(), "test");
+		}
+
+		@EventHandler
+		Mono<Void> on(CustomerRegisteredEvent event) {
+			return Mono.fromRunnable(() -> {
+				if (event.getAggregateId().equals(failFor) && failuresLeft-- > 0) {
+					throw new IllegalStateException("handler failed for " + failFor);
+				}
+				registered.add(event.getAggregateId());
+			});
+		}
+
+		@EventHandler
+		Mono<Void> onDeletedBatch(List<CustomerDeletedEvent> events) {
+			return Mono.fromRunnable(() -> deletedBatches.add(events.stream().map(CustomerDeletedEvent::getAggregateId).toList()));
+		}
+
+		@Override
+		protected void onEventApplied(AbstractDomainEvent event, ConsumerRecord<String, Object> record) {
+			applied.add(event);
+		}
+	}
+}
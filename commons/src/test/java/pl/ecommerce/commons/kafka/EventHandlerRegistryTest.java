@@ -0,0 +1,163 @@
+package pl.ecommerce.commons.kafka;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.ecommerce.commons.event.customer.CustomerDeletedEvent;
+import pl.ecommerce.commons.event.customer.CustomerEmailChangedEvent;
+import pl.ecommerce.commons.event.customer.CustomerEvent;
+import pl.ecommerce.commons.event.customer.CustomerRegisteredEvent;
+import pl.ecommerce.commons.event.customer.CustomerUpdatedEvent;
+import pl.ecommerce.commons.event.product.ProductCreatedEvent;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventHandlerRegistryTest {
+
+	private RecordingHandler target;
+	private EventHandlerRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		target = new RecordingHandler();
+		registry = EventHandlerRegistry.forTarget(target);
+	}
+
+	@Test
+	@DisplayName("Should dispatch every handler shape through generated invokers")
+	void shouldDispatchThroughGeneratedInvokers() throws Throwable {
+		for (String name : List.of("onRegistered", "onDeleted", "onEmailChanged", "onUpdated")) {
+			Method method = method(name);
+			EventHandlerRegistry.EventInvoker invoker = EventHandlerRegistry.lambdaInvoker(method);
+			Object event = newEvent(method.getParameterTypes()[0]);
+
+			Object result = invoker.invoke(target, event, Map.of("traceparent", "00-abc"));
+
+			assertThat(target.calls).last().isEqualTo(name);
+			if (method.getReturnType() == void.class) {
+				assertThat(result).isNull();
+			} else {
+				assertThat(result).isInstanceOf(Mono.class);
+			}
+		}
+		assertThat(target.headers).containsExactly(Map.of("traceparent", "00-abc"), Map.of("traceparent", "00-abc"));
+	}
+
+	@Test
+	@DisplayName("Should dispatch through method handles when invokers cannot be generated")
+	void shouldDispatchThroughMethodHandleFallback() throws Throwable {
+		EventHandlerRegistry.EventInvoker withoutHeaders = EventHandlerRegistry.methodHandleInvoker(method("onDeleted"), false);
+		EventHandlerRegistry.EventInvoker withHeaders = EventHandlerRegistry.methodHandleInvoker(method("onUpdated"), true);
+
+		Object deleted = withoutHeaders.invoke(target, newEvent(CustomerDeletedEvent.class), Map.of());
+		Object updated = withHeaders.invoke(target, newEvent(CustomerUpdatedEvent.class), Map.of("key", "value"));
+
+		assertThat(deleted).isInstanceOf(Mono.class);
+		assertThat(updated).isInstanceOf(Mono.class);
+		assertThat(target.calls).containsExactly("onDeleted", "onUpdated");
+		assertThat(target.headers).containsExactly(Map.of("key", "value"));
+	}
+
+	@Test
+	@DisplayName("Should resolve handlers declared for a supertype and report whether headers are accepted")
+	void shouldResolveDeclaredHandlers() {
+		assertThat(registry.resolve(CustomerRegisteredEvent.class).acceptsHeaders()).isFalse();
+		assertThat(registry.resolve(CustomerEmailChangedEvent.class).acceptsHeaders()).isTrue();
+		assertThat(registry.resolveBatch(CustomerDeletedEvent.class)).isNotNull();
+		assertThat(registry.handledTypes()).contains(CustomerRegisteredEvent.class, CustomerEmailChangedEvent.class);
+	}
+
+	@Test
+	@DisplayName("Should cache unhandled event types without a handler")
+	void shouldCacheMissingHandlers() {
+		assertThat(registry.isCached(ProductCreatedEvent.class)).isTrue();
+		assertThat(registry.resolve(ProductCreatedEvent.class)).isNull();
+
+		assertThat(registry.isCached(UnlistedEvent.class)).isFalse();
+		assertThat(registry.resolve(UnlistedEvent.class)).isNull();
+		assertThat(registry.isCached(UnlistedEvent.class)).isTrue();
+		assertThat(registry.resolve(UnlistedEvent.class)).isNull();
+	}
+
+	@Test
+	@DisplayName("Should resolve subclasses to the handler of their closest declared supertype and cache it")
+	void shouldResolveSubclassesThroughHierarchy() {
+		EventHandlerRegistry.HandlerMethod handler = registry.resolve(UnlistedRegisteredEvent.class);
+
+		assertThat(handler).isSameAs(registry.resolve(CustomerRegisteredEvent.class));
+		assertThat(registry.isCached(UnlistedRegisteredEvent.class)).isTrue();
+	}
+
+	private static Method method(String name) {
+		for (Method method : RecordingHandler.class.getDeclaredMethods()) {
+			if (method.getName().equals(name)) {
+				return method;
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+
+	private static Object newEvent(Class<?> type) {
+		UUID customerId = UUID.randomUUID();
+		Instant now = Instant.now();
+		if (type == CustomerRegisteredEvent.class) {
+			return CustomerRegisteredEvent.builder().customerId(customerId).timestamp(now).build();
+		}
+		if (type == CustomerDeletedEvent.class) {
+			return CustomerDeletedEvent.builder().customerId(customerId).timestamp(now).build();
+		}
+		if (type == CustomerEmailChangedEvent.class) {
+			return CustomerEmailChangedEvent.builder().customerId(customerId).timestamp(now).build();
+		}
+		return CustomerUpdatedEvent.builder().customerId(customerId).timestamp(now).build();
+	}
+
+	static class RecordingHandler {
+
+		final List<String> calls = new ArrayList<>();
+		final List<Map<String, String>> headers = new ArrayList<>();
+
+		@EventHandler
+		void onRegistered(CustomerRegisteredEvent event) {
+			calls.add("onRegistered");
+		}
+
+		@EventHandler
+		private Mono<Void> onDeleted(CustomerDeletedEvent event) {
+			calls.add("onDeleted");
+			return Mono.empty();
+		}
+
+		@EventHandler
+		public void onEmailChanged(CustomerEmailChangedEvent event, Map<String, String> headers) {
+			calls.add("onEmailChanged");
+			this.headers.add(headers);
+		}
+
+		@EventHandler
+		Mono<Void> onUpdated(CustomerUpdatedEvent event, Map<String, String> headers) {
+			calls.add("onUpdated");
+			this.headers.add(headers);
+			return Mono.empty();
+		}
+
+		@EventHandler
+		void onDeletedBatch(List<CustomerDeletedEvent> events) {
+			calls.add("onDeletedBatch");
+		}
+	}
+
+	static class UnlistedEvent extends CustomerEvent {
+	}
+
+	static class UnlistedRegisteredEvent extends CustomerRegisteredEvent {
+	}
+}
@@ -0,0 +1,141 @@
+package pl.ecommerce.commons.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.ecommerce.commons.event.AbstractDomainEvent;
+import pl.ecommerce.commons.event.customer.CustomerDeletedEvent;
+import pl.ecommerce.commons.event.customer.CustomerRegisteredEvent;
+import pl.ecommerce.commons.event.customer.CustomerUpdatedEvent;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventTypeRouterTest {
+
+	private static final String REGISTERED_TOPIC = "customer.registered.event";
+	private static final String UPDATED_TOPIC = "customer.updated.event";
+	private static final String DELETED_TOPIC = "customer.deleted.event";
+
+	private ObjectMapper objectMapper;
+	private EventTypeRouter router;
+
+	@BeforeEach
+	void setUp() {
+		objectMapper = new ObjectMapper().findAndRegisterModules();
+		router = new EventTypeRouter(objectMapper, EventHandlerRegistry.forTarget(new RegisteredHandler()));
+	}
+
+	@Test
+	@DisplayName("Should resolve the event type from the header before the topic")
+	void shouldPreferHeaderOverTopic() {
+		ConsumerRecord<String, byte[]> record = record(UPDATED_TOPIC, "CustomerRegisteredEvent", new byte[0]);
+
+		assertThat(router.resolveType(record)).isEqualTo(CustomerRegisteredEvent.class);
+	}
+
+	@Test
+	@DisplayName("Should fall back to the topic without a header or with an unknown header value")
+	void shouldFallBackToTopic() {
+		assertThat(router.resolveType(record(UPDATED_TOPIC, null, new byte[0]))).isEqualTo(CustomerUpdatedEvent.class);
+		assertThat(router.resolveType(record(DELETED_TOPIC, "LegacyEvent", new byte[0]))).isEqualTo(CustomerDeletedEvent.class);
+		assertThat(router.resolveType(record("unknown.topic", null, new byte[0]))).isNull();
+	}
+
+	@Test
+	@DisplayName("Should use the last eventType header when it is repeated")
+	void shouldUseLastHeader() {
+		ConsumerRecord<String, byte[]> record = record(REGISTERED_TOPIC, "CustomerRegisteredEvent", new byte[0]);
+		record.headers().add(EventPublisher.EVENT_TYPE_HEADER, "CustomerDeletedEvent".getBytes(StandardCharsets.UTF_8));
+
+		assertThat(router.resolveType(record)).isEqualTo(CustomerDeletedEvent.class);
+	}
+
+	@Test
+	@DisplayName("Should decode a handled event into its concrete type")
+	void shouldDecodeHandledEvent() throws IOException {
+		UUID customerId = UUID.randomUUID();
+		byte[] payload = objectMapper.writeValueAsBytes(registered(customerId));
+
+		AbstractDomainEvent event = router.decode(record(REGISTERED_TOPIC, "CustomerRegisteredEvent", payload));
+
+		assertThat(event).isInstanceOf(CustomerRegisteredEvent.class);
+		assertThat(((CustomerRegisteredEvent) event).getEmail()).isEqualTo("john.doe@example.com");
+		assertThat(event.getAggregateId()).isEqualTo(customerId);
+	}
+
+	@Test
+	@DisplayName("Should decode events that only have a batch handler")
+	void shouldDecodeBatchHandledEvent() throws IOException {
+		byte[] payload = objectMapper.writeValueAsBytes(CustomerDeletedEvent.builder()
+				.customerId(UUID.randomUUID())
+				.timestamp(Instant.parse("2024-01-01T10:00:00Z"))
+				.build());
+
+		assertThat(router.decode(record(DELETED_TOPIC, null, payload))).isInstanceOf(CustomerDeletedEvent.class);
+	}
+
+	@Test
+	@DisplayName("Should skip events without a handler without parsing the payload")
+	void shouldSkipUnhandledWithoutParsing() throws IOException {
+		byte[] notJson = "not json".getBytes(StandardCharsets.UTF_8);
+
+		assertThat(router.decode(record(UPDATED_TOPIC, "CustomerUpdatedEvent", notJson))).isNull();
+	}
+
+	@Test
+	@DisplayName("Should read the type from the payload when neither header nor topic is known")
+	void shouldFallBackToPayloadType() throws IOException {
+		byte[] payload = objectMapper.writeValueAsBytes(registered(UUID.randomUUID()));
+
+		assertThat(router.decode(record("unknown.topic", null, payload))).isInstanceOf(CustomerRegisteredEvent.class);
+	}
+
+	@Test
+	@DisplayName("Should pass through already deserialized events and reject other value types")
+	void shouldHandleNonByteValues() throws IOException {
+		CustomerRegisteredEvent event = registered(UUID.randomUUID());
+
+		assertThat(router.decode(new ConsumerRecord<>(REGISTERED_TOPIC, 0, 0L, "key", event))).isSameAs(event);
+		assertThatThrownBy(() -> router.decode(new ConsumerRecord<>(REGISTERED_TOPIC, 0, 0L, "key", "text")))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining(String.class.getName());
+	}
+
+	private static ConsumerRecord<String, byte[]> record(String topic, String eventType, byte[] payload) {
+		ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(topic, 0, 0L, "key", payload);
+		if (nonNull(eventType)) {
+			record.headers().add(EventPublisher.EVENT_TYPE_HEADER, eventType.getBytes(StandardCharsets.UTF_8));
+		}
+		return record;
+	}
+
+	private static CustomerRegisteredEvent registered(UUID customerId) {
+		return CustomerRegisteredEvent.builder()
+				.customerId(customerId)
+				.email("john.doe@example.com")
+				.timestamp(Instant.parse("2024-01-01T10:00:00Z"))
+				.version(0)
+				.build();
+	}
+
+	static class RegisteredHandler {
+
+		@EventHandler
+		void onRegistered(CustomerRegisteredEvent event) {
+		}
+
+		@EventHandler
+		void onDeletedBatch(List<CustomerDeletedEvent> events) {
+		}
+	}
+}
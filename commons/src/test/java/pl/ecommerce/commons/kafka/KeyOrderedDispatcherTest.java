@@ -0,0 +1,110 @@
+package pl.ecommerce.commons.kafka;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyOrderedDispatcherTest {
+
+	private KeyOrderedDispatcher dispatcher;
+
+	@BeforeEach
+	void setUp() {
+		dispatcher = new KeyOrderedDispatcher("test", 4);
+	}
+
+	@AfterEach
+	void tearDown() {
+		dispatcher.dispose();
+	}
+
+	@Test
+	@DisplayName("Should run the work of one key in submission order, one at a time")
+	void shouldKeepPerKeyOrder() {
+		int keys = 16;
+		int perKey = 50;
+		Map<Integer, List<Integer>> applied = new ConcurrentHashMap<>();
+		Map<Integer, AtomicInteger> running = new ConcurrentHashMap<>();
+		AtomicBoolean overlapped = new AtomicBoolean();
+
+		Flux<Void> submissions = Flux.range(0, keys * perKey)
+				.flatMap(i -> {
+					int key = i % keys;
+					int sequence = i / keys;
+					return dispatcher.submit(key, Mono.delay(Duration.ofMillis(ThreadLocalRandom.current().nextInt(3)))
+							.doOnSubscribe(s -> {
+								if (running.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet() > 1) {
+									overlapped.set(true);
+								}
+							})
+							.doOnNext(tick -> applied.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>()))
+									.add(sequence))
+							.doFinally(signal -> running.get(key).decrementAndGet())
+							.then());
+				}, keys * perKey);
+
+		StepVerifier.create(submissions).expectComplete().verify(Duration.ofSeconds(30));
+
+		assertThat(overlapped).isFalse();
+		assertThat(applied).hasSize(keys);
+		applied.values().forEach(sequences -> assertThat(sequences)
+				.containsExactlyElementsOf(IntStream.range(0, perKey).boxed().toList()));
+	}
+
+	@Test
+	@DisplayName("Should run different keys in parallel")
+	void shouldRunDifferentKeysInParallel() {
+		int first = 0;
+		int second = 1;
+		assertThat(Math.floorMod(Integer.hashCode(first), dispatcher.workers()))
+				.isNotEqualTo(Math.floorMod(Integer.hashCode(second), dispatcher.workers()));
+		CountDownLatch bothStarted = new CountDownLatch(2);
+
+		Mono<Boolean> waitForOther = Mono.fromCallable(() -> {
+			bothStarted.countDown();
+			return bothStarted.await(5, TimeUnit.SECONDS);
+		});
+		AtomicBoolean firstSawSecond = new AtomicBoolean();
+		AtomicBoolean secondSawFirst = new AtomicBoolean();
+
+		StepVerifier.create(Mono.when(
+						dispatcher.submit(first, waitForOther.doOnNext(firstSawSecond::set).then()),
+						dispatcher.submit(second, waitForOther.doOnNext(secondSawFirst::set).then())))
+				.expectComplete()
+				.verify(Duration.ofSeconds(10));
+
+		assertThat(firstSawSecond).isTrue();
+		assertThat(secondSawFirst).isTrue();
+	}
+
+	@Test
+	@DisplayName("Should report a failure to its submitter and keep running later work of the key")
+	void shouldContinueAfterFailure() {
+		Mono<Void> failing = dispatcher.submit("key", Mono.error(new IllegalStateException("boom")));
+		AtomicBoolean ran = new AtomicBoolean();
+		Mono<Void> next = dispatcher.submit("key", Mono.fromRunnable(() -> ran.set(true)));
+
+		StepVerifier.create(failing).expectErrorMessage("boom").verify(Duration.ofSeconds(5));
+		StepVerifier.create(next).expectComplete().verify(Duration.ofSeconds(5));
+		assertThat(ran).isTrue();
+	}
+}
@@ -0,0 +1,196 @@
+package pl.ecommerce.commons.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import pl.ecommerce.commons.event.customer.CustomerRegisteredEvent;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+class ReactiveEventConsumerTest {
+
+	@Container
+	static final KafkaContainer kafkaContainer = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.5.0"));
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	private String topic;
+	private FailingHandler handler;
+	private ReactiveEventConsumer consumer;
+
+	@BeforeEach
+	void setUp() {
+		topic = "customer.reactive-" + UUID.randomUUID() + ".event";
+		TopicsProvider topicsProvider = new TopicsProvider();
+		topicsProvider.setTopics(List.of(topic));
+		handler = new FailingHandler(objectMapper, topicsProvider);
+		ReflectionTestUtils.setField(handler, "maxInFlight", 16);
+		ReflectionTestUtils.setField(handler, "workers", 1);
+		handler.init();
+
+		KafkaProducerConfig producerConfig = new KafkaProducerConfig();
+		ReflectionTestUtils.setField(producerConfig, "bootstrapServers", kafkaContainer.getBootstrapServers());
+		ReflectionTestUtils.setField(producerConfig, "applicationName", "test");
+		Map<String, Object> props = Map.of(
+				ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers(),
+				ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+				ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+				ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+
+		consumer = new ReactiveEventConsumer(new DefaultKafkaConsumerFactory<>(props), List.of(handler),
+				new SimpleMeterRegistry(), "reactive-" + topic, 100,
+				ErrorHandlerUtils.createDeadLetterRecoverer(
+						producerConfig.deadLetterKafkaTemplate(new SimpleMeterRegistry()), null, null),
+				2, 10);
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (nonNull(consumer)) {
+			consumer.stop();
+		}
+		handler.shutdown();
+	}
+
+	@Test
+	@DisplayName("Should dead-letter a record after the bounded retries and go on with the rest of its partition")
+	void shouldDeadLetterAndContinue() {
+		UUID failing = UUID.randomUUID();
+		UUID next = UUID.randomUUID();
+		handler.failFor = failing;
+		byte[] failingPayload = payload(failing);
+
+		consumer.start();
+		send(failing, failingPayload);
+		send(next, payload(next));
+
+		assertThat(handler.handled.asMono().block(Duration.ofSeconds(30))).isEqualTo(next);
+		assertThat(handler.attempts).containsEntry(failing.toString(), 3);
+		try (Consumer<String, byte[]> deadLetters = deadLetterConsumer()) {
+			ConsumerRecord<String, byte[]> deadLetter = KafkaTestUtils.getSingleRecord(deadLetters, topic + ".DLT",
+					Duration.ofSeconds(30));
+
+			assertThat(deadLetter.key()).isEqualTo(failing.toString());
+			assertThat(deadLetter.value()).isEqualTo(failingPayload);
+			assertThat(new String(deadLetter.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE).value(),
+					StandardCharsets.UTF_8)).contains("handler failed");
+		}
+	}
+
+	@Test
+	@DisplayName("Should dead-letter a record that cannot be parsed without retrying it")
+	void shouldDeadLetterCorruptRecordWithoutRetries() {
+		UUID corrupt = UUID.randomUUID();
+		UUID next = UUID.randomUUID();
+
+		consumer.start();
+		send(corrupt, "not json".getBytes(StandardCharsets.UTF_8));
+		send(next, payload(next));
+
+		assertThat(handler.handled.asMono().block(Duration.ofSeconds(30))).isEqualTo(next);
+		assertThat(handler.attempts).containsEntry(corrupt.toString(), 1);
+		try (Consumer<String, byte[]> deadLetters = deadLetterConsumer()) {
+			ConsumerRecord<String, byte[]> deadLetter = KafkaTestUtils.getSingleRecord(deadLetters, topic + ".DLT",
+					Duration.ofSeconds(30));
+
+			assertThat(deadLetter.value()).isEqualTo("not json".getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private byte[] payload(UUID customerId) {
+		try {
+			return objectMapper.writeValueAsBytes(CustomerRegisteredEvent.builder()
+					.customerId(customerId)
+					.email(customerId + "@example.com")
+					.timestamp(Instant.parse("2024-01-01T10:00:00Z"))
+					.build());
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void send(UUID key, byte[] value) {
+		Map<String, Object> props = Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers());
+		DefaultKafkaProducerFactory<String, byte[]> producerFactory = new DefaultKafkaProducerFactory<>(props,
+				new StringSerializer(), new ByteArraySerializer());
+		ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key.toString(), value);
+		record.headers().add(EventPublisher.EVENT_TYPE_HEADER, "CustomerRegisteredEvent".getBytes(StandardCharsets.UTF_8));
+		try {
+			new KafkaTemplate<>(producerFactory).send(record).join();
+		} finally {
+			producerFactory.destroy();
+		}
+	}
+
+	private Consumer<String, byte[]> deadLetterConsumer() {
+		Map<String, Object> props = Map.of(
+				ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers(),
+				ConsumerConfig.GROUP_ID_CONFIG, "dlt-" + topic,
+				ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+		Consumer<String, byte[]> deadLetters = new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+				new ByteArrayDeserializer()).createConsumer();
+		deadLetters.subscribe(List.of(topic + ".DLT"));
+		return deadLetters;
+	}
+
+	static class FailingHandler extends DomainEventHandler {
+
+		final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+		final Sinks.One<UUID> handled = Sinks.one();
+		volatile UUID failFor;
+
+		FailingHandler(ObjectMapper objectMapper, TopicsProvider topicsProvider) {
+			super(objectMapper, topicsProvider, "test");
+		}
+
+		@Override
+		public Mono<Void> handleRecord(ConsumerRecord<String, Object> record) {
+			attempts.merge(record.key(), 1, Integer::sum);
+			return super.handleRecord(record);
+		}
+
+		@EventHandler
+		Mono<Void> on(CustomerRegisteredEvent event) {
+			return Mono.fromRunnable(() -> {
+				if (event.getAggregateId().equals(failFor)) {
+					throw new IllegalStateException("handler failed for " + failFor);
+				}
+				handled.tryEmitValue(event.getAggregateId());
+			});
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package pl.ecommerce.commons.kafka.publisher;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublishGateConfigTest {
+
+	private CircuitBreaker circuitBreaker;
+	private PublishGate gate;
+
+	@BeforeEach
+	void setUp() {
+		PublishGateConfig config = new PublishGateConfig();
+		ReflectionTestUtils.setField(config, "failureRateThreshold", 50f);
+		ReflectionTestUtils.setField(config, "slidingWindowSize", 50);
+		ReflectionTestUtils.setField(config, "waitInOpenStateMs", 30_000L);
+		ReflectionTestUtils.setField(config, "halfOpenCalls", 5);
+		circuitBreaker = config.kafkaPublisherCircuitBreaker();
+		gate = new PublishGate(1, 0, Duration.ofSeconds(5), Schedulers.immediate(), circuitBreaker,
+				new PublishMetrics(new SimpleMeterRegistry(), "test"));
+	}
+
+	@Test
+	@DisplayName("Should not count back-pressure rejections as circuit breaker failures")
+	void shouldIgnoreRejections() {
+		Sinks.One<String> running = Sinks.one();
+		gate.submit(running::asMono).subscribe();
+
+		for (int i = 0; i < 20; i++) {
+			StepVerifier.create(gate.submit(() -> Mono.just("rejected")))
+					.expectError(PublishRejectedException.class)
+					.verify(Duration.ofSeconds(5));
+		}
+		running.tryEmitValue("done");
+
+		assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isZero();
+		assertThat(circuitBreaker.getMetrics().getNumberOfSuccessfulCalls()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Should open the circuit when sends to the broker fail")
+	void shouldOpenOnSendFailures() {
+		for (int i = 0; i < 10; i++) {
+			StepVerifier.create(gate.submit(() -> Mono.error(new IllegalStateException("broker down"))))
+					.expectErrorMessage("broker down")
+					.verify(Duration.ofSeconds(5));
+		}
+
+		assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+	}
+}
@@ -0,0 +1,139 @@
+package pl.ecommerce.commons.kafka.publisher;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublishGateTest {
+
+	private SimpleMeterRegistry registry;
+	private PublishMetrics metrics;
+	private CircuitBreaker circuitBreaker;
+	private AtomicInteger started;
+
+	@BeforeEach
+	void setUp() {
+		registry = new SimpleMeterRegistry();
+		metrics = new PublishMetrics(registry, "test");
+		circuitBreaker = CircuitBreaker.ofDefaults("publisher");
+		started = new AtomicInteger();
+	}
+
+	@Test
+	@DisplayName("Should hand no more than maxInFlight sends to the producer and queue the rest")
+	void shouldBoundInFlightSends() {
+		PublishGate gate = gate(2, 10, Duration.ofSeconds(5));
+		Sinks.One<String> first = Sinks.one();
+		Sinks.One<String> second = Sinks.one();
+		Sinks.One<String> third = Sinks.one();
+
+		gate.submit(send(first)).subscribe();
+		gate.submit(send(second)).subscribe();
+		Mono<String> queued = gate.submit(send(third));
+
+		StepVerifier.create(queued)
+				.then(() -> {
+					assertThat(started).hasValue(2);
+					assertThat(gate.inFlight()).isEqualTo(2);
+					assertThat(gate.queueDepth()).isEqualTo(1);
+				})
+				.then(() -> first.tryEmitValue("first"))
+				.then(() -> {
+					assertThat(started).hasValue(3);
+					assertThat(gate.inFlight()).isEqualTo(2);
+					assertThat(gate.queueDepth()).isZero();
+				})
+				.then(() -> third.tryEmitValue("third"))
+				.expectNext("third")
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		second.tryEmitValue("second");
+		assertThat(gate.inFlight()).isZero();
+		assertThat(registry.get("kafka_publisher_queue_wait_seconds").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Should reject a publish when the wait queue is full")
+	void shouldRejectWhenQueueIsFull() {
+		PublishGate gate = gate(1, 1, Duration.ofSeconds(5));
+		Disposable running = gate.submit(send(Sinks.one())).subscribe();
+		Disposable waiting = gate.submit(send(Sinks.one())).subscribe();
+
+		StepVerifier.create(gate.submit(send(Sinks.one())))
+				.expectErrorSatisfies(error -> assertThat(error)
+						.isInstanceOfSatisfying(PublishRejectedException.class,
+								rejected -> assertThat(rejected.getReason()).isEqualTo("queue_full")))
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(started).hasValue(1);
+		assertThat(rejections("queue_full")).isEqualTo(1.0);
+		waiting.dispose();
+		running.dispose();
+	}
+
+	@Test
+	@DisplayName("Should time out a waiter and give its queue place back")
+	void shouldTimeOutWaiter() {
+		PublishGate gate = gate(1, 5, Duration.ofMillis(100));
+		Sinks.One<String> running = Sinks.one();
+		gate.submit(send(running)).subscribe();
+
+		StepVerifier.create(gate.submit(send(Sinks.one())))
+				.expectErrorSatisfies(error -> assertThat(error)
+						.isInstanceOfSatisfying(PublishRejectedException.class,
+								rejected -> assertThat(rejected.getReason()).isEqualTo("wait_timeout")))
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(gate.queueDepth()).isZero();
+		assertThat(rejections("wait_timeout")).isEqualTo(1.0);
+
+		running.tryEmitValue("done");
+		assertThat(started).hasValue(1);
+		assertThat(gate.inFlight()).isZero();
+	}
+
+	@Test
+	@DisplayName("Should not start a send while the circuit breaker is open")
+	void shouldRejectWhenCircuitIsOpen() {
+		PublishGate gate = gate(1, 5, Duration.ofSeconds(5));
+		circuitBreaker.transitionToOpenState();
+
+		StepVerifier.create(gate.submit(send(Sinks.one())))
+				.expectError(CallNotPermittedException.class)
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(started).hasValue(0);
+		assertThat(gate.inFlight()).isZero();
+		assertThat(rejections("circuit_open")).isEqualTo(1.0);
+	}
+
+	private PublishGate gate(int maxInFlight, int maxQueued, Duration maxWait) {
+		return new PublishGate(maxInFlight, maxQueued, maxWait, Schedulers.immediate(), circuitBreaker, metrics);
+	}
+
+	private Supplier<Mono<String>> send(Sinks.One<String> result) {
+		return () -> {
+			started.incrementAndGet();
+			return result.asMono();
+		};
+	}
+
+	private double rejections(String reason) {
+		return registry.get("kafka_publisher_rejected_total").tag("reason", reason).counter().count();
+	}
+}
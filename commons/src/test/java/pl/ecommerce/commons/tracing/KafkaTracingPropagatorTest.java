@@ -0,0 +1,81 @@
+package pl.ecommerce.commons.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaTracingPropagatorTest {
+
+	private static final TextMapPropagator W3C = W3CTraceContextPropagator.getInstance();
+	private static final SpanContext SPAN_CONTEXT = SpanContext.create("0af7651916cd43dd8448eb211c80319c",
+			"b7ad6b7169203331", TraceFlags.getSampled(), TraceState.getDefault());
+
+	@Test
+	@DisplayName("Should ignore trace headers without a value")
+	void shouldIgnoreHeadersWithoutValue() {
+		Headers headers = new RecordHeaders();
+		headers.add("traceparent", null);
+
+		assertThat(KafkaTracingPropagator.KAFKA_GETTER.get(headers, "traceparent")).isNull();
+		assertThat(KafkaTracingPropagator.KAFKA_GETTER.keys(headers)).containsExactly("traceparent");
+
+		Context extracted = W3C.extract(Context.root(), headers, KafkaTracingPropagator.KAFKA_GETTER);
+		assertThat(Span.fromContext(extracted).getSpanContext().isValid()).isFalse();
+	}
+
+	@Test
+	@DisplayName("Should not write headers without a value")
+	void shouldSkipNullValuesOnInject() {
+		Headers headers = new RecordHeaders();
+
+		KafkaTracingPropagator.KAFKA_SETTER.set(headers, "traceparent", null);
+		KafkaTracingPropagator.KAFKA_SETTER.set(null, "traceparent", "value");
+
+		assertThat(headers.toArray()).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Should tolerate missing headers")
+	void shouldTolerateMissingCarrier() {
+		assertThat(KafkaTracingPropagator.KAFKA_GETTER.get(null, "traceparent")).isNull();
+		assertThat(KafkaTracingPropagator.KAFKA_GETTER.keys(null)).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Should read the last value of a repeated header")
+	void shouldReadLastHeaderValue() {
+		Headers headers = new RecordHeaders();
+		headers.add("traceparent", "first".getBytes(StandardCharsets.UTF_8));
+		headers.add("traceparent", "second".getBytes(StandardCharsets.UTF_8));
+
+		assertThat(KafkaTracingPropagator.KAFKA_GETTER.get(headers, "traceparent")).isEqualTo("second");
+	}
+
+	@Test
+	@DisplayName("Should replace existing trace headers on inject and extract the same span context")
+	void shouldRoundTripSpanContext() {
+		Headers headers = new RecordHeaders();
+		headers.add("traceparent", "stale".getBytes(StandardCharsets.UTF_8));
+
+		W3C.inject(Context.root().with(Span.wrap(SPAN_CONTEXT)), headers, KafkaTracingPropagator.KAFKA_SETTER);
+		Context extracted = W3C.extract(Context.root(), headers, KafkaTracingPropagator.KAFKA_GETTER);
+
+		assertThat(headers.headers("traceparent")).hasSize(1);
+		SpanContext spanContext = Span.fromContext(extracted).getSpanContext();
+		assertThat(spanContext.getTraceId()).isEqualTo(SPAN_CONTEXT.getTraceId());
+		assertThat(spanContext.getSpanId()).isEqualTo(SPAN_CONTEXT.getSpanId());
+		assertThat(spanContext.isRemote()).isTrue();
+	}
+}
@@ -2,13 +2,17 @@ package pl.ecommerce.customer.read;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.ComponentScan;
+import pl.ecommerce.customer.read.infrastructure.rebuild.ProjectionRebuildRunner;
 
 @SpringBootApplication
 @ComponentScan(basePackages = {"pl.ecommerce.customer.read", "pl.ecommerce.commons"})
 public class CustomerReadApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(CustomerReadApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(CustomerReadApplication.class, args);
+		context.getBeanProvider(ProjectionRebuildRunner.class)
+				.ifAvailable(rebuild -> System.exit(SpringApplication.exit(context)));
 	}
-}
\ No newline at end of file
+}
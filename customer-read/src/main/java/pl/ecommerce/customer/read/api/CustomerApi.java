@@ -3,10 +3,14 @@ package pl.ecommerce.customer.read.api;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import pl.ecommerce.customer.read.aplication.dto.CursorPage;
 import pl.ecommerce.customer.read.aplication.dto.CustomerResponse;
+import pl.ecommerce.customer.read.aplication.dto.CustomerStatsResponse;
 import pl.ecommerce.customer.read.aplication.dto.CustomerSummary;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.UUID;
@@ -15,15 +19,17 @@ import java.util.UUID;
 @RequestMapping("/api/v1/customers")
 public interface CustomerApi {
 
-	@Operation(summary = "Get customer by ID", description = "Returns a customer by its ID")
+	@Operation(summary = "Get customer by ID", description = "Returns a customer by its ID; with minVersion, waits until the write with that consistency token is projected")
 	@GetMapping("/{id}")
 	Mono<ResponseEntity<CustomerResponse>> getCustomerById(
-			@PathVariable UUID id);
+			@PathVariable UUID id,
+			@RequestParam(required = false) Long minVersion);
 
-	@Operation(summary = "Get customer by email", description = "Returns a customer by email address")
+	@Operation(summary = "Get customer by email", description = "Returns a customer by email address; with minVersion, waits until the write with that consistency token is projected")
 	@GetMapping("/email/{email}")
 	Mono<ResponseEntity<CustomerResponse>> getCustomerByEmail(
-			@PathVariable String email);
+			@PathVariable String email,
+			@RequestParam(required = false) Long minVersion);
 
 	@Operation(summary = "Get customers by status", description = "Returns a customers by status")
 	@GetMapping("/status/{status}")
@@ -32,7 +38,8 @@ public interface CustomerApi {
 			@RequestParam(defaultValue = "0") int page,
 			@RequestParam(defaultValue = "20") int size,
 			@RequestParam(defaultValue = "lastName") String sortBy,
-			@RequestParam(defaultValue = "asc") String sortDir);
+			@RequestParam(defaultValue = "asc") String sortDir,
+			@RequestParam(required = false) String fields);
 
 	@Operation(summary = "Get customers", description = "Returns all active customers with pagination")
 	@GetMapping
@@ -40,14 +47,42 @@ public interface CustomerApi {
 			@RequestParam(defaultValue = "0") int page,
 			@RequestParam(defaultValue = "20") int size,
 			@RequestParam(defaultValue = "lastName") String sortBy,
-			@RequestParam(defaultValue = "asc") String sortDir
+			@RequestParam(defaultValue = "asc") String sortDir,
+			@RequestParam(required = false) String fields
 			);
 
+	@Operation(summary = "Get customers by cursor",
+			description = "Returns customers with the given status using keyset pagination; pass nextCursor to get the next page")
+	@GetMapping("/cursor")
+	Mono<ResponseEntity<CursorPage<CustomerSummary>>> getCustomersByCursor(
+			@RequestParam(defaultValue = "ACTIVE") String status,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "20") int size,
+			@RequestParam(defaultValue = "lastName") String sortBy,
+			@RequestParam(defaultValue = "asc") String sortDir,
+			@RequestParam(defaultValue = "false") boolean includeTotal,
+			@RequestParam(required = false) String fields);
+
+	@Operation(summary = "Export customers",
+			description = "Streams customers matching the filters as NDJSON or server-sent events, depending on the Accept header")
+	@GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+	Flux<CustomerSummary> exportCustomers(
+			@RequestParam(defaultValue = "ACTIVE") String status,
+			@RequestParam(required = false) Boolean emailVerified,
+			@RequestParam(required = false) Boolean marketingConsent,
+			@RequestParam(required = false) String fields);
+
+	@Operation(summary = "Get customer statistics",
+			description = "Returns customer counts by status, email verification, marketing consent and preferred language")
+	@GetMapping("/stats")
+	Mono<ResponseEntity<CustomerStatsResponse>> getCustomerStats();
+
 	@Operation(summary = "Search customers", description = "Searches customers by name")
 	@GetMapping("/search")
 	Mono<ResponseEntity<Page<CustomerSummary>>> searchCustomers(
 			@RequestParam String query,
 			@RequestParam(defaultValue = "0") int page,
-			@RequestParam(defaultValue = "20") int size
+			@RequestParam(defaultValue = "20") int size,
+			@RequestParam(required = false) String fields
 			);
 }
\ No newline at end of file
@@ -10,18 +10,29 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException; // Do obsługi błędów
 import pl.ecommerce.commons.model.customer.CustomerStatus;
 import pl.ecommerce.commons.tracing.TracedOperation;
+import pl.ecommerce.customer.read.aplication.dto.CursorPage;
 import pl.ecommerce.customer.read.aplication.dto.CustomerResponse;
+import pl.ecommerce.customer.read.aplication.dto.CustomerStatsResponse;
 import pl.ecommerce.customer.read.aplication.dto.CustomerSummary;
 import pl.ecommerce.customer.read.aplication.mapper.CustomerMapper;
+import pl.ecommerce.customer.read.aplication.service.CustomerCursor;
 import pl.ecommerce.customer.read.aplication.service.CustomerQueryService;
-import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.aplication.service.SummaryFields;
+import pl.ecommerce.customer.read.domain.model.CustomerSummaryView;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelIndexes;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
 @RestController
 @RequiredArgsConstructor
 @Slf4j
@@ -29,21 +40,24 @@ import java.util.stream.Collectors;
 public class CustomerQueryController implements CustomerApi {
 
 	private final CustomerQueryService customerQueryService;
+	private final ReadModelIndexes readModelIndexes;
+
+	private static final int MAX_CURSOR_PAGE_SIZE = 1000;
 
 	@Override
 	@TracedOperation("getCustomerById")
-	public Mono<ResponseEntity<CustomerResponse>> getCustomerById(UUID id) {
+	public Mono<ResponseEntity<CustomerResponse>> getCustomerById(UUID id, Long minVersion) {
 		log.info("Received request to get customer with id: {}", id);
-		Mono<CustomerResponse> responseMono = customerQueryService.findById(id)
+		Mono<CustomerResponse> responseMono = customerQueryService.findById(id, minVersion)
 				.map(CustomerMapper::toCustomerResponse);
 		return asResponseEntity(responseMono);
 	}
 
 	@Override
 	@TracedOperation("getCustomerByEmail")
-	public Mono<ResponseEntity<CustomerResponse>> getCustomerByEmail(String email) {
+	public Mono<ResponseEntity<CustomerResponse>> getCustomerByEmail(String email, Long minVersion) {
 		log.info("Received request to get customer with email: {}", email);
-		Mono<CustomerResponse> responseMono = customerQueryService.findByEmail(email)
+		Mono<CustomerResponse> responseMono = customerQueryService.findByEmail(email, minVersion)
 				.map(CustomerMapper::toCustomerResponse);
 		return asResponseEntity(responseMono);
 	}
@@ -51,7 +65,7 @@ public class CustomerQueryController implements CustomerApi {
 	@TracedOperation("getCustomerByStatus")
 	@Override
 	public Mono<ResponseEntity<Page<CustomerSummary>>> getCustomerByStatus(String status, int page, int size,
-																		   String sortBy, String sortDir) {
+																		   String sortBy, String sortDir, String fields) {
 		log.info("Received request to get customers by status. page={}, size={}", page, size);
 
 		return Mono.fromCallable(() -> CustomerStatus.valueOf(status.toUpperCase()))
@@ -59,9 +73,9 @@ public class CustomerQueryController implements CustomerApi {
 						new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid status value: " + status)
 				)
 				.flatMap(validStatus -> {
-					Pageable pageable = createPageable(page, size, sortBy, sortDir);
-					Mono<Tuple2<List<CustomerReadModel>, Long>> dataMono =
-							customerQueryService.findByStatus(validStatus, pageable);
+					Pageable pageable = createPageable("getCustomerByStatus", page, size, sortBy, sortDir);
+					Mono<Tuple2<List<CustomerSummaryView>, Long>> dataMono =
+							customerQueryService.findByStatus(validStatus, pageable, parseFields(fields));
 					return buildPageResponse(dataMono, pageable);
 				})
 				.transform(this::asResponseEntity);
@@ -70,39 +84,109 @@ public class CustomerQueryController implements CustomerApi {
 	@Override
 	@TracedOperation("getAllCustomers")
 	public Mono<ResponseEntity<Page<CustomerSummary>>> getAllCustomers(int page, int size, String sortBy,
-																	   String sortDir) {
+																	   String sortDir, String fields) {
 		log.info("Received request to get all customers. page={}, size={}", page, size);
-		Pageable pageable = createPageable(page, size, sortBy, sortDir);
-		Mono<Tuple2<List<CustomerReadModel>, Long>> dataMono = customerQueryService.findAllActive(pageable);
+		return Mono.fromCallable(() -> createPageable("getAllCustomers", page, size, sortBy, sortDir))
+				.flatMap(pageable -> buildPageResponse(customerQueryService.findAllActive(pageable, parseFields(fields)), pageable))
+				.transform(this::asResponseEntity);
+	}
 
-		return buildPageResponse(dataMono, pageable)
+	@Override
+	@TracedOperation("getCustomersByCursor")
+	public Mono<ResponseEntity<CursorPage<CustomerSummary>>> getCustomersByCursor(String status, String cursor, int size,
+																				  String sortBy, String sortDir,
+																				  boolean includeTotal, String fields) {
+		log.info("Received request to get customers by cursor. status={}, size={}", status, size);
+
+		return Mono.fromCallable(() -> {
+					CustomerStatus validStatus = CustomerStatus.valueOf(status.toUpperCase());
+					Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+					CustomerCursor after = isNull(cursor) ? null : CustomerCursor.decode(cursor);
+					if (nonNull(after) && (after.status() != validStatus || !after.sortBy().equals(sortBy) || after.direction() != direction)) {
+						throw new IllegalArgumentException("Cursor does not match the requested status and sort");
+					}
+					if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+						throw new IllegalArgumentException("size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+					}
+					return Tuples.of(validStatus, direction, Optional.ofNullable(after), SummaryFields.parse(fields));
+				})
+				.onErrorMap(IllegalArgumentException.class, e ->
+						new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor request: " + e.getMessage()))
+				.flatMap(request -> {
+					if (!readModelIndexes.coversSort("getCustomersByCursor", Sort.by(request.getT2(), sortBy))) {
+						return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+								"Unsupported sortBy value: " + sortBy + ", allowed values: " + ReadModelIndexes.SORTABLE_FIELDS));
+					}
+					return customerQueryService.findByStatusAfter(request.getT1(), sortBy, request.getT2(),
+							request.getT3().orElse(null), size, includeTotal, request.getT4());
+				})
+				.map(result -> CursorPage.<CustomerSummary>builder()
+						.items(result.getItems().stream().map(CustomerMapper::toCustomerSummary).toList())
+						.nextCursor(result.getNextCursor())
+						.totalElements(result.getTotalElements())
+						.build())
 				.transform(this::asResponseEntity);
 	}
 
+	@Override
+	@TracedOperation("exportCustomers")
+	public Flux<CustomerSummary> exportCustomers(String status, Boolean emailVerified, Boolean marketingConsent,
+												 String fields) {
+		log.info("Received request to export customers. status={}, emailVerified={}, marketingConsent={}",
+				status, emailVerified, marketingConsent);
+
+		return Mono.fromCallable(() -> CustomerStatus.valueOf(status.toUpperCase()))
+				.onErrorMap(IllegalArgumentException.class, e ->
+						new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid status value: " + status))
+				.flatMapMany(validStatus -> customerQueryService.streamCustomers(validStatus, emailVerified, marketingConsent,
+						parseFields(fields)))
+				.map(CustomerMapper::toCustomerSummary);
+	}
+
+	@Override
+	@TracedOperation("getCustomerStats")
+	public Mono<ResponseEntity<CustomerStatsResponse>> getCustomerStats() {
+		log.info("Received request to get customer statistics");
+		return asResponseEntity(customerQueryService.getStats());
+	}
+
 	@Override
 	@TracedOperation("searchCustomers")
-	public Mono<ResponseEntity<Page<CustomerSummary>>> searchCustomers(String query, int page, int size) {
+	public Mono<ResponseEntity<Page<CustomerSummary>>> searchCustomers(String query, int page, int size, String fields) {
 		log.info("Received request to search customers with query: {}", query);
 		Pageable pageable = PageRequest.of(page, size);
-		Mono<Tuple2<List<CustomerReadModel>, Long>> dataMono = customerQueryService.searchByName(query, pageable);
 
-		return buildPageResponse(dataMono, pageable)
+		return Mono.fromCallable(() -> parseFields(fields))
+				.flatMap(summaryFields -> buildPageResponse(customerQueryService.searchByName(query, pageable, summaryFields), pageable))
 				.transform(this::asResponseEntity);
 	}
 
-	private Pageable createPageable(int page, int size, String sortBy, String sortDir) {
+	private Pageable createPageable(String operation, int page, int size, String sortBy, String sortDir) {
 		Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
-		return PageRequest.of(page, size, Sort.by(direction, sortBy));
+		Sort sort = Sort.by(direction, sortBy);
+		if (!readModelIndexes.coversSort(operation, sort)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Unsupported sortBy value: " + sortBy + ", allowed values: " + ReadModelIndexes.SORTABLE_FIELDS);
+		}
+		return PageRequest.of(page, size, sort);
+	}
+
+	private static SummaryFields parseFields(String fields) {
+		try {
+			return SummaryFields.parse(fields);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
 	}
 
 	private Mono<Page<CustomerSummary>> buildPageResponse(
-			Mono<Tuple2<List<CustomerReadModel>, Long>> dataAndCountMono,
+			Mono<Tuple2<List<CustomerSummaryView>, Long>> dataAndCountMono,
 			Pageable pageable) {
 
 		return dataAndCountMono.map(tuple -> mapToPage(tuple.getT1(), pageable, tuple.getT2()));
 	}
 
-	private Page<CustomerSummary> mapToPage(List<CustomerReadModel> models, Pageable pageable, Long count) {
+	private Page<CustomerSummary> mapToPage(List<CustomerSummaryView> models, Pageable pageable, Long count) {
 		List<CustomerSummary> summaries = models.stream()
 				.map(CustomerMapper::toCustomerSummary)
 				.collect(Collectors.toList());
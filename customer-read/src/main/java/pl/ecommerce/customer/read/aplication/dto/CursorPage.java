@@ -0,0 +1,22 @@
+package pl.ecommerce.customer.read.aplication.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Builder
+@Data
+@Schema(description = "Page of results addressed by an opaque cursor")
+public class CursorPage<T> {
+
+	@Schema(description = "Items of the page")
+	private List<T> items;
+
+	@Schema(description = "Cursor of the next page, absent on the last page", example = "QUNUSVZF.bGFzdE5hbWU.QVND.RG9l.ZTdiOGMyZDU")
+	private String nextCursor;
+
+	@Schema(description = "Total number of matching items, only returned when requested", example = "1250")
+	private Long totalElements;
+}
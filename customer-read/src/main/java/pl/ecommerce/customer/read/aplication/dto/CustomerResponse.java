@@ -48,4 +48,7 @@ public class CustomerResponse {
 
 	@Schema(description = "Trace identifier", example = "12345678-1234-1234-1234-1234567890ab")
 	private String traceId;
+
+	@Schema(description = "Read model version, comparable with the consistency token returned by writes", example = "3")
+	private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package pl.ecommerce.customer.read.aplication.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Builder
+@Data
+@Schema(description = "Customer counts maintained by the read model projection")
+public class CustomerStatsResponse {
+
+	@Schema(description = "Total number of customers", example = "125000")
+	private long total;
+
+	@Schema(description = "Number of customers per status")
+	private Map<String, Long> byStatus;
+
+	@Schema(description = "Counts per status, email verification, marketing consent and preferred language")
+	private List<Cell> cells;
+
+	@Builder
+	@Data
+	@Schema(description = "Number of customers sharing the same dimension values")
+	public static class Cell {
+
+		@Schema(description = "Customer status", example = "ACTIVE")
+		private String status;
+
+		@Schema(description = "Whether the email is verified", example = "true")
+		private boolean emailVerified;
+
+		@Schema(description = "Whether the customer consented to marketing", example = "false")
+		private boolean marketingConsent;
+
+		@Schema(description = "Preferred language", example = "pl")
+		private String preferredLanguage;
+
+		@Schema(description = "Number of customers", example = "4200")
+		private long count;
+	}
+}
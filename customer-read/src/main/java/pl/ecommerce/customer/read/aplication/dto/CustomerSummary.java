@@ -1,5 +1,6 @@
 package pl.ecommerce.customer.read.aplication.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Data;
@@ -10,6 +11,7 @@ import java.util.UUID;
 
 @Builder
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Schema(description = "Summary information of a customer")
 public class CustomerSummary {
 
@@ -32,7 +34,7 @@ public class CustomerSummary {
 	private Instant createdAt;
 
 	@Schema(description = "Number of addresses associated with the customer", example = "2")
-	private int addressCount;
+	private Integer addressCount;
 
 	@Schema(description = "Trace identifier", example = "12345678-1234-1234-1234-1234567890ab")
 	private String traceId;
@@ -7,6 +7,7 @@ import pl.ecommerce.customer.read.aplication.dto.CustomerResponse;
 import pl.ecommerce.customer.read.aplication.dto.CustomerSummary;
 import pl.ecommerce.customer.read.aplication.dto.PreferencesResponse;
 import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.domain.model.CustomerSummaryView;
 
 import java.util.Collections;
 import java.util.stream.Collectors;
@@ -33,19 +34,20 @@ public interface CustomerMapper {
 						? null
 						: map(readModel.getPreferences()))
 				.traceId(readModel.getLastTraceId())
+				.version(readModel.getVersion())
 				.build();
 	}
 
-	static CustomerSummary toCustomerSummary(CustomerReadModel readModel) {
+	static CustomerSummary toCustomerSummary(CustomerSummaryView view) {
 		return CustomerSummary.builder()
-				.id(readModel.getId())
-				.firstName(readModel.getFirstName())
-				.lastName(readModel.getLastName())
-				.email(readModel.getEmail())
-				.status(readModel.getStatus())
-				.createdAt(readModel.getCreatedAt())
-				.addressCount(readModel.getAddresses() == null ? 0 : readModel.getAddresses().size())
-				.traceId(readModel.getLastTraceId())
+				.id(view.getId())
+				.firstName(view.getFirstName())
+				.lastName(view.getLastName())
+				.email(view.getEmail())
+				.status(view.getStatus())
+				.createdAt(view.getCreatedAt())
+				.addressCount(view.getAddressCount())
+				.traceId(view.getLastTraceId())
 				.build();
 	}
 
@@ -0,0 +1,71 @@
+package pl.ecommerce.customer.read.aplication.service;
+
+import org.springframework.data.domain.Sort;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.domain.model.CustomerSummaryView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Position in a status listing: the sort key and id of the last returned customer, together with the
+ * listing it belongs to. Encoded as dot separated base64url parts so clients treat it as opaque; a missing
+ * sort key is written as {@value #NULL_VALUE}, which base64url never produces, so it stays distinct from "".
+ */
+public record CustomerCursor(CustomerStatus status, String sortBy, Sort.Direction direction, String value, UUID id) {
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+	private static final String NULL_VALUE = "~";
+
+	static CustomerCursor after(CustomerSummaryView last, CustomerStatus status, String sortBy, Sort.Direction direction) {
+		Object value = switch (sortBy) {
+			case "createdAt" -> last.getCreatedAt();
+			case "lastName" -> last.getLastName();
+			default -> throw new IllegalArgumentException("Unsupported cursor sort field: " + sortBy);
+		};
+		return new CustomerCursor(status, sortBy, direction, isNull(value) ? null : value.toString(), last.getId());
+	}
+
+	public static CustomerCursor decode(String cursor) {
+		String[] parts = cursor.split("\\.", -1);
+		if (parts.length != 5) {
+			throw new IllegalArgumentException("Malformed cursor");
+		}
+		String value = NULL_VALUE.equals(parts[3]) ? null : decodePart(parts[3]);
+		CustomerCursor after = new CustomerCursor(CustomerStatus.valueOf(decodePart(parts[0])), decodePart(parts[1]),
+				Sort.Direction.valueOf(decodePart(parts[2])), value, UUID.fromString(decodePart(parts[4])));
+		try {
+			after.sortValue();
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Malformed cursor", e);
+		}
+		return after;
+	}
+
+	public String encode() {
+		return String.join(".", encode(status.name()), encode(sortBy), encode(direction.name()),
+				isNull(value) ? NULL_VALUE : encode(value), encode(id.toString()));
+	}
+
+	/**
+	 * Sort key converted back to the type it is stored with, {@code null} when the last customer had none.
+	 */
+	Object sortValue() {
+		return "createdAt".equals(sortBy) && nonNull(value) ? Instant.parse(value) : value;
+	}
+
+	private static String encode(String part) {
+		return ENCODER.encodeToString(part.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String decodePart(String part) {
+		return new String(DECODER.decode(part), StandardCharsets.UTF_8);
+	}
+}
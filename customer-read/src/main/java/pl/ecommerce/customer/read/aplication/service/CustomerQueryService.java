@@ -2,64 +2,287 @@ package pl.ecommerce.customer.read.aplication.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.aplication.dto.CursorPage;
+import pl.ecommerce.customer.read.aplication.dto.CustomerStatsResponse;
 import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
-import pl.ecommerce.customer.read.infrastructure.repository.CustomerReadRepository;
+import pl.ecommerce.customer.read.domain.model.CustomerSummaryView;
+import pl.ecommerce.customer.read.infrastructure.cache.CustomerReadCache;
+import pl.ecommerce.customer.read.infrastructure.cache.RedisCustomerCache;
+import pl.ecommerce.customer.read.infrastructure.projector.ProjectedVersions;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelIndexes;
+import pl.ecommerce.customer.read.infrastructure.stats.CustomerStatsCounters;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static pl.ecommerce.customer.read.infrastructure.projector.CustomerEventProjectorHelper.searchKey;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CustomerQueryService {
 
-	private final CustomerReadRepository customerRepository;
+	private final ReactiveMongoTemplate mongoTemplate;
+	private final ReadModelCollections collections;
+	private final CustomerStatsCounters statsCounters;
+	private final CustomerReadCache readCache;
+	private final RedisCustomerCache redisCache;
+	private final ProjectedVersions projectedVersions;
+
+	@Value("${customer-export.batch-size:500}")
+	private int exportBatchSize;
+
+	private static final Pattern REGEX_METACHARACTERS = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}-]");
 
 	public Mono<CustomerReadModel> findById(UUID customerId) {
 		log.info("Finding customer read model by ID: {}", customerId);
-		return customerRepository.findById(customerId)
+		return readCache.getById(customerId, () -> redisCache.getById(customerId,
+						() -> mongoTemplate.findById(customerId, CustomerReadModel.class, collections.active())))
 				.doOnNext(CustomerQueryService::logInfo);
 	}
 
+	/**
+	 * Read-your-writes lookup: with a consistency token from customer-write, waits for that version to be projected.
+	 * Near cache entries older than the token are skipped, so a read released by another replica's projection, or
+	 * by the timeout, sees the document in Redis or Mongo rather than this instance's stale copy.
+	 */
+	public Mono<CustomerReadModel> findById(UUID customerId, Long minVersion) {
+		if (isNull(minVersion)) {
+			return findById(customerId);
+		}
+		return projectedVersions.await(customerId, minVersion, () -> findAtLeast(customerId, minVersion));
+	}
+
+	/**
+	 * Case-insensitive lookup served by the partial email index. Unlike before the index was introduced,
+	 * deleted customers are not returned, so an email never resolves to an account that no longer exists.
+	 */
 	public Mono<CustomerReadModel> findByEmail(String email) {
 		log.info("Finding customer read model by email: {}", email);
-		return customerRepository.findByEmail(email)
+		Query query = Query.query(Criteria.where(CustomerReadModel.EMAIL).is(email)
+						.and(CustomerReadModel.STATUS).in(ReadModelIndexes.EMAIL_INDEXED_STATUSES.stream().map(Enum::name).toList()))
+				.collation(ReadModelIndexes.EMAIL_COLLATION);
+		return readCache.getByEmail(email, () -> redisCache.getByEmail(email,
+						() -> mongoTemplate.findOne(query, CustomerReadModel.class, collections.active())))
+				.filter(customer -> ReadModelIndexes.EMAIL_INDEXED_STATUSES.contains(customer.getStatus()))
+				.doOnNext(CustomerQueryService::logInfo);
+	}
+
+	/**
+	 * Waits only once the email resolves to a customer, since the email itself may be what is being projected.
+	 */
+	public Mono<CustomerReadModel> findByEmail(String email, Long minVersion) {
+		if (isNull(minVersion)) {
+			return findByEmail(email);
+		}
+		return findByEmail(email)
+				.flatMap(customer -> nonNull(customer.getVersion()) && customer.getVersion() >= minVersion
+						? Mono.just(customer)
+						: projectedVersions.await(customer.getId(), minVersion, () -> findAtLeast(customer.getId(), minVersion)
+								.filter(current -> email.equalsIgnoreCase(current.getEmail())
+										&& ReadModelIndexes.EMAIL_INDEXED_STATUSES.contains(current.getStatus()))));
+	}
+
+	private Mono<CustomerReadModel> findAtLeast(UUID customerId, long minVersion) {
+		return readCache.getById(customerId, minVersion, () -> redisCache.getById(customerId,
+						() -> mongoTemplate.findById(customerId, CustomerReadModel.class, collections.active())))
 				.doOnNext(CustomerQueryService::logInfo);
 	}
 
-	public Mono<Tuple2<List<CustomerReadModel>, Long>> findByStatus(CustomerStatus customerStatus, Pageable pageable) {
+	public Mono<Tuple2<List<CustomerSummaryView>, Long>> findByStatus(CustomerStatus customerStatus, Pageable pageable,
+																	  SummaryFields fields) {
 		log.info("Finding customer read models by status: {}", customerStatus);
-		Flux<CustomerReadModel> customersFlux = customerRepository.findByStatus(customerStatus, pageable);
-		Mono<Long> countMono = customerRepository.countByStatus(customerStatus);
+		String collection = collections.active();
+		Query query = fields.applyTo(Query.query(Criteria.where(CustomerReadModel.STATUS).is(customerStatus.name()))
+				.with(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), documentSort(pageable.getSort()))));
+		Flux<CustomerSummaryView> customersFlux = mongoTemplate.find(query, CustomerSummaryView.class, collection);
+		Mono<Long> countMono = statsCounters.countByStatus(customerStatus);
+
+		return redisCache.getPage(customerStatus, pageable, fields.cacheKey(),
+						() -> Mono.zip(customersFlux.collectList(), countMono)
+								.map(tuple -> new RedisCustomerCache.CachedPage(tuple.getT1(), tuple.getT2())))
+				.map(page -> Tuples.of(page.items(), page.total()));
+	}
 
-		return Mono.zip(customersFlux.collectList(), countMono);
+	/**
+	 * Keyset pagination over a status listing: seeks past the cursor on the indexed (sort key, _id) pair,
+	 * so every page costs the same regardless of depth. The total is only counted on request.
+	 */
+	public Mono<CursorPage<CustomerSummaryView>> findByStatusAfter(CustomerStatus customerStatus, String sortBy,
+																   Sort.Direction direction, CustomerCursor after,
+																   int size, boolean includeTotal, SummaryFields fields) {
+		log.info("Finding customer read models by status: {} after cursor", customerStatus);
+		String collection = collections.active();
+		Criteria statusCriteria = Criteria.where(CustomerReadModel.STATUS).is(customerStatus.name());
+		Query query = Query.query(nonNull(after) ? new Criteria().andOperator(statusCriteria, seek(sortBy, direction, after)) : statusCriteria)
+				.with(Sort.by(direction, documentField(sortBy), CustomerReadModel.ID))
+				.limit(size + 1);
+		fields.applyTo(query, sortBy);
+
+		Mono<List<CustomerSummaryView>> rowsMono = mongoTemplate.find(query, CustomerSummaryView.class, collection).collectList();
+		Mono<Optional<Long>> totalMono = includeTotal
+				? statsCounters.countByStatus(customerStatus).map(Optional::of)
+				: Mono.just(Optional.empty());
+
+		return Mono.zip(rowsMono, totalMono)
+				.map(tuple -> {
+					List<CustomerSummaryView> rows = tuple.getT1();
+					boolean hasMore = rows.size() > size;
+					List<CustomerSummaryView> items = hasMore ? rows.subList(0, size) : rows;
+					return CursorPage.<CustomerSummaryView>builder()
+							.items(items)
+							.nextCursor(hasMore ? CustomerCursor.after(items.getLast(), customerStatus, sortBy, direction).encode() : null)
+							.totalElements(tuple.getT2().orElse(null))
+							.build();
+				});
 	}
 
-	public Mono<Tuple2<List<CustomerReadModel>, Long>> findAllActive(Pageable pageable) {
+	/**
+	 * Streams every matching customer straight from a Mongo cursor. The cursor fetches bounded batches and
+	 * only requests more as the subscriber drains them, so exports run in constant memory.
+	 */
+	public Flux<CustomerSummaryView> streamCustomers(CustomerStatus customerStatus, Boolean emailVerified,
+													 Boolean marketingConsent, SummaryFields fields) {
+		log.info("Streaming customer read models: status={}, emailVerified={}, marketingConsent={}",
+				customerStatus, emailVerified, marketingConsent);
+		Criteria criteria = Criteria.where(CustomerReadModel.STATUS).is(customerStatus.name());
+		if (nonNull(emailVerified)) {
+			criteria = criteria.and(CustomerReadModel.EMAIL_VERIFIED).is(emailVerified);
+		}
+		if (nonNull(marketingConsent)) {
+			criteria = criteria.and(CustomerReadModel.PREFERENCES + ".marketingConsent").is(marketingConsent);
+		}
+		Query query = fields.applyTo(Query.query(criteria).cursorBatchSize(exportBatchSize));
+
+		return mongoTemplate.find(query, CustomerSummaryView.class, collections.active())
+				.limitRate(exportBatchSize);
+	}
+
+	public Mono<Tuple2<List<CustomerSummaryView>, Long>> findAllActive(Pageable pageable, SummaryFields fields) {
 		log.info("Finding all active customer read models");
-		return findByStatus(CustomerStatus.ACTIVE, pageable);
+		return findByStatus(CustomerStatus.ACTIVE, pageable, fields);
 	}
 
-	public Mono<Tuple2<List<CustomerReadModel>, Long>> searchByName(String nameQuery, Pageable pageable) {
+	/**
+	 * Case-insensitive prefix search on first or last name, paginated and counted in one $facet aggregation.
+	 * The anchored regex on the lowercased names is served by the status-prefixed search indexes.
+	 */
+	public Mono<Tuple2<List<CustomerSummaryView>, Long>> searchByName(String nameQuery, Pageable pageable,
+																	  SummaryFields fields) {
 		log.info("Searching active customer read models by name: {}", nameQuery);
-		Flux<CustomerReadModel> customersFlux = customerRepository
-				.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(nameQuery, nameQuery)
-				.filter(customer -> customer.getStatus() == CustomerStatus.ACTIVE)
-				.skip(pageable.getOffset())
-				.take(pageable.getPageSize());
-
-		Mono<Long> countMono = customerRepository
-				.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(nameQuery, nameQuery)
-				.filter(customer -> customer.getStatus() == CustomerStatus.ACTIVE)
-				.count();
-
-		return Mono.zip(customersFlux.collectList(), countMono);
+		String prefix = "^" + escapeRegex(searchKey(nameQuery.trim()));
+		Criteria criteria = Criteria.where(CustomerReadModel.STATUS).is(CustomerStatus.ACTIVE.name())
+				.orOperator(Criteria.where(CustomerReadModel.FIRST_NAME_LOWER).regex(prefix),
+						Criteria.where(CustomerReadModel.LAST_NAME_LOWER).regex(prefix));
+
+		Aggregation aggregation = Aggregation.newAggregation(
+				Aggregation.match(criteria),
+				Aggregation.facet(
+								Aggregation.sort(Sort.by(CustomerReadModel.LAST_NAME_LOWER, CustomerReadModel.FIRST_NAME_LOWER, CustomerReadModel.ID)),
+								Aggregation.skip(pageable.getOffset()),
+								Aggregation.limit(pageable.getPageSize()),
+								fields.toProjection())
+						.as("rows")
+						.and(Aggregation.count().as("total"))
+						.as("total"));
+
+		return mongoTemplate.aggregate(aggregation, collections.active(), Document.class)
+				.next()
+				.map(this::toPage)
+				.defaultIfEmpty(Tuples.of(List.of(), 0L));
+	}
+
+	public Mono<CustomerStatsResponse> getStats() {
+		log.info("Reading customer statistics");
+		return statsCounters.cells()
+				.map(cell -> CustomerStatsResponse.Cell.builder()
+						.status(cell.getString("status"))
+						.emailVerified(Boolean.TRUE.equals(cell.get("emailVerified")))
+						.marketingConsent(Boolean.TRUE.equals(cell.get("marketingConsent")))
+						.preferredLanguage(cell.getString("preferredLanguage"))
+						.count(cell.get("count", Number.class).longValue())
+						.build())
+				.collectList()
+				.map(cells -> CustomerStatsResponse.builder()
+						.total(cells.stream().mapToLong(CustomerStatsResponse.Cell::getCount).sum())
+						.byStatus(cells.stream().collect(Collectors.groupingBy(cell -> String.valueOf(cell.getStatus()),
+								TreeMap::new, Collectors.summingLong(CustomerStatsResponse.Cell::getCount))))
+						.cells(cells)
+						.build());
+	}
+
+	private Tuple2<List<CustomerSummaryView>, Long> toPage(Document result) {
+		List<CustomerSummaryView> rows = result.getList("rows", Document.class).stream()
+				.map(row -> mongoTemplate.getConverter().read(CustomerSummaryView.class, row))
+				.toList();
+		List<Document> total = result.getList("total", Document.class);
+		long count = total.isEmpty() ? 0L : total.getFirst().get("total", Number.class).longValue();
+		return Tuples.of(rows, count);
+	}
+
+	/**
+	 * Everything after the cursor in (sort key, _id) order. Mongo sorts null and missing keys before any value,
+	 * and range operators never match them, so they are sought explicitly: after a null key an ascending listing
+	 * continues with every non-null key, and a descending one only has the remaining nulls left.
+	 */
+	private static Criteria seek(String sortBy, Sort.Direction direction, CustomerCursor after) {
+		String field = documentField(sortBy);
+		Object value = after.sortValue();
+		Criteria beyondId = direction.isAscending()
+				? Criteria.where(CustomerReadModel.ID).gt(after.id())
+				: Criteria.where(CustomerReadModel.ID).lt(after.id());
+		Criteria sameValue = new Criteria().andOperator(Criteria.where(field).is(value), beyondId);
+		if (isNull(value)) {
+			return direction.isAscending()
+					? new Criteria().orOperator(Criteria.where(field).ne(null), sameValue)
+					: sameValue;
+		}
+		return direction.isAscending()
+				? new Criteria().orOperator(Criteria.where(field).gt(value), sameValue)
+				: new Criteria().orOperator(Criteria.where(field).lt(value), Criteria.where(field).is(null), sameValue);
+	}
+
+	/**
+	 * Maps a sortable summary property to the document field it is stored under.
+	 */
+	private static String documentField(String sortBy) {
+		return switch (sortBy) {
+			case "createdAt" -> CustomerReadModel.CREATED_AT;
+			case "lastName" -> CustomerReadModel.LAST_NAME;
+			default -> throw new IllegalArgumentException("Unsupported sort field: " + sortBy);
+		};
+	}
+
+	private static Sort documentSort(Sort sort) {
+		return Sort.by(sort.stream()
+				.map(order -> order.withProperty(documentField(order.getProperty())))
+				.toList());
+	}
+
+	private static String escapeRegex(String value) {
+		return REGEX_METACHARACTERS.matcher(value).replaceAll("\\\\$0");
 	}
 
 	private static void logInfo(CustomerReadModel model) {
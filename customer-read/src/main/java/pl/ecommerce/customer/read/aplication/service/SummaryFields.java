@@ -0,0 +1,98 @@
+package pl.ecommerce.customer.read.aplication.service;
+
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.query.Query;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Customer summary fields requested through the {@code fields} parameter, pushed down to Mongo as a
+ * projection so only those fields leave the database. The id is always returned.
+ */
+public record SummaryFields(Set<String> names) {
+
+	private static final String ADDRESS_COUNT = "addressCount";
+
+	private static final Map<String, String> DOCUMENT_FIELDS = documentFields();
+
+	public static final SummaryFields ALL = new SummaryFields(new TreeSet<>(DOCUMENT_FIELDS.keySet()));
+
+	public static SummaryFields parse(String fields) {
+		if (isNull(fields) || fields.isBlank()) {
+			return ALL;
+		}
+		Set<String> names = Arrays.stream(fields.split(","))
+				.map(String::trim)
+				.filter(name -> !name.isEmpty())
+				.collect(Collectors.toCollection(TreeSet::new));
+		List<String> unknown = names.stream().filter(name -> !DOCUMENT_FIELDS.containsKey(name)).toList();
+		if (!unknown.isEmpty()) {
+			throw new IllegalArgumentException("Unknown fields " + unknown + ", allowed values: " + DOCUMENT_FIELDS.keySet());
+		}
+		names.add("id");
+		return new SummaryFields(Collections.unmodifiableSet(names));
+	}
+
+	public boolean includes(String name) {
+		return names.contains(name);
+	}
+
+	/**
+	 * Restricts the query to the requested fields plus any document fields the caller needs itself, e.g. a sort key.
+	 */
+	public Query applyTo(Query query, String... requiredFields) {
+		query.fields().include(documentFields(requiredFields));
+		if (includes(ADDRESS_COUNT)) {
+			query.fields().project(ArrayOperators.Size.lengthOfArray(
+					ConditionalOperators.ifNull(CustomerReadModel.ADDRESSES).then(Collections.emptyList()))).as(ADDRESS_COUNT);
+		}
+		return query;
+	}
+
+	public ProjectionOperation toProjection(String... requiredFields) {
+		ProjectionOperation projection = Aggregation.project(documentFields(requiredFields));
+		return includes(ADDRESS_COUNT)
+				? projection.and(ArrayOperators.Size.lengthOfArray(
+						ConditionalOperators.ifNull(CustomerReadModel.ADDRESSES).then(Collections.emptyList()))).as(ADDRESS_COUNT)
+				: projection;
+	}
+
+	public String cacheKey() {
+		return String.join(",", names);
+	}
+
+	private String[] documentFields(String... requiredFields) {
+		Set<String> fields = names.stream()
+				.filter(name -> !name.equals(ADDRESS_COUNT))
+				.map(DOCUMENT_FIELDS::get)
+				.collect(Collectors.toCollection(TreeSet::new));
+		fields.addAll(List.of(requiredFields));
+		return fields.toArray(String[]::new);
+	}
+
+	private static Map<String, String> documentFields() {
+		Map<String, String> fields = new LinkedHashMap<>();
+		fields.put("id", CustomerReadModel.ID);
+		fields.put("firstName", CustomerReadModel.FIRST_NAME);
+		fields.put("lastName", CustomerReadModel.LAST_NAME);
+		fields.put("email", CustomerReadModel.EMAIL);
+		fields.put("status", CustomerReadModel.STATUS);
+		fields.put("createdAt", CustomerReadModel.CREATED_AT);
+		fields.put(ADDRESS_COUNT, CustomerReadModel.ADDRESSES);
+		fields.put("traceId", CustomerReadModel.TRACE_ID);
+		return Collections.unmodifiableMap(fields);
+	}
+}
@@ -14,31 +14,71 @@ import pl.ecommerce.commons.model.customer.CustomerStatus;
 import java.time.Instant;
 import java.util.*;
 
+/**
+ * Customer read model document, schema v2: short field names, binary UUIDs and no copies of the
+ * top-level fields. Raw queries and aggregations must use the field name constants below.
+ */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Document(collection = "customers")
+@Document(collection = "customers_compact")
 public class CustomerReadModel {
+
+	public static final String ID = "_id";
+	public static final String EMAIL = "e";
+	public static final String FIRST_NAME = "fn";
+	public static final String LAST_NAME = "ln";
+	public static final String FIRST_NAME_LOWER = "fnl";
+	public static final String LAST_NAME_LOWER = "lnl";
+	public static final String PHONE_NUMBER = "ph";
+	public static final String EMAIL_VERIFIED = "ev";
+	public static final String PHONE_VERIFIED = "pv";
+	public static final String STATUS = "s";
+	public static final String CREATED_AT = "ca";
+	public static final String UPDATED_AT = "ua";
+	public static final String REGISTRATION_IP = "ip";
+	public static final String ADDRESSES = "a";
+	public static final String PREFERENCES = "p";
+	public static final String METADATA = "m";
+	public static final String TRACE_ID = "tr";
+	public static final String VERSION = "v";
+
 	@Id
-	@Field("_id")
+	@Field(ID)
 	private UUID id;
+	@Field(EMAIL)
 	private String email;
+	@Field(FIRST_NAME)
 	private String firstName;
+	@Field(LAST_NAME)
 	private String lastName;
+	@Field(FIRST_NAME_LOWER)
+	private String firstNameLower;
+	@Field(LAST_NAME_LOWER)
+	private String lastNameLower;
+	@Field(PHONE_NUMBER)
 	private String phoneNumber;
+	@Field(EMAIL_VERIFIED)
 	private boolean emailVerified;
+	@Field(PHONE_VERIFIED)
 	private boolean phoneVerified;
+	@Field(STATUS)
 	private CustomerStatus status;
+	@Field(CREATED_AT)
 	private Instant createdAt;
+	@Field(UPDATED_AT)
 	private Instant updatedAt;
+	@Field(REGISTRATION_IP)
 	private String registrationIp;
-	private PersonalData personalData;
+	@Field(ADDRESSES)
 	private List<Address> addresses = new ArrayList<>();
+	@Field(PREFERENCES)
 	private CustomerPreferences preferences;
+	@Field(METADATA)
 	private Map<String, String> metadata = new HashMap<>();
+	@Field(TRACE_ID)
 	private String lastTraceId;
-	private String lastSpanId;
-	private String lastOperation;
-	private Instant lastUpdatedAt;
-}
\ No newline at end of file
+	@Field(VERSION)
+	private Long version;
+}
@@ -0,0 +1,39 @@
+package pl.ecommerce.customer.read.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Slice of a {@link CustomerReadModel} document read by listing queries. Fields left out of the
+ * projection stay null; the address count is computed by Mongo instead of loading the addresses.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSummaryView {
+	@Id
+	@Field(CustomerReadModel.ID)
+	private UUID id;
+	@Field(CustomerReadModel.EMAIL)
+	private String email;
+	@Field(CustomerReadModel.FIRST_NAME)
+	private String firstName;
+	@Field(CustomerReadModel.LAST_NAME)
+	private String lastName;
+	@Field(CustomerReadModel.STATUS)
+	private CustomerStatus status;
+	@Field(CustomerReadModel.CREATED_AT)
+	private Instant createdAt;
+	private Integer addressCount;
+	@Field(CustomerReadModel.TRACE_ID)
+	private String lastTraceId;
+}
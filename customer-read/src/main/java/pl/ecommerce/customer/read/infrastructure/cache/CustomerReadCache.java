@@ -0,0 +1,122 @@
+package pl.ecommerce.customer.read.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Bounded near cache for single customer lookups. The projector invalidates entries as it applies events;
+ * events consumed by other instances are only seen here once the short TTL expires.
+ */
+@Slf4j
+@Component
+public class CustomerReadCache {
+
+	private final boolean enabled;
+	private final Cache<UUID, CustomerReadModel> byId;
+	private final Cache<String, UUID> idByEmail;
+	private final Cache<UUID, Long> invalidations;
+	private final AtomicLong sequence = new AtomicLong();
+
+	public CustomerReadCache(MeterRegistry registry,
+							 @Value("${read-cache.enabled:true}") boolean enabled,
+							 @Value("${read-cache.max-size:100000}") long maxSize,
+							 @Value("${read-cache.ttl-ms:10000}") long ttlMs,
+							 @Value("${spring.application.name:unknown}") String serviceName) {
+		this.enabled = enabled;
+		Duration ttl = Duration.ofMillis(ttlMs);
+		this.byId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+		this.idByEmail = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+		this.invalidations = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+
+		CaffeineCacheMetrics.monitor(registry, byId, "customer_read_by_id", Tags.of("service", serviceName));
+		CaffeineCacheMetrics.monitor(registry, idByEmail, "customer_read_by_email", Tags.of("service", serviceName));
+	}
+
+	public Mono<CustomerReadModel> getById(UUID customerId, Supplier<Mono<CustomerReadModel>> loader) {
+		return getById(customerId, 0L, loader);
+	}
+
+	/**
+	 * Serves the cached document only once it reached {@code minVersion}; an older entry is dropped and reloaded.
+	 */
+	public Mono<CustomerReadModel> getById(UUID customerId, long minVersion, Supplier<Mono<CustomerReadModel>> loader) {
+		if (!enabled) {
+			return loader.get();
+		}
+		return Mono.defer(() -> {
+			CustomerReadModel cached = byId.getIfPresent(customerId);
+			if (nonNull(cached) && reached(cached, minVersion)) {
+				return Mono.just(cached);
+			}
+			if (nonNull(cached)) {
+				byId.asMap().remove(customerId, cached);
+			}
+			long loadedAt = sequence.get();
+			return loader.get().doOnNext(customer -> put(customer, loadedAt));
+		});
+	}
+
+	/**
+	 * Resolves the email through a cached id; entries whose customer has since changed email are treated as misses.
+	 */
+	public Mono<CustomerReadModel> getByEmail(String email, Supplier<Mono<CustomerReadModel>> loader) {
+		if (!enabled) {
+			return loader.get();
+		}
+		String key = email.toLowerCase(Locale.ROOT);
+		return Mono.defer(() -> {
+			UUID customerId = idByEmail.getIfPresent(key);
+			CustomerReadModel cached = nonNull(customerId) ? byId.getIfPresent(customerId) : null;
+			if (nonNull(cached) && key.equalsIgnoreCase(cached.getEmail())) {
+				return Mono.just(cached);
+			}
+			long loadedAt = sequence.get();
+			return loader.get().doOnNext(customer -> {
+				if (put(customer, loadedAt)) {
+					idByEmail.put(key, customer.getId());
+				}
+			});
+		});
+	}
+
+	public void invalidate(UUID customerId) {
+		if (!enabled) {
+			return;
+		}
+		invalidations.put(customerId, sequence.incrementAndGet());
+		byId.invalidate(customerId);
+	}
+
+	private static boolean reached(CustomerReadModel customer, long minVersion) {
+		return minVersion <= 0 || (nonNull(customer.getVersion()) && customer.getVersion() >= minVersion);
+	}
+
+	/**
+	 * Caches a loaded document unless the customer was invalidated while it was being read.
+	 */
+	private boolean put(CustomerReadModel customer, long loadedAt) {
+		Long invalidatedAt = invalidations.getIfPresent(customer.getId());
+		if (nonNull(invalidatedAt) && invalidatedAt > loadedAt) {
+			log.debug("Not caching customer {} invalidated during lookup", customer.getId());
+			return false;
+		}
+		byId.put(customer.getId(), customer);
+		return true;
+	}
+}
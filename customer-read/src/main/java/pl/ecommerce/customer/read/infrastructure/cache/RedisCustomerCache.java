@@ -0,0 +1,238 @@
+package pl.ecommerce.customer.read.infrastructure.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.domain.model.CustomerSummaryView;
+import pl.ecommerce.customer.read.infrastructure.projector.ProjectedVersions;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Optional Redis cache shared by all customer-read replicas. Documents are keyed by the active collection
+ * and the customer's read model version: the projector advances a per-customer version pointer after each
+ * write, so a lookup that raced with a projection can only populate a key nobody reads anymore. List pages
+ * are keyed by a generation that is bumped at most once per invalidation interval. Concurrent misses for
+ * the same key are coalesced into a single load per instance.
+ */
+@Slf4j
+@Component
+public class RedisCustomerCache {
+
+	static final String INVALIDATION_CHANNEL = "customer-read:invalidations";
+	private static final String KEY_PREFIX = "customer-read:";
+
+	private final ReactiveRedisConnectionFactory connectionFactory;
+	private final ReactiveStringRedisTemplate redisTemplate;
+	private final ObjectMapper objectMapper;
+	private final ReadModelCollections collections;
+	private final CustomerReadCache readCache;
+	private final ProjectedVersions projectedVersions;
+	private final boolean enabled;
+	private final Duration ttl;
+	private final Duration pageTtl;
+	private final Duration invalidationInterval;
+
+	private final Map<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+	private final AtomicBoolean listsDirty = new AtomicBoolean();
+	private final Disposable.Composite subscriptions = Disposables.composite();
+	private ReactiveRedisMessageListenerContainer listenerContainer;
+
+	public RedisCustomerCache(ReactiveRedisConnectionFactory connectionFactory, ReactiveStringRedisTemplate redisTemplate,
+							  ObjectMapper objectMapper, ReadModelCollections collections, CustomerReadCache readCache,
+							  ProjectedVersions projectedVersions,
+							  @Value("${read-cache.redis.enabled:false}") boolean enabled,
+							  @Value("${read-cache.redis.ttl-ms:300000}") long ttlMs,
+							  @Value("${read-cache.redis.page-ttl-ms:60000}") long pageTtlMs,
+							  @Value("${read-cache.redis.invalidation-interval-ms:500}") long invalidationIntervalMs) {
+		this.connectionFactory = connectionFactory;
+		this.redisTemplate = redisTemplate;
+		this.objectMapper = objectMapper;
+		this.collections = collections;
+		this.readCache = readCache;
+		this.projectedVersions = projectedVersions;
+		this.enabled = enabled;
+		this.ttl = Duration.ofMillis(ttlMs);
+		this.pageTtl = Duration.ofMillis(pageTtlMs);
+		this.invalidationInterval = Duration.ofMillis(invalidationIntervalMs);
+	}
+
+	@PostConstruct
+	public void init() {
+		if (!enabled) {
+			return;
+		}
+		listenerContainer = new ReactiveRedisMessageListenerContainer(connectionFactory);
+		subscriptions.add(listenerContainer.receive(ChannelTopic.of(INVALIDATION_CHANNEL))
+				.map(message -> UUID.fromString(message.getMessage()))
+				.subscribe(customerId -> {
+							readCache.invalidate(customerId);
+							projectedVersions.projected(customerId, ProjectedVersions.UNKNOWN);
+						},
+						error -> log.warn("Stopped receiving customer cache invalidations: {}", error.getMessage())));
+		subscriptions.add(Flux.interval(invalidationInterval)
+				.filter(tick -> listsDirty.getAndSet(false))
+				.concatMap(tick -> redisTemplate.opsForValue().increment(key("list-generation"))
+						.onErrorResume(e -> {
+							listsDirty.set(true);
+							log.warn("Failed to invalidate cached customer pages: {}", e.getMessage());
+							return Mono.empty();
+						}))
+				.subscribe());
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		subscriptions.dispose();
+		if (nonNull(listenerContainer)) {
+			listenerContainer.destroyLater().subscribe();
+		}
+	}
+
+	public Mono<CustomerReadModel> getById(UUID customerId, Supplier<Mono<CustomerReadModel>> loader) {
+		if (!enabled) {
+			return loader.get();
+		}
+		String versionKey = key("version:" + customerId);
+		return redisTemplate.opsForValue().get(versionKey)
+				.flatMap(version -> read(documentKey(customerId, Long.parseLong(version)), CustomerReadModel.class))
+				.onErrorResume(this::skipCache)
+				.switchIfEmpty(coalesce(versionKey, () -> loader.get().flatMap(this::store)));
+	}
+
+	/**
+	 * Resolves the email to a customer id, then serves the document through {@link #getById}.
+	 */
+	public Mono<CustomerReadModel> getByEmail(String email, Supplier<Mono<CustomerReadModel>> loader) {
+		if (!enabled) {
+			return loader.get();
+		}
+		String emailKey = key("email:" + email.toLowerCase(Locale.ROOT));
+		return redisTemplate.opsForValue().get(emailKey)
+				.onErrorResume(this::skipCache)
+				.flatMap(customerId -> getById(UUID.fromString(customerId), loader))
+				.filter(customer -> email.equalsIgnoreCase(customer.getEmail()))
+				.switchIfEmpty(coalesce(emailKey, () -> loader.get()
+						.flatMap(customer -> redisTemplate.opsForValue().set(emailKey, customer.getId().toString(), ttl)
+								.onErrorResume(this::skipCache)
+								.then(store(customer)))));
+	}
+
+	public Mono<CachedPage> getPage(CustomerStatus status, Pageable pageable, String fields, Supplier<Mono<CachedPage>> loader) {
+		if (!enabled) {
+			return loader.get();
+		}
+		return redisTemplate.opsForValue().get(key("list-generation"))
+				.defaultIfEmpty("0")
+				.map(Optional::of)
+				.onErrorResume(e -> skipCache(e).thenReturn(Optional.<String>empty()))
+				.flatMap(generation -> generation.isPresent()
+						? getPage(pageKey(generation.get(), status, pageable, fields), loader)
+						: loader.get());
+	}
+
+	private Mono<CachedPage> getPage(String pageKey, Supplier<Mono<CachedPage>> loader) {
+		return read(pageKey, CachedPage.class)
+				.onErrorResume(this::skipCache)
+				.switchIfEmpty(coalesce(pageKey, () -> loader.get()
+						.flatMap(page -> write(pageKey, page, pageTtl).thenReturn(page))));
+	}
+
+	/**
+	 * Publishes that a projection moved the customer to the given read model version. The version pointer is
+	 * advanced before the message goes out, so replicas reloading on it never find the previous version.
+	 */
+	public Mono<Void> invalidate(UUID customerId, long version) {
+		if (!enabled) {
+			return Mono.empty();
+		}
+		listsDirty.set(true);
+		return redisTemplate.opsForValue().set(key("version:" + customerId), Long.toString(version), ttl)
+				.then(redisTemplate.convertAndSend(INVALIDATION_CHANNEL, customerId.toString()))
+				.then()
+				.onErrorResume(e -> {
+					log.warn("Failed to publish cache invalidation for customer {}: {}", customerId, e.getMessage());
+					return Mono.empty();
+				});
+	}
+
+	private Mono<CustomerReadModel> store(CustomerReadModel customer) {
+		if (isNull(customer.getVersion())) {
+			return Mono.just(customer);
+		}
+		return write(documentKey(customer.getId(), customer.getVersion()), customer, ttl)
+				.then(redisTemplate.opsForValue().setIfAbsent(key("version:" + customer.getId()),
+						customer.getVersion().toString(), ttl))
+				.onErrorResume(e -> skipCache(e).thenReturn(false))
+				.thenReturn(customer);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> Mono<T> coalesce(String key, Supplier<Mono<T>> loader) {
+		return Mono.defer(() -> (Mono<T>) inFlight.computeIfAbsent(key, k -> loader.get()
+				.doFinally(signal -> inFlight.remove(k))
+				.cache()));
+	}
+
+	private <T> Mono<T> read(String key, Class<T> type) {
+		return redisTemplate.opsForValue().get(key)
+				.flatMap(json -> Mono.fromCallable(() -> objectMapper.readValue(json, type)));
+	}
+
+	private Mono<Boolean> write(String key, Object value, Duration expiry) {
+		try {
+			return redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(value), expiry)
+					.onErrorResume(e -> skipCache(e).thenReturn(false));
+		} catch (JsonProcessingException e) {
+			return skipCache(e).thenReturn(false);
+		}
+	}
+
+	private <T> Mono<T> skipCache(Throwable error) {
+		log.debug("Customer cache unavailable, falling back to Mongo: {}", error.getMessage());
+		return Mono.empty();
+	}
+
+	private String pageKey(String generation, CustomerStatus status, Pageable pageable, String fields) {
+		return key("list:" + generation + ":" + status + ":" + pageable.getPageNumber() + ":" + pageable.getPageSize()
+				+ ":" + pageable.getSort().toString().replace(' ', '_') + ":" + fields);
+	}
+
+	private String documentKey(UUID customerId, long version) {
+		return key("customer:" + customerId + ":v" + version);
+	}
+
+	private String key(String suffix) {
+		return KEY_PREFIX + collections.active() + ":" + suffix;
+	}
+
+	public record CachedPage(List<CustomerSummaryView> items, long total) {
+	}
+}
@@ -0,0 +1,64 @@
+package pl.ecommerce.customer.read.infrastructure.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import pl.ecommerce.commons.event.AbstractDomainEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Component
+@Slf4j
+public class CustomerEventStoreClient {
+
+	private final WebClient webClient;
+	private final Duration timeout;
+
+	public CustomerEventStoreClient(WebClient.Builder webClientBuilder,
+									@Value("${customer-write.base-url:http://localhost:8080}") String baseUrl,
+									@Value("${customer-write.timeout-ms:5000}") long timeoutMs) {
+		this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+		this.timeout = Duration.ofMillis(timeoutMs);
+	}
+
+	public Flux<AbstractDomainEvent> fetchEvents(UUID customerId, long afterVersion) {
+		log.debug("Fetching events for customer {} after version {}", customerId, afterVersion);
+		return webClient.get()
+				.uri(uriBuilder -> uriBuilder
+						.path("/internal/v1/customers/{id}/events")
+						.queryParam("afterVersion", afterVersion)
+						.build(customerId))
+				.retrieve()
+				.bodyToFlux(AbstractDomainEvent.class)
+				.timeout(timeout);
+	}
+
+	/**
+	 * Streams every event of one aggregate id range, ordered by aggregate and version.
+	 */
+	public Flux<AbstractDomainEvent> exportEvents(int partition, int partitions) {
+		log.debug("Exporting events for partition {}/{}", partition, partitions);
+		return webClient.get()
+				.uri(uriBuilder -> uriBuilder
+						.path("/internal/v1/customers/events/export")
+						.queryParam("partition", partition)
+						.queryParam("partitions", partitions)
+						.build())
+				.accept(MediaType.APPLICATION_NDJSON)
+				.retrieve()
+				.bodyToFlux(AbstractDomainEvent.class);
+	}
+
+	public Mono<Long> countEvents() {
+		return webClient.get()
+				.uri("/internal/v1/customers/events/count")
+				.retrieve()
+				.bodyToMono(Long.class)
+				.timeout(timeout);
+	}
+}
@@ -4,15 +4,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
 import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
-import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
-import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
-import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.data.mongodb.core.mapping.event.ValidatingMongoEventListener;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
-import java.util.Arrays;
-import java.util.UUID;
-
 @Configuration
 public class MongoConfig {
 
@@ -25,19 +19,4 @@ public class MongoConfig {
 	public ReactiveMongoTransactionManager transactionManager(ReactiveMongoDatabaseFactory factory) {
 		return new ReactiveMongoTransactionManager(factory);
 	}
-
-	@Bean
-	public MongoCustomConversions mongoCustomConversions() {
-		return new MongoCustomConversions(
-				Arrays.asList(
-						new UuidToStringConverter())
-		);
-	}
-
-	private static class UuidToStringConverter implements org.springframework.core.convert.converter.Converter<UUID, String> {
-		@Override
-		public String convert(UUID source) {
-			return source.toString();
-		}
-	}
 }
\ No newline at end of file
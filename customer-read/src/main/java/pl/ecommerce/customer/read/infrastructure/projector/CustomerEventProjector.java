@@ -2,221 +2,318 @@ package pl.ecommerce.customer.read.infrastructure.projector;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.core.env.Environment;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import org.springframework.stereotype.Component;
-import pl.ecommerce.commons.model.customer.Address;
+import pl.ecommerce.commons.event.AbstractDomainEvent;
 import pl.ecommerce.commons.model.customer.CustomerStatus;
 import pl.ecommerce.commons.event.customer.*;
 import pl.ecommerce.commons.kafka.DomainEventHandler;
 import pl.ecommerce.commons.kafka.EventHandler;
 import pl.ecommerce.commons.kafka.TopicsProvider;
 import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
-import pl.ecommerce.customer.read.infrastructure.repository.CustomerReadRepository;
-
-import java.time.Instant;
-
+import pl.ecommerce.customer.read.infrastructure.cache.CustomerReadCache;
+import pl.ecommerce.customer.read.infrastructure.cache.RedisCustomerCache;
+import pl.ecommerce.customer.read.infrastructure.client.CustomerEventStoreClient;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import pl.ecommerce.customer.read.infrastructure.stats.CustomerStatsCounters;
+import pl.ecommerce.customer.read.infrastructure.stats.CustomerStatsKey;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static java.util.Objects.isNull;
 import static pl.ecommerce.customer.read.infrastructure.projector.CustomerEventProjectorHelper.*;
 
 @Component
 @Slf4j
 public class CustomerEventProjector extends DomainEventHandler {
 
-	private final ReactiveMongoTemplate mongoTemplate;
-	private final CustomerReadRepository customerRepository;
+	private static final String REPLAYING = "projection.replaying";
 
-	public CustomerEventProjector(ReactiveMongoTemplate mongoTemplate, CustomerReadRepository customerRepository,
+	private final ReactiveMongoTemplate mongoTemplate;
+	private final CustomerEventStoreClient eventStoreClient;
+	private final ProjectionMetrics projectionMetrics;
+	private final ProjectionWriteBuffer writeBuffer;
+	private final ReadModelCollections collections;
+	private final CustomerStatsCounters statsCounters;
+	private final CustomerReadCache readCache;
+	private final RedisCustomerCache redisCache;
+	private final ProjectedVersions projectedVersions;
+
+	public CustomerEventProjector(ReactiveMongoTemplate mongoTemplate, CustomerEventStoreClient eventStoreClient,
+								  ProjectionMetrics projectionMetrics, ProjectionWriteBuffer writeBuffer,
+								  ReadModelCollections collections, CustomerStatsCounters statsCounters,
+								  CustomerReadCache readCache, RedisCustomerCache redisCache, ProjectedVersions projectedVersions,
 								  ObjectMapper objectMapper, TopicsProvider topicsProvider, Environment environment) {
 		super(objectMapper, topicsProvider,environment.getProperty("spring.application.name"));
 		this.mongoTemplate = mongoTemplate;
-		this.customerRepository = customerRepository;
+		this.eventStoreClient = eventStoreClient;
+		this.projectionMetrics = projectionMetrics;
+		this.writeBuffer = writeBuffer;
+		this.collections = collections;
+		this.statsCounters = statsCounters;
+		this.readCache = readCache;
+		this.redisCache = redisCache;
+		this.projectedVersions = projectedVersions;
 	}
 
 	@EventHandler
-	public void on(CustomerRegisteredEvent event) {
+	public Mono<Void> on(CustomerRegisteredEvent event) {
 		log.info("Projecting CustomerRegisteredEvent for customer: {}",
 				event.getAggregateId());
 
 		CustomerReadModel customer = buildCustomerReadModel(event);
-		customerRepository.save(customer)
-				.doOnSuccess(saved -> log.debug("Customer read model saved successfully: {}",
-						saved.getId()))
+		return writeBuffer.insert(customer)
+				.flatMap(inserted -> {
+					if (inserted) {
+						log.debug("Customer read model saved successfully: {}", customer.getId());
+						return invalidateCaches(customer.getId(), customer.getVersion())
+								.then(countStats(statsCounters.increment(CustomerStatsKey.of(customer))));
+					}
+					log.debug("Customer read model {} already exists, skipping registration", event.getAggregateId());
+					projectionMetrics.recordDuplicate(event.getEventType());
+					return Mono.<Void>empty();
+				})
 				.doOnError(error -> log.error("Error saving customer read model: {}",
 						error.getMessage(), error))
-				.subscribe();
+				.then();
 	}
 
 	@EventHandler
-	public void on(CustomerUpdatedEvent event) {
+	public Mono<Void> on(CustomerUpdatedEvent event) {
 		log.info("Projecting CustomerUpdatedEvent for customer: {}",
 				event.getAggregateId());
 
-		Query query = Query.query(Criteria.where("_id").is(event.getAggregateId()));
-		Update update = buildUpdateForEvent(event);
-
-		mongoTemplate.updateFirst(query, update, CustomerReadModel.class)
-				.doOnSuccess(result -> log.debug("Updated customer read model: {}, modified: {}",
-						event.getAggregateId(), result.getModifiedCount()))
+		return applyVersioned(event, buildUpdateForEvent(event))
+				.doOnSuccess(result -> log.debug("Updated customer read model: {}",
+						event.getAggregateId()))
 				.doOnError(error -> log.error("Error updating customer read model: {}",
-						error.getMessage(), error))
-				.subscribe();
+						error.getMessage(), error));
 	}
 
 	@EventHandler
-	public void on(CustomerEmailChangedEvent event) {
+	public Mono<Void> on(CustomerEmailChangedEvent event) {
 		log.info("Projecting CustomerEmailChangedEvent for customer: {}",
 				event.getAggregateId());
 
-		Query query = Query.query(Criteria.where("_id").is(event.getAggregateId()));
-		Update update = buildEmailChangeUpdate(event);
-
-		mongoTemplate.updateFirst(query, update, CustomerReadModel.class)
+		return applyVersioned(event, buildEmailChangeUpdate(event))
 				.doOnSuccess(result -> log.debug("Updated customer email in read model: {}",
 						event.getAggregateId()))
 				.doOnError(error -> log.error("Error updating customer email in read model: {}",
-						error.getMessage(), error))
-				.subscribe();
+						error.getMessage(), error));
 	}
 
 	@EventHandler
-	public void on(CustomerEmailVerifiedEvent event) {
+	public Mono<Void> on(CustomerEmailVerifiedEvent event) {
 		log.info("Projecting CustomerEmailVerifiedEvent for customer: {}",
 				event.getAggregateId());
 
-		Query query = Query.query(Criteria.where("_id").is(event.getAggregateId()));
-		Update update = buildEmailVerifiedUpdate(event);
-
-		mongoTemplate.updateFirst(query, update, CustomerReadModel.class)
+		return applyVersioned(event, buildEmailVerifiedUpdate(event))
 				.doOnSuccess(result -> log.debug("Updated customer email verification in read model: {}",
 						event.getAggregateId()))
 				.doOnError(error -> log.error("Error updating customer email verification in read model: {}",
-						error.getMessage(), error))
-				.subscribe();
+						error.getMessage(), error));
+	}
+
+	@EventHandler
+	public Mono<Void> on(CustomerPhoneVerifiedEvent event) {
+		log.info("Projecting CustomerPhoneVerifiedEvent for customer: {}",
+				event.getAggregateId());
+
+		return applyVersioned(event, buildPhoneVerifiedUpdate(event))
+				.doOnSuccess(result -> log.debug("Updated customer phone verification in read model: {}",
+						event.getAggregateId()))
+				.doOnError(error -> log.error("Error updating customer phone verification in read model: {}",
+						error.getMessage(), error));
 	}
 
 	@EventHandler
-	public void on(CustomerAddressAddedEvent event) {
+	public Mono<Void> on(CustomerAddressAddedEvent event) {
 		log.info("Projecting CustomerAddressAddedEvent for customer: {}",
 				event.getAggregateId());
 
-		Address newAddress = buildAddress(event);
+		Object newAddress = mongoTemplate.getConverter().convertToMongoType(buildAddress(event));
 
-		customerRepository.findById(event.getAggregateId())
-				.flatMap(customer -> updateCustomerWithNewAddress(customer, newAddress, event))
-				.flatMap(customerRepository::save)
+		return applyVersioned(event, buildAddressAddedUpdate(event, newAddress))
 				.doOnSuccess(updated -> log.debug("Updated customer with new address in read model: {}",
 						event.getAggregateId()))
 				.doOnError(error -> log.error("Error updating customer with new address in read model: {}",
-						error.getMessage(), error))
-				.subscribe();
+						error.getMessage(), error));
 	}
 
 	@EventHandler
-	public void on(CustomerAddressUpdatedEvent event) {
+	public Mono<Void> on(CustomerAddressUpdatedEvent event) {
 		log.info("Projecting CustomerAddressUpdatedEvent for customer: {}",
 				event.getAggregateId());
 
-		customerRepository.findById(event.getAggregateId())
-				.flatMap(customer -> updateCustomerAddress(customer, event))
-				.flatMap(customerRepository::save)
+		return applyVersioned(event, buildAddressUpdatedUpdate(event))
 				.doOnSuccess(updated -> log.debug("Updated address in customer read model: {}",
 						event.getAggregateId()))
 				.doOnError(error -> log.error("Error updating address in customer read model: {}",
-						error.getMessage(), error))
-				.subscribe();
+						error.getMessage(), error));
 	}
 
 	@EventHandler
-	public void on(CustomerAddressRemovedEvent event) {
+	public Mono<Void> on(CustomerAddressRemovedEvent event) {
 		log.info("Projecting CustomerAddressRemovedEvent for customer: {}",
 				event.getAggregateId());
 
-		customerRepository.findById(event.getAggregateId())
-				.flatMap(customer -> removeAddressAndUpdateCustomer(customer, event))
-				.flatMap(customerRepository::save)
+		return applyVersioned(event, buildAddressRemovedUpdate(event))
 				.doOnSuccess(updated -> log.debug("Removed address from customer read model: {}",
 						event.getAggregateId()))
 				.doOnError(error -> log.error("Error removing address from customer read model: {}",
-						error.getMessage(), error))
-				.subscribe();
+						error.getMessage(), error));
 	}
 
 	@EventHandler
-	public void on(CustomerPreferencesUpdatedEvent event) {
+	public Mono<Void> on(CustomerPreferencesUpdatedEvent event) {
 		log.info("Projecting CustomerPreferencesUpdatedEvent for customer: {}",
 				event.getAggregateId());
 
-		customerRepository.findById(event.getAggregateId())
-				.flatMap(customer -> {
-					updatePreferences(customer, event.getPreferences());
-					updateTracingInfo(customer, event, "UpdatePreferences");
-					return customerRepository.save(customer);
-				})
+		return applyVersioned(event, buildPreferencesUpdate(event))
 				.doOnSuccess(updated -> log.debug("Updated preferences in customer read model: {}",
 						event.getAggregateId()))
 				.doOnError(error -> log.error("Error updating preferences in customer read model: {}",
-						error.getMessage(), error))
-				.subscribe();
+						error.getMessage(), error));
 	}
 
 	@EventHandler
-	public void on(CustomerDeactivatedEvent event) {
+	public Mono<Void> on(CustomerDeactivatedEvent event) {
 		log.info("Projecting CustomerDeactivatedEvent for customer: {}",
 				event.getAggregateId());
 
-		Query query = Query.query(Criteria.where("_id").is(event.getAggregateId()));
-		Update update = buildDeactivationUpdate(event);
-
-		mongoTemplate.updateFirst(query, update, CustomerReadModel.class)
+		return applyVersioned(event, buildDeactivationUpdate(event))
 				.doOnSuccess(result -> log.debug("Deactivated customer in read model: {}",
 						event.getAggregateId()))
 				.doOnError(error -> log.error("Error deactivating customer in read model: {}",
-						error.getMessage(), error))
-				.subscribe();
+						error.getMessage(), error));
 	}
 
 	@EventHandler
-	public void on(CustomerReactivatedEvent event) {
-		
+	public Mono<Void> on(CustomerReactivatedEvent event) {
+
 		log.info("Projecting CustomerReactivatedEvent for customer: {}",
 				event.getAggregateId());
 
-		Query query = Query.query(Criteria.where("_id").is(event.getAggregateId()));
 		Update update = new Update()
 				.set("status", CustomerStatus.ACTIVE)
-				.set("updatedAt", event.getTimestamp())
-				.set("lastOperation", "ReactivateCustomer")
-				.set("lastUpdatedAt", Instant.now());
+				.set("updatedAt", event.getTimestamp());
 
-		mongoTemplate.updateFirst(query, update, CustomerReadModel.class)
+		return applyVersioned(event, update)
 				.doOnSuccess(result -> log.debug("Reactivated customer in read model: {}",
 						event.getAggregateId()))
 				.doOnError(error -> log.error("Error reactivating customer in read model: {}",
-						error.getMessage(), error))
-				.subscribe();
+						error.getMessage(), error));
 	}
 
 	@EventHandler
-	public void on(CustomerDeletedEvent event) {
-		
+	public Mono<Void> on(CustomerDeletedEvent event) {
+
 		log.info("Projecting CustomerDeletedEvent for customer: {}",
 				event.getAggregateId());
 
-		Query query = Query.query(Criteria.where("_id").is(event.getAggregateId()));
 		Update update = new Update()
 				.set("status", CustomerStatus.DELETED)
-				.set("updatedAt", event.getTimestamp())
-				.set("lastOperation", "DeleteCustomer")
-				.set("lastUpdatedAt", Instant.now());
+				.set("updatedAt", event.getTimestamp());
 
-		mongoTemplate.updateFirst(query, update, CustomerReadModel.class)
+		return applyVersioned(event, update)
 				.doOnSuccess(result -> log.debug("Marked customer as deleted in read model: {}",
 						event.getAggregateId()))
 				.doOnError(error -> log.error("Error marking customer as deleted in read model: {}",
-						error.getMessage(), error))
-				.subscribe();
+						error.getMessage(), error));
+	}
+
+	@Override
+	protected void onEventApplied(AbstractDomainEvent event, ConsumerRecord<String, Object> record) {
+		projectionMetrics.recordApplied(event, record);
+	}
+
+	private Mono<Void> applyVersioned(CustomerEvent event, UpdateDefinition update) {
+		UpdateDefinition versioned = withVersion(update, event.getVersion() + 1L);
+		if (CustomerStatsKey.affects(event)) {
+			return writeBuffer.updateReturningPrevious(event.getAggregateId(), event.getVersion(), versioned)
+					.flatMap(previous -> {
+						CustomerStatsKey from = CustomerStatsKey.of(previous);
+						return invalidateCaches(event.getAggregateId(), event.getVersion() + 1L)
+								.then(countStats(statsCounters.move(from, from.apply(event))))
+								.thenReturn(true);
+					})
+					.defaultIfEmpty(false)
+					.flatMap(applied -> applied
+							? Mono.<Void>empty()
+							: resolveVersionMismatch(event));
+		}
+		return writeBuffer.update(event.getAggregateId(), event.getVersion(), versioned)
+				.flatMap(applied -> applied
+						? invalidateCaches(event.getAggregateId(), event.getVersion() + 1L)
+						: resolveVersionMismatch(event));
+	}
+
+	/**
+	 * Drops the local entry and publishes the new version to the shared cache and the other replicas, then
+	 * releases reads waiting for this version.
+	 */
+	private Mono<Void> invalidateCaches(UUID customerId, long version) {
+		readCache.invalidate(customerId);
+		return redisCache.invalidate(customerId, version)
+				.then(Mono.fromRunnable(() -> projectedVersions.projected(customerId, version)));
+	}
+
+	/**
+	 * Counter updates never fail a projection; the periodic reconciliation repairs missed increments.
+	 */
+	private Mono<Void> countStats(Mono<Void> update) {
+		return update.onErrorResume(error -> {
+			log.warn("Failed to update customer statistics: {}", error.getMessage());
+			return Mono.empty();
+		});
+	}
+
+	private Mono<Void> resolveVersionMismatch(CustomerEvent event) {
+		Query query = Query.query(Criteria.where("_id").is(event.getAggregateId()));
+		query.fields().include("version");
+
+		return collections.resolveActive()
+				.flatMap(collection -> mongoTemplate.findOne(query, CustomerReadModel.class, collection))
+				.map(customer -> isNull(customer.getVersion()) ? 0L : customer.getVersion())
+				.defaultIfEmpty(0L)
+				.flatMap(currentVersion -> {
+					if (currentVersion > event.getVersion()) {
+						log.debug("Skipping {} v{} for customer {}, read model already at v{}",
+								event.getEventType(), event.getVersion(), event.getAggregateId(), currentVersion);
+						projectionMetrics.recordDuplicate(event.getEventType());
+						return Mono.empty();
+					}
+					log.warn("Version gap for customer {}: read model at v{}, received {} v{}",
+							event.getAggregateId(), currentVersion, event.getEventType(), event.getVersion());
+					projectionMetrics.recordGap(event.getEventType());
+					return replayMissing(event.getAggregateId(), currentVersion);
+				});
+	}
+
+	private Mono<Void> replayMissing(UUID customerId, long currentVersion) {
+		return Mono.deferContextual(context -> {
+			if (context.hasKey(REPLAYING)) {
+				log.warn("Version gap for customer {} persists after re-fetching its events", customerId);
+				return Mono.empty();
+			}
+			return eventStoreClient.fetchEvents(customerId, currentVersion)
+					.concatMap(missing -> processEvent(missing, Map.of()))
+					.count()
+					.doOnNext(replayed -> {
+						log.info("Replayed {} events for customer {} from v{}", replayed, customerId, currentVersion);
+						projectionMetrics.recordReplayed(replayed);
+					})
+					.then()
+					.contextWrite(Context.of(REPLAYING, true));
+		});
 	}
-}
\ No newline at end of file
+}
@@ -1,24 +1,31 @@
 package pl.ecommerce.customer.read.infrastructure.projector;
 
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import pl.ecommerce.commons.model.customer.Address;
 import pl.ecommerce.commons.model.customer.AddressType;
 import pl.ecommerce.commons.model.customer.CustomerPreferences;
 import pl.ecommerce.commons.model.customer.CustomerStatus;
 import pl.ecommerce.commons.event.customer.*;
 import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
-import pl.ecommerce.customer.read.domain.model.PersonalData;
-import reactor.core.publisher.Mono;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 
 import static java.util.Objects.isNull;
-import static java.util.Objects.nonNull;
 
 public interface CustomerEventProjectorHelper {
 
+	String ADDRESS_TARGET = CustomerReadModel.ADDRESSES + ".$[target].";
+
 	static CustomerReadModel buildCustomerReadModel(CustomerRegisteredEvent event) {
 		var aggregateId = event.getAggregateId();
 		return CustomerReadModel.builder()
@@ -26,6 +33,8 @@ public interface CustomerEventProjectorHelper {
 				.email(event.getEmail())
 				.firstName(event.getFirstName())
 				.lastName(event.getLastName())
+				.firstNameLower(searchKey(event.getFirstName()))
+				.lastNameLower(searchKey(event.getLastName()))
 				.phoneNumber(event.getPhoneNumber())
 				.emailVerified(false)
 				.phoneVerified(false)
@@ -34,19 +43,8 @@ public interface CustomerEventProjectorHelper {
 				.updatedAt(event.getTimestamp())
 				.addresses(new ArrayList<>())
 				.metadata(new HashMap<>())
-				.lastOperation("RegisterCustomer")
-				.lastUpdatedAt(Instant.now())
-				.personalData(buildPersonalData(event))
 				.preferences(buildDefaultPreferences())
-				.build();
-	}
-
-	static PersonalData buildPersonalData(CustomerRegisteredEvent event) {
-		return PersonalData.builder()
-				.email(event.getEmail())
-				.firstName(event.getFirstName())
-				.lastName(event.getLastName())
-				.phoneNumber(event.getPhoneNumber())
+				.version(event.getVersion() + 1L)
 				.build();
 	}
 
@@ -60,10 +58,7 @@ public interface CustomerEventProjectorHelper {
 	}
 
 	static Update buildUpdateForEvent(CustomerUpdatedEvent event) {
-		Update update = new Update()
-				.set("updatedAt", event.getTimestamp())
-				.set("lastOperation", "UpdateCustomer")
-				.set("lastUpdatedAt", Instant.now());
+		Update update = new Update().set("updatedAt", event.getTimestamp());
 		event.getChanges().forEach((key, value) -> applyChange(update, key, value));
 		return update;
 	}
@@ -71,34 +66,41 @@ public interface CustomerEventProjectorHelper {
 	static void applyChange(Update update, String key, Object value) {
 		if ("firstName".equals(key)) {
 			update.set("firstName", value);
-			update.set("personalData.firstName", value);
+			update.set("firstNameLower", searchKey((String) value));
 		} else if ("lastName".equals(key)) {
 			update.set("lastName", value);
-			update.set("personalData.lastName", value);
+			update.set("lastNameLower", searchKey((String) value));
 		} else if ("phoneNumber".equals(key)) {
 			update.set("phoneNumber", value);
-			update.set("personalData.phoneNumber", value);
 		} else if ("phoneVerified".equals(key)) {
 			update.set("phoneVerified", value);
 		}
 	}
 
+	/**
+	 * Lowercased copy of a name, stored next to it so prefix searches can use an index.
+	 */
+	static String searchKey(String name) {
+		return isNull(name) ? null : name.toLowerCase(Locale.ROOT);
+	}
+
 	static Update buildEmailChangeUpdate(CustomerEmailChangedEvent event) {
 		return new Update()
 				.set("email", event.getNewEmail())
-				.set("personalData.email", event.getNewEmail())
 				.set("emailVerified", false)
-				.set("updatedAt", event.getTimestamp())
-				.set("lastOperation", "ChangeEmail")
-				.set("lastUpdatedAt", Instant.now());
+				.set("updatedAt", event.getTimestamp());
 	}
 
 	static Update buildEmailVerifiedUpdate(CustomerEmailVerifiedEvent event) {
 		return new Update()
 				.set("emailVerified", true)
-				.set("updatedAt", event.getTimestamp())
-				.set("lastOperation", "VerifyEmail")
-				.set("lastUpdatedAt", Instant.now());
+				.set("updatedAt", event.getTimestamp());
+	}
+
+	static Update buildPhoneVerifiedUpdate(CustomerPhoneVerifiedEvent event) {
+		return new Update()
+				.set("phoneVerified", true)
+				.set("updatedAt", event.getTimestamp());
 	}
 
 	static Address buildAddress(CustomerAddressAddedEvent event) {
@@ -116,112 +118,132 @@ public interface CustomerEventProjectorHelper {
 				.build();
 	}
 
-	static Mono<CustomerReadModel> updateCustomerWithNewAddress(CustomerReadModel customer, Address newAddress,
-																CustomerAddressAddedEvent event) {
-		if (event.isDefault() && nonNull(customer.getAddresses())) {
-			customer.getAddresses().forEach(existingAddress -> {
-				if (existingAddress.getAddressType().equals(newAddress.getAddressType())) {
-					existingAddress.setDefault(false);
-				}
-			});
-		}
-		if (isNull(customer.getAddresses())) {
-			customer.setAddresses(new ArrayList<>());
+	static UpdateDefinition buildAddressAddedUpdate(CustomerAddressAddedEvent event, Object addressDocument) {
+		if (!event.isDefault()) {
+			return new Update()
+					.push("addresses", addressDocument)
+					.set("updatedAt", event.getTimestamp());
 		}
-		customer.getAddresses().add(newAddress);
-		updateTracingInfo(customer, event, "AddAddress");
-		return Mono.just(customer);
-	}
-
-	static Mono<CustomerReadModel> updateCustomerAddress(CustomerReadModel customer, CustomerAddressUpdatedEvent event) {
-		if (nonNull(customer.getAddresses())) {
-			for (Address address : customer.getAddresses()) {
-				if (address.getId().equals(event.getAddressId())) {
-					updateAddressFields(address, event);
-					if (event.isDefault()) {
-						setDefaultForAddress(customer, address);
-					}
-					break;
-				}
-			}
+		Document demoted = map(existingAddresses(),
+				cond(eq("$$a.addressType", event.getAddressType().name()), withDefault("$$a", false), "$$a"));
+		AggregationExpression addresses = context -> new Document("$concatArrays",
+				List.of(demoted, List.of(new Document("$literal", addressDocument))));
+
+		return pipelineUpdate(addresses, event.getTimestamp());
+	}
+
+	static UpdateDefinition buildAddressUpdatedUpdate(CustomerAddressUpdatedEvent event) {
+		if (!event.isDefault()) {
+			return new Update()
+					.set(ADDRESS_TARGET + "street", event.getStreet())
+					.set(ADDRESS_TARGET + "buildingNumber", event.getBuildingNumber())
+					.set(ADDRESS_TARGET + "apartmentNumber", event.getApartmentNumber())
+					.set(ADDRESS_TARGET + "city", event.getCity())
+					.set(ADDRESS_TARGET + "postalCode", event.getPostalCode())
+					.set(ADDRESS_TARGET + "country", event.getCountry())
+					.set(ADDRESS_TARGET + "voivodeship", event.getVoivodeship())
+					.set("updatedAt", event.getTimestamp())
+					.filterArray(Criteria.where("target._id").is(event.getAddressId()));
 		}
-		updateTracingInfo(customer, event, "UpdateAddress");
-		return Mono.just(customer);
-	}
-
-	static void updateAddressFields(Address address, CustomerAddressUpdatedEvent event) {
-		address.setStreet(event.getStreet());
-		address.setBuildingNumber(event.getBuildingNumber());
-		address.setApartmentNumber(event.getApartmentNumber());
-		address.setCity(event.getCity());
-		address.setPostalCode(event.getPostalCode());
-		address.setCountry(event.getCountry());
-		address.setVoivodeship(event.getVoivodeship());
-	}
-
-	static void setDefaultForAddress(CustomerReadModel customer, Address targetAddress) {
-		AddressType targetType = targetAddress.getAddressType();
-		customer.getAddresses().forEach(otherAddress -> {
-			if (!otherAddress.getId().equals(targetAddress.getId()) &&
-					otherAddress.getAddressType().equals(targetType)) {
-				otherAddress.setDefault(false);
-			}
-		});
-		targetAddress.setDefault(true);
-	}
-
-	static Mono<CustomerReadModel> removeAddressAndUpdateCustomer(CustomerReadModel customer, CustomerAddressRemovedEvent event) {
-		if (nonNull(customer.getAddresses())) {
-			Address addressToRemove = customer.getAddresses().stream()
-					.filter(address -> address.getId().equals(event.getAddressId()))
-					.findFirst()
-					.orElse(null);
-			if (nonNull(addressToRemove)) {
-				boolean wasDefault = addressToRemove.isDefault();
-				AddressType addressType = addressToRemove.getAddressType();
-				customer.getAddresses().remove(addressToRemove);
-				if (wasDefault && !customer.getAddresses().isEmpty()) {
-					customer.getAddresses().stream()
-							.filter(address -> address.getAddressType().equals(addressType))
-							.findFirst()
-							.ifPresent(address -> address.setDefault(true));
-				}
-			}
+		Document fields = new Document()
+				.append("street", event.getStreet())
+				.append("buildingNumber", event.getBuildingNumber())
+				.append("apartmentNumber", event.getApartmentNumber())
+				.append("city", event.getCity())
+				.append("postalCode", event.getPostalCode())
+				.append("country", event.getCountry())
+				.append("voivodeship", event.getVoivodeship())
+				.append("isDefault", true);
+		Document updated = map(existingAddresses(),
+				cond(eq("$$a._id", event.getAddressId()),
+						new Document("$mergeObjects", List.of("$$a", new Document("$literal", fields))),
+						cond(eq("$$a.addressType", "$$target.addressType"), withDefault("$$a", false), "$$a")));
+		AggregationExpression addresses = context -> new Document("$let", new Document()
+				.append("vars", new Document("target", firstAddress(existingAddresses(), eq("$$a._id", event.getAddressId()))))
+				.append("in", updated));
+
+		return pipelineUpdate(addresses, event.getTimestamp());
+	}
+
+	/**
+	 * Removes the address and, if it was the default one, promotes the first remaining address of the same type.
+	 */
+	static UpdateDefinition buildAddressRemovedUpdate(CustomerAddressRemovedEvent event) {
+		Document remaining = new Document("$filter", new Document()
+				.append("input", existingAddresses())
+				.append("as", "a")
+				.append("cond", new Document("$ne", List.of("$$a._id", event.getAddressId()))));
+		Document promote = new Document("$cond", List.of(
+				eq("$$removed.isDefault", true),
+				firstAddress("$$remaining", eq("$$a.addressType", "$$removed.addressType")),
+				new Document("$literal", null)));
+		Document promoted = map("$$remaining",
+				cond(eq("$$a._id", "$$promote._id"), withDefault("$$a", true), "$$a"));
+
+		AggregationExpression addresses = context -> new Document("$let", new Document()
+				.append("vars", new Document()
+						.append("removed", firstAddress(existingAddresses(), eq("$$a._id", event.getAddressId())))
+						.append("remaining", remaining))
+				.append("in", new Document("$let", new Document()
+						.append("vars", new Document("promote", promote))
+						.append("in", promoted))));
+
+		return pipelineUpdate(addresses, event.getTimestamp());
+	}
+
+	static Update buildPreferencesUpdate(CustomerPreferencesUpdatedEvent event) {
+		return new Update()
+				.set("preferences", event.getPreferences())
+				.set("updatedAt", event.getTimestamp());
+	}
+
+	static UpdateDefinition withVersion(UpdateDefinition update, long version) {
+		if (update instanceof AggregationUpdate pipeline) {
+			return pipeline.set(CustomerReadModel.VERSION).toValue(version);
 		}
-		updateCustomerTracingInfo(customer, event.getTimestamp(), "RemoveAddress");
-		return Mono.just(customer);
+		return ((Update) update).set("version", version);
 	}
 
-	static void updateCustomerTracingInfo(CustomerReadModel customer, Instant timestamp, String operation) {
-		customer.setUpdatedAt(timestamp);
-		customer.setLastOperation(operation);
-		customer.setLastUpdatedAt(Instant.now());
+	private static AggregationUpdate pipelineUpdate(AggregationExpression addresses, Instant timestamp) {
+		return AggregationUpdate.update()
+				.set(CustomerReadModel.ADDRESSES).toValue(addresses)
+				.set(CustomerReadModel.UPDATED_AT).toValue(timestamp);
 	}
 
-	static void updatePreferences(CustomerReadModel customer, CustomerPreferences newPreferences) {
-		CustomerPreferences preferences = customer.getPreferences();
-		if (preferences == null) {
-			preferences = CustomerPreferences.builder().build();
-			customer.setPreferences(preferences);
-		}
-		preferences.setMarketingConsent(newPreferences.isMarketingConsent());
-		preferences.setNewsletterSubscribed(newPreferences.isNewsletterSubscribed());
-		preferences.setPreferredLanguage(newPreferences.getPreferredLanguage());
-		preferences.setPreferredCurrency(newPreferences.getPreferredCurrency());
-		preferences.setFavoriteCategories(newPreferences.getFavoriteCategories());
+	private static Document existingAddresses() {
+		return new Document("$ifNull", List.of("$" + CustomerReadModel.ADDRESSES, List.of()));
+	}
+
+	private static Document firstAddress(Object input, Document condition) {
+		Document matching = new Document("$filter", new Document()
+				.append("input", input)
+				.append("as", "a")
+				.append("cond", condition));
+		return new Document("$ifNull", Arrays.asList(new Document("$arrayElemAt", List.of(matching, 0)), null));
+	}
+
+	private static Document map(Object input, Document in) {
+		return new Document("$map", new Document()
+				.append("input", input)
+				.append("as", "a")
+				.append("in", in));
+	}
+
+	private static Document cond(Document condition, Object then, Object otherwise) {
+		return new Document("$cond", List.of(condition, then, otherwise));
+	}
+
+	private static Document eq(String field, Object value) {
+		return new Document("$eq", Arrays.asList(field, value));
+	}
+
+	private static Document withDefault(String address, boolean isDefault) {
+		return new Document("$mergeObjects", List.of(address, new Document("isDefault", isDefault)));
 	}
 
 	static Update buildDeactivationUpdate(CustomerDeactivatedEvent event) {
 		return new Update()
 				.set("status", CustomerStatus.INACTIVE)
-				.set("updatedAt", event.getTimestamp())
-				.set("lastOperation", "DeactivateCustomer")
-				.set("lastUpdatedAt", Instant.now());
-	}
-
-	static void updateTracingInfo(CustomerReadModel customer, CustomerEvent event, String operation) {
-		customer.setUpdatedAt(event.getTimestamp());
-		customer.setLastOperation(operation);
-		customer.setLastUpdatedAt(Instant.now());
+				.set("updatedAt", event.getTimestamp());
 	}
 }
\ No newline at end of file
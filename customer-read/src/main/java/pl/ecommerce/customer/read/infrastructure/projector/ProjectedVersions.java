@@ -0,0 +1,118 @@
+package pl.ecommerce.customer.read.infrastructure.projector;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Lets reads wait for their own writes. Requests asking for a minimum read model version subscribe to the
+ * customer's projection signals and reload only when a projection for that customer completes, either on this
+ * instance or, through the Redis invalidation channel, on another replica. Signals are only kept for customers
+ * somebody is waiting on. Without the shared Redis cache ({@code read-cache.redis.enabled}) projections on other
+ * replicas are never signalled here, so a read landing on a replica that did not consume the event is only
+ * released by the timeout.
+ */
+@Slf4j
+@Component
+public class ProjectedVersions {
+
+	/**
+	 * Signalled when another replica projected the customer; the version itself is not known here.
+	 */
+	public static final long UNKNOWN = -1L;
+
+	private final Duration timeout;
+	private final int maxWaiters;
+	private final Map<UUID, Sinks.Many<Long>> signals = new ConcurrentHashMap<>();
+	private final Map<UUID, Integer> waiters = new ConcurrentHashMap<>();
+	private final AtomicInteger waiting = new AtomicInteger();
+
+	public ProjectedVersions(@Value("${read-your-writes.timeout-ms:2000}") long timeoutMs,
+							 @Value("${read-your-writes.max-waiters:10000}") int maxWaiters) {
+		this.timeout = Duration.ofMillis(timeoutMs);
+		this.maxWaiters = maxWaiters;
+	}
+
+	/**
+	 * Called once a projection for the customer is written and its cache entries are invalidated.
+	 */
+	public void projected(UUID customerId, long version) {
+		Sinks.Many<Long> sink = signals.get(customerId);
+		if (isNull(sink)) {
+			return;
+		}
+		synchronized (sink) {
+			sink.tryEmitNext(version);
+		}
+	}
+
+	/**
+	 * Loads the customer, holding the request until the read model reaches {@code minVersion}. When the timeout
+	 * expires, or too many requests are already waiting, the current document is returned as is.
+	 */
+	public Mono<CustomerReadModel> await(UUID customerId, long minVersion, Supplier<Mono<CustomerReadModel>> loader) {
+		return Mono.defer(() -> {
+			if (waiting.incrementAndGet() > maxWaiters) {
+				waiting.decrementAndGet();
+				log.debug("Too many requests waiting for projections, serving customer {} as is", customerId);
+				return loader.get();
+			}
+			Sinks.Many<Long> sink = register(customerId);
+			Flux<CustomerReadModel> reloads = sink.asFlux()
+					.filter(version -> version == UNKNOWN || version >= minVersion)
+					.onBackpressureLatest()
+					.concatMap(version -> loader.get(), 1);
+
+			return Flux.concat(loader.get(), reloads)
+					.filter(customer -> reached(customer, minVersion))
+					.next()
+					.timeout(timeout, Mono.defer(() -> {
+						log.debug("Customer {} did not reach v{} within {}", customerId, minVersion, timeout);
+						return loader.get();
+					}))
+					.doFinally(signal -> {
+						unregister(customerId);
+						waiting.decrementAndGet();
+					});
+		});
+	}
+
+	private static boolean reached(CustomerReadModel customer, long minVersion) {
+		return nonNull(customer.getVersion()) && customer.getVersion() >= minVersion;
+	}
+
+	/**
+	 * Registers before the first load, so a projection finishing in between is replayed to the waiter.
+	 */
+	private Sinks.Many<Long> register(UUID customerId) {
+		waiters.compute(customerId, (id, count) -> {
+			signals.computeIfAbsent(id, k -> Sinks.many().replay().latest());
+			return isNull(count) ? 1 : count + 1;
+		});
+		return signals.get(customerId);
+	}
+
+	private void unregister(UUID customerId) {
+		waiters.computeIfPresent(customerId, (id, count) -> {
+			if (count > 1) {
+				return count - 1;
+			}
+			signals.remove(id);
+			return null;
+		});
+	}
+}
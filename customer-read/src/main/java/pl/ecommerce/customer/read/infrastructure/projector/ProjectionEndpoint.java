@@ -0,0 +1,81 @@
+package pl.ecommerce.customer.read.infrastructure.projector;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import pl.ecommerce.customer.read.infrastructure.rebuild.ShadowProjection;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.nonNull;
+
+@Component
+@Endpoint(id = "projection")
+@RequiredArgsConstructor
+public class ProjectionEndpoint {
+
+	private static final String LAG_METRIC = "kafka.consumer.fetch.manager.records.lag";
+
+	private final ProjectionMetrics projectionMetrics;
+	private final MeterRegistry meterRegistry;
+	private final ShadowProjection shadowProjection;
+
+	@ReadOperation
+	public Map<String, Object> staleness() {
+		Map<TopicPartition, Double> lagByPartition = currentLag();
+		Instant now = Instant.now();
+
+		List<Map<String, Object>> partitions = new ArrayList<>();
+		long maxStalenessMs = 0;
+		double totalLag = 0;
+		for (Map.Entry<TopicPartition, ProjectionMetrics.PartitionPosition> entry : projectionMetrics.positions().entrySet()) {
+			TopicPartition partition = entry.getKey();
+			ProjectionMetrics.PartitionPosition position = entry.getValue();
+			double lag = lagByPartition.getOrDefault(partition, 0.0);
+			long stalenessMs = lag > 0 ? Duration.between(position.eventTimestamp(), now).toMillis() : 0;
+			maxStalenessMs = Math.max(maxStalenessMs, stalenessMs);
+			totalLag += lag;
+
+			Map<String, Object> details = new LinkedHashMap<>();
+			details.put("topic", partition.topic());
+			details.put("partition", partition.partition());
+			details.put("lastAppliedOffset", position.offset());
+			details.put("lastEventTimestamp", position.eventTimestamp());
+			details.put("lastAppliedAt", position.appliedAt());
+			details.put("lag", lag);
+			details.put("stalenessMs", stalenessMs);
+			partitions.add(details);
+		}
+
+		Map<String, Object> response = new LinkedHashMap<>();
+		response.put("timestamp", now);
+		response.put("totalLag", totalLag);
+		response.put("maxStalenessMs", maxStalenessMs);
+		response.put("partitions", partitions);
+		response.put("rebuild", shadowProjection.status());
+		return response;
+	}
+
+	private Map<TopicPartition, Double> currentLag() {
+		Map<TopicPartition, Double> lag = new HashMap<>();
+		for (Gauge gauge : meterRegistry.find(LAG_METRIC).gauges()) {
+			String topic = gauge.getId().getTag("topic");
+			String partition = gauge.getId().getTag("partition");
+			double value = gauge.value();
+			if (nonNull(topic) && nonNull(partition) && !Double.isNaN(value)) {
+				lag.merge(new TopicPartition(topic, Integer.parseInt(partition)), value, Math::max);
+			}
+		}
+		return lag;
+	}
+}
@@ -0,0 +1,162 @@
+package pl.ecommerce.customer.read.infrastructure.projector;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.ecommerce.commons.event.AbstractDomainEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.util.Objects.nonNull;
+
+@Component
+public class ProjectionMetrics {
+
+	private final MeterRegistry registry;
+	private final String serviceName;
+	private final Counter replayedEvents;
+	private final Counter mergedWrites;
+	private final Timer flushTimer;
+	private final DistributionSummary flushSize;
+	private final Map<String, Counter> duplicateCounters = new ConcurrentHashMap<>();
+	private final Map<String, Counter> gapCounters = new ConcurrentHashMap<>();
+	private final Map<String, Timer> freshnessTimers = new ConcurrentHashMap<>();
+	private final Map<TopicPartition, PartitionPosition> positions = new ConcurrentHashMap<>();
+
+	public ProjectionMetrics(MeterRegistry registry,
+							 @Value("${spring.application.name:unknown}") String serviceName) {
+		this.registry = registry;
+		this.serviceName = serviceName;
+
+		replayedEvents = Counter.builder("projection_replayed_events_total")
+				.description("Events re-fetched from the write side to close version gaps")
+				.tag("service", serviceName)
+				.register(registry);
+		mergedWrites = Counter.builder("projection_merged_writes_total")
+				.description("Read model updates merged into a pending write of the same customer")
+				.tag("service", serviceName)
+				.register(registry);
+		flushTimer = Timer.builder("projection_bulk_flush_seconds")
+				.description("Duration of read model bulk writes")
+				.tag("service", serviceName)
+				.publishPercentileHistogram()
+				.register(registry);
+		flushSize = DistributionSummary.builder("projection_bulk_flush_writes")
+				.description("Number of writes per read model bulk write")
+				.tag("service", serviceName)
+				.register(registry);
+	}
+
+	public void bindWriteBuffer(Supplier<Number> batchSize, Supplier<Number> queued) {
+		Gauge.builder("projection_bulk_batch_size", batchSize)
+				.description("Current adaptive limit of writes per bulk write")
+				.tag("service", serviceName)
+				.register(registry);
+		Gauge.builder("projection_write_buffer_queued", queued)
+				.description("Read model writes waiting for the next bulk write")
+				.tag("service", serviceName)
+				.register(registry);
+	}
+
+	public void recordMergedWrite() {
+		mergedWrites.increment();
+	}
+
+	public void recordFlush(int writes, long nanos) {
+		flushTimer.record(nanos, TimeUnit.NANOSECONDS);
+		flushSize.record(writes);
+	}
+
+	public void recordDuplicate(String eventType) {
+		duplicateCounters.computeIfAbsent(eventType, type -> Counter.builder("projection_duplicate_events_total")
+						.description("Events skipped because the read model already reflects their version")
+						.tag("service", serviceName)
+						.tag("event_type", type)
+						.register(registry))
+				.increment();
+	}
+
+	public void recordGap(String eventType) {
+		gapCounters.computeIfAbsent(eventType, type -> Counter.builder("projection_version_gaps_total")
+						.description("Events that arrived ahead of the read model version")
+						.tag("service", serviceName)
+						.tag("event_type", type)
+						.register(registry))
+				.increment();
+	}
+
+	public void recordReplayed(long count) {
+		replayedEvents.increment(count);
+	}
+
+	public void recordApplied(AbstractDomainEvent event, ConsumerRecord<String, ?> record) {
+		long appliedAt = System.currentTimeMillis();
+		Instant eventTimestamp = nonNull(event.getTimestamp()) ? event.getTimestamp() : Instant.ofEpochMilli(record.timestamp());
+		long freshnessMs = Math.max(0, appliedAt - eventTimestamp.toEpochMilli());
+
+		freshnessTimers.computeIfAbsent(event.getEventType(), type -> Timer.builder("projection_freshness_seconds")
+						.description("Time from the event timestamp until its read model write was acknowledged")
+						.tag("service", serviceName)
+						.tag("event_type", type)
+						.publishPercentileHistogram()
+						.register(registry))
+				.record(Duration.ofMillis(freshnessMs));
+
+		PartitionPosition position = positions.computeIfAbsent(
+				new TopicPartition(record.topic(), record.partition()), this::registerPosition);
+		position.offset.accumulateAndGet(record.offset(), Math::max);
+		position.eventTimestamp.set(eventTimestamp.toEpochMilli());
+		position.appliedAt.set(appliedAt);
+	}
+
+	public Map<TopicPartition, PartitionPosition> positions() {
+		return Map.copyOf(positions);
+	}
+
+	private PartitionPosition registerPosition(TopicPartition partition) {
+		PartitionPosition position = new PartitionPosition();
+		Gauge.builder("projection_last_applied_offset", position.offset, AtomicLong::get)
+				.description("Offset of the last record applied to the read model")
+				.tag("service", serviceName)
+				.tag("topic", partition.topic())
+				.tag("partition", String.valueOf(partition.partition()))
+				.register(registry);
+		Gauge.builder("projection_last_applied_event_timestamp_seconds", position.eventTimestamp, ts -> ts.get() / 1000.0)
+				.description("Timestamp of the newest event applied to the read model")
+				.tag("service", serviceName)
+				.tag("topic", partition.topic())
+				.tag("partition", String.valueOf(partition.partition()))
+				.register(registry);
+		return position;
+	}
+
+	public static final class PartitionPosition {
+		private final AtomicLong offset = new AtomicLong(-1);
+		private final AtomicLong eventTimestamp = new AtomicLong();
+		private final AtomicLong appliedAt = new AtomicLong();
+
+		public long offset() {
+			return offset.get();
+		}
+
+		public Instant eventTimestamp() {
+			return Instant.ofEpochMilli(eventTimestamp.get());
+		}
+
+		public Instant appliedAt() {
+			return Instant.ofEpochMilli(appliedAt.get());
+		}
+	}
+}
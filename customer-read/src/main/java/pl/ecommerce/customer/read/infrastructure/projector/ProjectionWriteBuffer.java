@@ -0,0 +1,433 @@
+package pl.ecommerce.customer.read.infrastructure.projector;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.stereotype.Component;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Write-behind buffer for read model writes. Writes are queued per customer and flushed as
+ * unordered bulk writes holding at most one write per customer, so per-customer order is kept.
+ * Successive $set-only updates of one customer are merged into a single update.
+ */
+@Slf4j
+@Component
+public class ProjectionWriteBuffer {
+
+	private static final int DUPLICATE_KEY = 11000;
+	private static final String ID_INDEX = "_id_";
+
+	private final ReactiveMongoTemplate mongoTemplate;
+	private final ProjectionMetrics metrics;
+	private final ReadModelCollections collections;
+	private final Duration linger;
+	private final int minBatchSize;
+	private final int maxBatchSize;
+	private final long targetLatencyNanos;
+
+	private final Map<UUID, Deque<PendingWrite>> pending = new LinkedHashMap<>();
+	private int queued;
+	private int batchSize;
+	private boolean flushing;
+	private Disposable scheduledFlush;
+
+	public ProjectionWriteBuffer(ReactiveMongoTemplate mongoTemplate, ProjectionMetrics metrics,
+								 ReadModelCollections collections,
+								 @Value("${projection.write-buffer.linger-ms:0}") long lingerMs,
+								 @Value("${projection.write-buffer.initial-batch-size:256}") int initialBatchSize,
+								 @Value("${projection.write-buffer.min-batch-size:16}") int minBatchSize,
+								 @Value("${projection.write-buffer.max-batch-size:2048}") int maxBatchSize,
+								 @Value("${projection.write-buffer.target-latency-ms:50}") long targetLatencyMs) {
+		this.mongoTemplate = mongoTemplate;
+		this.metrics = metrics;
+		this.collections = collections;
+		this.linger = Duration.ofMillis(lingerMs);
+		this.minBatchSize = minBatchSize;
+		this.maxBatchSize = maxBatchSize;
+		this.batchSize = Math.max(minBatchSize, Math.min(initialBatchSize, maxBatchSize));
+		this.targetLatencyNanos = Duration.ofMillis(targetLatencyMs).toNanos();
+
+		metrics.bindWriteBuffer(this::currentBatchSize, this::queuedWrites);
+	}
+
+	/**
+	 * Emits true once the document is stored, false if it already existed.
+	 */
+	public Mono<Boolean> insert(CustomerReadModel customer) {
+		return Mono.defer(() -> enqueue(PendingWrite.insert(customer)));
+	}
+
+	/**
+	 * Emits true once the update is applied, false if the document was not at the expected version.
+	 */
+	public Mono<Boolean> update(UUID customerId, long expectedVersion, UpdateDefinition update) {
+		return Mono.defer(() -> enqueue(PendingWrite.update(customerId, expectedVersion, update, false)));
+	}
+
+	/**
+	 * Like {@link #update}, but emits the document as it was before the update, or nothing if the document
+	 * was not at the expected version. Runs as a findAndModify next to the bulk write of its round.
+	 */
+	public Mono<CustomerReadModel> updateReturningPrevious(UUID customerId, long expectedVersion, UpdateDefinition update) {
+		return Mono.defer(() -> {
+			PendingWrite write = PendingWrite.update(customerId, expectedVersion, update, true);
+			return enqueue(write)
+					.filter(Boolean::booleanValue)
+					.mapNotNull(applied -> write.previous);
+		});
+	}
+
+	public synchronized int queuedWrites() {
+		return queued;
+	}
+
+	public synchronized int currentBatchSize() {
+		return batchSize;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		Disposable timer;
+		synchronized (this) {
+			timer = scheduledFlush;
+			scheduledFlush = null;
+		}
+		if (nonNull(timer)) {
+			timer.dispose();
+		}
+		flush();
+	}
+
+	private Mono<Boolean> enqueue(PendingWrite write) {
+		Sinks.One<Boolean> result = Sinks.one();
+		write.results.add(result);
+
+		boolean flushNow = false;
+		synchronized (this) {
+			Deque<PendingWrite> writes = pending.computeIfAbsent(write.customerId, id -> new ArrayDeque<>());
+			PendingWrite last = writes.peekLast();
+			if (nonNull(last) && last.canMerge(write)) {
+				last.merge(write);
+				metrics.recordMergedWrite();
+			} else {
+				writes.addLast(write);
+				queued++;
+			}
+
+			if (!flushing) {
+				if (queued >= batchSize || linger.isZero()) {
+					flushNow = true;
+				} else if (isNull(scheduledFlush)) {
+					scheduledFlush = Mono.delay(linger).subscribe(tick -> flush());
+				}
+			}
+		}
+		if (flushNow) {
+			flush();
+		}
+		return result.asMono();
+	}
+
+	private void flush() {
+		List<PendingWrite> round;
+		synchronized (this) {
+			if (flushing) {
+				return;
+			}
+			if (nonNull(scheduledFlush)) {
+				scheduledFlush.dispose();
+				scheduledFlush = null;
+			}
+			round = takeRound();
+			if (round.isEmpty()) {
+				return;
+			}
+			flushing = true;
+		}
+
+		AtomicLong start = new AtomicLong(System.nanoTime());
+		collections.resolveActive()
+				.doOnNext(collection -> start.set(System.nanoTime()))
+				.flatMap(collection -> execute(round, collection))
+				.doFinally(signal -> {
+					long elapsed = System.nanoTime() - start.get();
+					metrics.recordFlush(round.size(), elapsed);
+					boolean more;
+					synchronized (this) {
+						adjustBatchSize(elapsed);
+						flushing = false;
+						more = queued > 0;
+					}
+					if (more) {
+						flush();
+					}
+				})
+				.subscribe(outcome -> complete(round, outcome),
+						error -> fail(round, error));
+	}
+
+	private List<PendingWrite> takeRound() {
+		List<PendingWrite> round = new ArrayList<>(Math.min(queued, batchSize));
+		Iterator<Map.Entry<UUID, Deque<PendingWrite>>> entries = pending.entrySet().iterator();
+		while (entries.hasNext() && round.size() < batchSize) {
+			Deque<PendingWrite> writes = entries.next().getValue();
+			round.add(writes.pollFirst());
+			queued--;
+			if (writes.isEmpty()) {
+				entries.remove();
+			}
+		}
+		return round;
+	}
+
+	private void adjustBatchSize(long elapsedNanos) {
+		if (elapsedNanos > targetLatencyNanos) {
+			batchSize = Math.max(minBatchSize, batchSize / 2);
+		} else if (batchSize < maxBatchSize) {
+			batchSize = Math.min(maxBatchSize, batchSize + minBatchSize);
+		}
+	}
+
+	private Mono<RoundOutcome> execute(List<PendingWrite> round, String collection) {
+		List<Integer> bulkIndexes = new ArrayList<>(round.size());
+		List<Integer> singleIndexes = new ArrayList<>();
+		for (int i = 0; i < round.size(); i++) {
+			(round.get(i).returnPrevious ? singleIndexes : bulkIndexes).add(i);
+		}
+		if (singleIndexes.isEmpty()) {
+			return executeBulk(round, collection);
+		}
+
+		RoundOutcome outcome = RoundOutcome.of(round.size());
+		List<PendingWrite> bulkWrites = bulkIndexes.stream().map(round::get).toList();
+		Mono<Void> bulk = bulkWrites.isEmpty() ? Mono.empty() : executeBulk(bulkWrites, collection)
+				.doOnNext(bulkOutcome -> {
+					for (int j = 0; j < bulkIndexes.size(); j++) {
+						outcome.applied()[bulkIndexes.get(j)] = bulkOutcome.applied()[j];
+						outcome.failures()[bulkIndexes.get(j)] = bulkOutcome.failures()[j];
+					}
+				})
+				.then();
+		Mono<Void> singles = Flux.fromIterable(singleIndexes)
+				.flatMap(i -> mongoTemplate.findAndModify(expectedVersionQuery(round.get(i)), round.get(i).update,
+								FindAndModifyOptions.options().returnNew(false), CustomerReadModel.class, collection)
+						.doOnNext(previous -> {
+							outcome.applied()[i] = true;
+							outcome.previous()[i] = previous;
+						})
+						.onErrorResume(error -> {
+							outcome.failures()[i] = error;
+							return Mono.empty();
+						}))
+				.then();
+
+		return Mono.when(bulk, singles).thenReturn(outcome);
+	}
+
+	private Mono<RoundOutcome> executeBulk(List<PendingWrite> round, String collection) {
+		ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, CustomerReadModel.class, collection);
+		int inserts = 0;
+		for (PendingWrite write : round) {
+			if (write.isInsert()) {
+				bulk.insert(write.document);
+				inserts++;
+			} else {
+				bulk.updateOne(expectedVersionQuery(write), write.update);
+			}
+		}
+		int expectedInserts = inserts;
+		int expectedUpdates = round.size() - inserts;
+
+		return bulk.execute()
+				.flatMap(result -> result.getInsertedCount() == expectedInserts && result.getMatchedCount() == expectedUpdates
+						? Mono.just(RoundOutcome.allApplied(round.size()))
+						: verify(round, collection, Map.of()))
+				.onErrorResume(ProjectionWriteBuffer::isWriteError, error -> verify(round, collection, writeErrors(error)));
+	}
+
+	/**
+	 * Determines which writes of a round took effect by reading back the stored versions. A duplicate _id on
+	 * insert means the customer is already projected; any other write error fails that write.
+	 */
+	private Mono<RoundOutcome> verify(List<PendingWrite> round, String collection, Map<Integer, BulkWriteError> errors) {
+		List<UUID> ids = round.stream().map(write -> write.customerId).toList();
+		Query query = Query.query(Criteria.where(CustomerReadModel.ID).in(ids));
+		query.fields().include(CustomerReadModel.VERSION);
+
+		return mongoTemplate.find(query, Document.class, collection)
+				.collectMap(document -> document.get(CustomerReadModel.ID, UUID.class),
+						document -> document.get(CustomerReadModel.VERSION) instanceof Number n ? n.longValue() : -1L)
+				.map(versions -> {
+					RoundOutcome outcome = RoundOutcome.of(round.size());
+					for (int i = 0; i < round.size(); i++) {
+						PendingWrite write = round.get(i);
+						BulkWriteError error = errors.get(i);
+						if (nonNull(error) && !isDuplicateId(error, write)) {
+							outcome.failures()[i] = new DataIntegrityViolationException(error.getMessage());
+							continue;
+						}
+						Long stored = versions.get(write.customerId);
+						outcome.applied()[i] = write.isInsert()
+								? isNull(error) && nonNull(stored)
+								: nonNull(stored) && stored == write.newVersion;
+					}
+					return outcome;
+				});
+	}
+
+	private void complete(List<PendingWrite> round, RoundOutcome outcome) {
+		for (int i = 0; i < round.size(); i++) {
+			Throwable failure = outcome.failures()[i];
+			round.get(i).previous = outcome.previous()[i];
+			for (Sinks.One<Boolean> result : round.get(i).results) {
+				if (nonNull(failure)) {
+					result.tryEmitError(failure);
+				} else {
+					result.tryEmitValue(outcome.applied()[i]);
+				}
+			}
+		}
+	}
+
+	private void fail(List<PendingWrite> round, Throwable error) {
+		log.error("Bulk write of {} read model updates failed: {}", round.size(), error.getMessage());
+		for (PendingWrite write : round) {
+			for (Sinks.One<Boolean> result : write.results) {
+				result.tryEmitError(error);
+			}
+		}
+	}
+
+	private static Query expectedVersionQuery(PendingWrite write) {
+		return Query.query(Criteria.where("_id").is(write.customerId)
+				.orOperator(
+						Criteria.where("version").is(write.expectedVersion),
+						Criteria.where("version").exists(false)));
+	}
+
+	private static boolean isWriteError(Throwable error) {
+		return error instanceof BulkOperationException || error instanceof DataIntegrityViolationException
+				|| error.getCause() instanceof MongoBulkWriteException;
+	}
+
+	private static Map<Integer, BulkWriteError> writeErrors(Throwable error) {
+		List<BulkWriteError> errors = List.of();
+		if (error instanceof BulkOperationException bulkError) {
+			errors = bulkError.getErrors();
+		} else if (error.getCause() instanceof MongoBulkWriteException bulkError) {
+			errors = bulkError.getWriteErrors();
+		}
+		Map<Integer, BulkWriteError> byIndex = new HashMap<>();
+		for (BulkWriteError writeError : errors) {
+			byIndex.put(writeError.getIndex(), writeError);
+		}
+		return byIndex;
+	}
+
+	private static boolean isDuplicateId(BulkWriteError error, PendingWrite write) {
+		return write.isInsert() && error.getCode() == DUPLICATE_KEY && error.getMessage().contains(ID_INDEX);
+	}
+
+	private record RoundOutcome(boolean[] applied, Throwable[] failures, CustomerReadModel[] previous) {
+
+		static RoundOutcome of(int size) {
+			return new RoundOutcome(new boolean[size], new Throwable[size], new CustomerReadModel[size]);
+		}
+
+		static RoundOutcome allApplied(int size) {
+			RoundOutcome outcome = of(size);
+			Arrays.fill(outcome.applied(), true);
+			return outcome;
+		}
+	}
+
+	private static final class PendingWrite {
+		private final UUID customerId;
+		private final CustomerReadModel document;
+		private final UpdateDefinition update;
+		private final long expectedVersion;
+		private final boolean returnPrevious;
+		private long newVersion;
+		private CustomerReadModel previous;
+		private final List<Sinks.One<Boolean>> results = new ArrayList<>(1);
+
+		private PendingWrite(UUID customerId, CustomerReadModel document, UpdateDefinition update,
+							 long expectedVersion, long newVersion, boolean returnPrevious) {
+			this.customerId = customerId;
+			this.document = document;
+			this.update = update;
+			this.expectedVersion = expectedVersion;
+			this.newVersion = newVersion;
+			this.returnPrevious = returnPrevious;
+		}
+
+		static PendingWrite insert(CustomerReadModel customer) {
+			long version = isNull(customer.getVersion()) ? 0L : customer.getVersion();
+			return new PendingWrite(customer.getId(), customer, null, -1, version, false);
+		}
+
+		static PendingWrite update(UUID customerId, long expectedVersion, UpdateDefinition update, boolean returnPrevious) {
+			return new PendingWrite(customerId, null, update, expectedVersion, expectedVersion + 1, returnPrevious);
+		}
+
+		boolean isInsert() {
+			return nonNull(document);
+		}
+
+		boolean canMerge(PendingWrite next) {
+			return !isInsert() && !next.isInsert() && !next.returnPrevious
+					&& next.expectedVersion == newVersion
+					&& isSetOnly(update) && isSetOnly(next.update);
+		}
+
+		void merge(PendingWrite next) {
+			Document sets = next.update.getUpdateObject().get("$set", Document.class);
+			sets.forEach(((Update) update)::set);
+			newVersion = next.newVersion;
+			results.addAll(next.results);
+		}
+
+		private static boolean isSetOnly(UpdateDefinition update) {
+			if (!(update instanceof Update plain) || plain.hasArrayFilters()) {
+				return false;
+			}
+			Document updateObject = plain.getUpdateObject();
+			return updateObject.size() == 1 && updateObject.containsKey("$set");
+		}
+	}
+}
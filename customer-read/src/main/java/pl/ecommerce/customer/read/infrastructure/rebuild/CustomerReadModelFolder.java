@@ -0,0 +1,174 @@
+package pl.ecommerce.customer.read.infrastructure.rebuild;
+
+import pl.ecommerce.commons.event.AbstractDomainEvent;
+import pl.ecommerce.commons.event.customer.*;
+import pl.ecommerce.commons.model.customer.Address;
+import pl.ecommerce.commons.model.customer.AddressType;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static pl.ecommerce.customer.read.infrastructure.projector.CustomerEventProjectorHelper.buildAddress;
+import static pl.ecommerce.customer.read.infrastructure.projector.CustomerEventProjectorHelper.buildCustomerReadModel;
+import static pl.ecommerce.customer.read.infrastructure.projector.CustomerEventProjectorHelper.searchKey;
+
+/**
+ * In-memory equivalent of the CustomerEventProjector updates, used to rebuild documents from the event store.
+ */
+public interface CustomerReadModelFolder {
+
+	/**
+	 * Folds the ordered events of one customer, returning null if the history has no registration.
+	 */
+	static CustomerReadModel fold(List<AbstractDomainEvent> events) {
+		return fold(null, events);
+	}
+
+	/**
+	 * Applies the ordered events on top of an existing document, which may be null.
+	 */
+	static CustomerReadModel fold(CustomerReadModel initial, List<AbstractDomainEvent> events) {
+		CustomerReadModel customer = initial;
+		for (AbstractDomainEvent event : events) {
+			if (event instanceof CustomerRegisteredEvent registered) {
+				customer = buildCustomerReadModel(registered);
+			} else if (nonNull(customer) && event instanceof CustomerEvent customerEvent) {
+				apply(customer, customerEvent);
+			}
+		}
+		return customer;
+	}
+
+	static void apply(CustomerReadModel customer, CustomerEvent event) {
+		boolean applied = switch (event) {
+			case CustomerUpdatedEvent e -> {
+				if (nonNull(e.getChanges())) {
+					e.getChanges().forEach((key, value) -> applyChange(customer, key, value));
+				}
+				yield true;
+			}
+			case CustomerEmailChangedEvent e -> {
+				customer.setEmail(e.getNewEmail());
+				customer.setEmailVerified(false);
+				yield true;
+			}
+			case CustomerEmailVerifiedEvent e -> {
+				customer.setEmailVerified(true);
+				yield true;
+			}
+			case CustomerPhoneVerifiedEvent e -> {
+				customer.setPhoneVerified(true);
+				yield true;
+			}
+			case CustomerAddressAddedEvent e -> {
+				Address address = buildAddress(e);
+				if (address.isDefault()) {
+					demoteDefaults(customer, address);
+				}
+				addresses(customer).add(address);
+				yield true;
+			}
+			case CustomerAddressUpdatedEvent e -> {
+				addresses(customer).stream()
+						.filter(address -> address.getId().equals(e.getAddressId()))
+						.findFirst()
+						.ifPresent(address -> updateAddress(customer, address, e));
+				yield true;
+			}
+			case CustomerAddressRemovedEvent e -> {
+				removeAddress(customer, e);
+				yield true;
+			}
+			case CustomerPreferencesUpdatedEvent e -> {
+				customer.setPreferences(e.getPreferences());
+				yield true;
+			}
+			case CustomerDeactivatedEvent e -> {
+				customer.setStatus(CustomerStatus.INACTIVE);
+				yield true;
+			}
+			case CustomerReactivatedEvent e -> {
+				customer.setStatus(CustomerStatus.ACTIVE);
+				yield true;
+			}
+			case CustomerDeletedEvent e -> {
+				customer.setStatus(CustomerStatus.DELETED);
+				yield true;
+			}
+			default -> false;
+		};
+		if (!applied) {
+			return;
+		}
+		customer.setUpdatedAt(event.getTimestamp());
+		customer.setVersion(event.getVersion() + 1L);
+	}
+
+	private static void applyChange(CustomerReadModel customer, String key, Object value) {
+		switch (key) {
+			case "firstName" -> {
+				customer.setFirstName((String) value);
+				customer.setFirstNameLower(searchKey((String) value));
+			}
+			case "lastName" -> {
+				customer.setLastName((String) value);
+				customer.setLastNameLower(searchKey((String) value));
+			}
+			case "phoneNumber" -> customer.setPhoneNumber((String) value);
+			case "phoneVerified" -> customer.setPhoneVerified(Boolean.TRUE.equals(value));
+			default -> {
+			}
+		}
+	}
+
+	private static void updateAddress(CustomerReadModel customer, Address address, CustomerAddressUpdatedEvent event) {
+		address.setStreet(event.getStreet());
+		address.setBuildingNumber(event.getBuildingNumber());
+		address.setApartmentNumber(event.getApartmentNumber());
+		address.setCity(event.getCity());
+		address.setPostalCode(event.getPostalCode());
+		address.setCountry(event.getCountry());
+		address.setVoivodeship(event.getVoivodeship());
+		if (event.isDefault()) {
+			demoteDefaults(customer, address);
+			address.setDefault(true);
+		}
+	}
+
+	private static void removeAddress(CustomerReadModel customer, CustomerAddressRemovedEvent event) {
+		List<Address> addresses = addresses(customer);
+		Address removed = addresses.stream()
+				.filter(address -> address.getId().equals(event.getAddressId()))
+				.findFirst()
+				.orElse(null);
+		if (isNull(removed)) {
+			return;
+		}
+		addresses.remove(removed);
+		if (removed.isDefault()) {
+			addresses.stream()
+					.filter(address -> address.getAddressType() == removed.getAddressType())
+					.findFirst()
+					.ifPresent(address -> address.setDefault(true));
+		}
+	}
+
+	private static void demoteDefaults(CustomerReadModel customer, Address target) {
+		AddressType type = target.getAddressType();
+		addresses(customer).stream()
+				.filter(address -> !Objects.equals(address.getId(), target.getId()) && address.getAddressType() == type)
+				.forEach(address -> address.setDefault(false));
+	}
+
+	private static List<Address> addresses(CustomerReadModel customer) {
+		if (isNull(customer.getAddresses())) {
+			customer.setAddresses(new ArrayList<>());
+		}
+		return customer.getAddresses();
+	}
+}
@@ -0,0 +1,96 @@
+package pl.ecommerce.customer.read.infrastructure.rebuild;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import pl.ecommerce.commons.model.customer.Address;
+import pl.ecommerce.commons.model.customer.CustomerPreferences;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static pl.ecommerce.customer.read.infrastructure.projector.CustomerEventProjectorHelper.searchKey;
+
+/**
+ * Compatibility reader for schema v1 documents: long field names, UUIDs stored as strings and the personal
+ * fields duplicated under personalData. Tracing fields other than the trace id are dropped.
+ */
+public interface LegacyCustomerDocuments {
+
+	static CustomerReadModel read(Document document, MongoConverter converter) {
+		Document personalData = document.get("personalData", Document.class);
+		String firstName = personal(document, personalData, "firstName");
+		String lastName = personal(document, personalData, "lastName");
+		String status = document.getString("status");
+		Object version = document.get("version");
+
+		return CustomerReadModel.builder()
+				.id(uuid(document.get("_id")))
+				.email(personal(document, personalData, "email"))
+				.firstName(firstName)
+				.lastName(lastName)
+				.firstNameLower(searchKey(firstName))
+				.lastNameLower(searchKey(lastName))
+				.phoneNumber(personal(document, personalData, "phoneNumber"))
+				.emailVerified(Boolean.TRUE.equals(document.get("emailVerified")))
+				.phoneVerified(Boolean.TRUE.equals(document.get("phoneVerified")))
+				.status(isNull(status) ? null : CustomerStatus.valueOf(status))
+				.createdAt(instant(document.get("createdAt")))
+				.updatedAt(instant(document.get("updatedAt")))
+				.registrationIp(document.getString("registrationIp"))
+				.addresses(addresses(document, converter))
+				.preferences(nonNull(document.get("preferences", Document.class))
+						? converter.read(CustomerPreferences.class, document.get("preferences", Document.class))
+						: null)
+				.metadata(metadata(document))
+				.lastTraceId(document.getString("lastTraceId"))
+				.version(version instanceof Number number ? number.longValue() : null)
+				.build();
+	}
+
+	private static String personal(Document document, Document personalData, String field) {
+		String value = document.getString(field);
+		return isNull(value) && nonNull(personalData) ? personalData.getString(field) : value;
+	}
+
+	private static List<Address> addresses(Document document, MongoConverter converter) {
+		List<Address> addresses = new ArrayList<>();
+		for (Document address : document.getList("addresses", Document.class, List.of())) {
+			Object id = address.get("_id");
+			Document normalized = new Document(address);
+			if (nonNull(id)) {
+				normalized.put("_id", uuid(id));
+			}
+			addresses.add(converter.read(Address.class, normalized));
+		}
+		return addresses;
+	}
+
+	private static Map<String, String> metadata(Document document) {
+		Map<String, String> metadata = new HashMap<>();
+		Document stored = document.get("metadata", Document.class);
+		if (nonNull(stored)) {
+			stored.forEach((key, value) -> metadata.put(key, isNull(value) ? null : value.toString()));
+		}
+		return metadata;
+	}
+
+	private static UUID uuid(Object value) {
+		return value instanceof UUID uuid ? uuid : UUID.fromString(String.valueOf(value));
+	}
+
+	private static Instant instant(Object value) {
+		if (value instanceof Date date) {
+			return date.toInstant();
+		}
+		return value instanceof Instant instant ? instant : null;
+	}
+}
@@ -0,0 +1,44 @@
+package pl.ecommerce.customer.read.infrastructure.rebuild;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the read model rebuild as a one-off command, e.g.
+ * {@code --projection.rebuild.enabled=true --event.listener.engine=none}. The application exits once it
+ * is done, with a non-zero status if the rebuild failed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "projection.rebuild.enabled", havingValue = "true")
+public class ProjectionRebuildRunner implements ApplicationRunner, ExitCodeGenerator {
+
+	private final ProjectionRebuilder rebuilder;
+
+	@Value("${projection.rebuild.collection:customers_compact}")
+	private String collection;
+
+	private int exitCode;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		try {
+			rebuilder.rebuild(collection).block();
+		} catch (RuntimeException e) {
+			log.error("Read model rebuild failed: {}", e.getMessage(), e);
+			exitCode = 1;
+		}
+	}
+
+	@Override
+	public int getExitCode() {
+		return exitCode;
+	}
+}
@@ -0,0 +1,122 @@
+package pl.ecommerce.customer.read.infrastructure.rebuild;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import pl.ecommerce.commons.event.AbstractDomainEvent;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.infrastructure.client.CustomerEventStoreClient;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelIndexes;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebuilds the customer read model straight from the write side event store. Aggregate id ranges are
+ * exported in parallel, each customer's events are folded in memory and the final documents are bulk inserted.
+ * Indexes are built once the documents are loaded.
+ */
+@Slf4j
+@Component
+public class ProjectionRebuilder {
+
+	private final ReactiveMongoTemplate mongoTemplate;
+	private final CustomerEventStoreClient eventStoreClient;
+	private final ReadModelIndexes indexes;
+	private final int partitions;
+	private final int batchSize;
+	private final Duration reportInterval;
+
+	public ProjectionRebuilder(ReactiveMongoTemplate mongoTemplate, CustomerEventStoreClient eventStoreClient,
+							   ReadModelIndexes indexes,
+							   @Value("${projection.rebuild.partitions:8}") int partitions,
+							   @Value("${projection.rebuild.batch-size:1000}") int batchSize,
+							   @Value("${projection.rebuild.report-interval-ms:5000}") long reportIntervalMs) {
+		this.mongoTemplate = mongoTemplate;
+		this.eventStoreClient = eventStoreClient;
+		this.indexes = indexes;
+		this.partitions = partitions;
+		this.batchSize = batchSize;
+		this.reportInterval = Duration.ofMillis(reportIntervalMs);
+	}
+
+	public Mono<RebuildResult> rebuild(String collection) {
+		return mongoTemplate.count(new Query(), collection)
+				.flatMap(existing -> existing > 0
+						? Mono.error(new IllegalStateException("Rebuild target " + collection + " already holds " + existing + " documents"))
+						: eventStoreClient.countEvents())
+				.flatMap(totalEvents -> {
+					Progress progress = new Progress(totalEvents);
+					log.info("Rebuilding {} from {} events using {} partitions", collection, totalEvents, partitions);
+					Disposable reporter = Flux.interval(reportInterval)
+							.subscribe(tick -> progress.report());
+
+					return Flux.range(0, partitions)
+							.flatMap(partition -> rebuildPartition(partition, collection, progress), partitions)
+							.then(indexes.ensureIndexes(collection))
+							.then(Mono.fromSupplier(progress::result))
+							.doOnNext(result -> log.info("Rebuilt {} customers from {} events in {} ({} events/s)",
+									result.customers(), result.events(), result.duration(), result.eventsPerSecond()))
+							.doFinally(signal -> reporter.dispose());
+				});
+	}
+
+	private Mono<Void> rebuildPartition(int partition, String collection, Progress progress) {
+		return eventStoreClient.exportEvents(partition, partitions)
+				.doOnNext(event -> progress.events.incrementAndGet())
+				.bufferUntilChanged(AbstractDomainEvent::getAggregateId)
+				.map(CustomerReadModelFolder::fold)
+				.filter(Objects::nonNull)
+				.buffer(batchSize)
+				.concatMap(customers -> insert(customers, collection))
+				.doOnNext(progress.customers::addAndGet)
+				.then();
+	}
+
+	private Mono<Integer> insert(List<CustomerReadModel> customers, String collection) {
+		return mongoTemplate.bulkOps(BulkMode.UNORDERED, CustomerReadModel.class, collection)
+				.insert(customers)
+				.execute()
+				.map(result -> result.getInsertedCount());
+	}
+
+	public record RebuildResult(long events, long customers, Duration duration) {
+
+		public long eventsPerSecond() {
+			long millis = Math.max(1, duration.toMillis());
+			return events * 1000 / millis;
+		}
+	}
+
+	private static final class Progress {
+		private final long totalEvents;
+		private final long startedAt = System.nanoTime();
+		private final AtomicLong events = new AtomicLong();
+		private final AtomicLong customers = new AtomicLong();
+
+		private Progress(long totalEvents) {
+			this.totalEvents = totalEvents;
+		}
+
+		private void report() {
+			RebuildResult snapshot = result();
+			long rate = snapshot.eventsPerSecond();
+			long remaining = Math.max(0, totalEvents - snapshot.events());
+			Duration eta = rate > 0 ? Duration.ofSeconds(remaining / rate) : null;
+			log.info("Rebuild progress: {}/{} events, {} customers, {} events/s, ETA {}",
+					snapshot.events(), totalEvents, snapshot.customers(), rate, Objects.nonNull(eta) ? eta : "unknown");
+		}
+
+		private RebuildResult result() {
+			return new RebuildResult(events.get(), customers.get(), Duration.ofNanos(System.nanoTime() - startedAt));
+		}
+	}
+}
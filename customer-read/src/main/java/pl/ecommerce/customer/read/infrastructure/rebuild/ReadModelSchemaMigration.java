@@ -0,0 +1,93 @@
+package pl.ecommerce.customer.read.infrastructure.rebuild;
+
+import com.mongodb.MongoBulkWriteException;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Moves customers from the schema v1 collection of the previous version into the compact v2 collection.
+ * Documents the live projector already wrote are kept: the copy only inserts, skipping duplicate ids, and
+ * the catch-up run by {@link ShadowProjection} applies anything newer. The copy derives the lowercased
+ * search keys, so v1 documents projected before those keys existed need no separate backfill.
+ */
+@Slf4j
+@Component
+public class ReadModelSchemaMigration {
+
+	private final ReactiveMongoTemplate mongoTemplate;
+	private final ReadModelCollections collections;
+	private final ShadowProjection shadowProjection;
+	private final boolean enabled;
+	private final int batchSize;
+
+	public ReadModelSchemaMigration(ReactiveMongoTemplate mongoTemplate, ReadModelCollections collections,
+									ShadowProjection shadowProjection,
+									@Value("${projection.migration.enabled:true}") boolean enabled,
+									@Value("${projection.migration.batch-size:1000}") int batchSize) {
+		this.mongoTemplate = mongoTemplate;
+		this.collections = collections;
+		this.shadowProjection = shadowProjection;
+		this.enabled = enabled;
+		this.batchSize = batchSize;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (!enabled) {
+			return;
+		}
+		collections.resolveActive()
+				.then(collections.pendingMigration())
+				.subscribe(legacy -> {
+							String target = collections.active();
+							log.info("Migrating customer read model from {} into {}", legacy, target);
+							shadowProjection.migrate(legacy, copy(legacy, target));
+						},
+						error -> log.error("Failed to start the read model migration: {}", error.getMessage(), error));
+	}
+
+	public Mono<Long> copy(String legacy, String target) {
+		Query query = new Query().cursorBatchSize(batchSize);
+		return mongoTemplate.find(query, Document.class, legacy)
+				.map(document -> LegacyCustomerDocuments.read(document, mongoTemplate.getConverter()))
+				.buffer(batchSize)
+				.concatMap(customers -> insert(customers, target))
+				.reduce(0L, Long::sum);
+	}
+
+	private Mono<Long> insert(List<CustomerReadModel> customers, String target) {
+		return mongoTemplate.bulkOps(BulkMode.UNORDERED, CustomerReadModel.class, target)
+				.insert(customers)
+				.execute()
+				.map(result -> (long) result.getInsertedCount())
+				.onErrorResume(ReadModelSchemaMigration::isWriteError, error -> {
+					long inserted = insertedCount(error);
+					log.debug("Skipped {} customers already present in {}", customers.size() - inserted, target);
+					return Mono.just(inserted);
+				});
+	}
+
+	private static boolean isWriteError(Throwable error) {
+		return error instanceof BulkOperationException || error.getCause() instanceof MongoBulkWriteException;
+	}
+
+	private static long insertedCount(Throwable error) {
+		if (error instanceof BulkOperationException bulkError) {
+			return bulkError.getResult().getInsertedCount();
+		}
+		return ((MongoBulkWriteException) error.getCause()).getWriteResult().getInsertedCount();
+	}
+}
@@ -0,0 +1,331 @@
+package pl.ecommerce.customer.read.infrastructure.rebuild;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+import pl.ecommerce.commons.event.AbstractDomainEvent;
+import pl.ecommerce.commons.event.customer.CustomerEvent;
+import pl.ecommerce.commons.kafka.TopicsProvider;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.infrastructure.client.CustomerEventStoreClient;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Blue/green rebuild of the customer read model. The consumer group offsets are recorded, the shadow
+ * collection is rebuilt from the event store and then caught up from those offsets by a dedicated consumer.
+ * Once it has no lag left the read model pointer is switched to it; the consumer keeps applying events for
+ * the grace period, after which the previous collection is dropped. The same catch-up completes the
+ * migration of a collection written with the previous document schema.
+ */
+@Slf4j
+@Component
+public class ShadowProjection {
+
+	private static final Pattern VERSION_SUFFIX = Pattern.compile("^(.*)_v(\\d+)$");
+	private static final Duration ADMIN_TIMEOUT = Duration.ofSeconds(30);
+
+	private final ProjectionRebuilder rebuilder;
+	private final ReadModelCollections collections;
+	private final ReactiveMongoTemplate mongoTemplate;
+	private final CustomerEventStoreClient eventStoreClient;
+	private final ConsumerFactory<String, Object> consumerFactory;
+	private final KafkaAdmin kafkaAdmin;
+	private final TopicsProvider topicsProvider;
+	private final ObjectMapper objectMapper;
+	private final String groupId;
+	private final Duration lagCheckInterval;
+	private final Duration gracePeriod;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+	private final Map<TopicPartition, Long> positions = new ConcurrentHashMap<>();
+	private volatile Disposable.Composite subscriptions = Disposables.composite();
+	private volatile String shadow;
+	private volatile String phase = "IDLE";
+	private volatile long lag = -1;
+
+	public ShadowProjection(ProjectionRebuilder rebuilder, ReadModelCollections collections,
+							ReactiveMongoTemplate mongoTemplate, CustomerEventStoreClient eventStoreClient,
+							ConsumerFactory<String, Object> consumerFactory, KafkaAdmin kafkaAdmin,
+							TopicsProvider topicsProvider, ObjectMapper objectMapper,
+							@Value("${event.listener.group-id:${spring.application.name}-group}") String groupId,
+							@Value("${projection.shadow.lag-check-ms:1000}") long lagCheckMs,
+							@Value("${projection.collections.grace-period-ms:600000}") long gracePeriodMs) {
+		this.rebuilder = rebuilder;
+		this.collections = collections;
+		this.mongoTemplate = mongoTemplate;
+		this.eventStoreClient = eventStoreClient;
+		this.consumerFactory = consumerFactory;
+		this.kafkaAdmin = kafkaAdmin;
+		this.topicsProvider = topicsProvider;
+		this.objectMapper = objectMapper;
+		this.groupId = groupId;
+		this.lagCheckInterval = Duration.ofMillis(lagCheckMs);
+		this.gracePeriod = Duration.ofMillis(gracePeriodMs);
+	}
+
+	/**
+	 * Starts a shadow rebuild in the background and returns the name of the shadow collection.
+	 */
+	public String start() {
+		if (!collections.isResolved()) {
+			throw new IllegalStateException("The active read model collection is not loaded yet");
+		}
+		if (!running.compareAndSet(false, true)) {
+			throw new IllegalStateException("Shadow rebuild into " + shadow + " is already running");
+		}
+		String target = nextCollectionName(collections.active());
+		shadow = target;
+		phase = "REBUILDING";
+		lag = -1;
+		positions.clear();
+		subscriptions = Disposables.composite();
+
+		subscriptions.add(Mono.fromCallable(this::recordOffsets)
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMap(offsets -> collections.startShadow(target, offsets)
+						.then(rebuilder.rebuild(target))
+						.doOnNext(result -> log.info("Shadow collection {} rebuilt, catching up from recorded offsets", target))
+						.thenReturn(offsets))
+				.subscribe(offsets -> catchUp(target, offsets,
+								collections.cutover(target).doOnSuccess(v -> phase = "CUT_OVER"), abandon(target)),
+						error -> fail(target, error, abandon(target))));
+		return target;
+	}
+
+	/**
+	 * Copies the previous schema collection into the active one in the background, then applies every event
+	 * from the offsets recorded before the copy, including those consumed by instances still on the previous
+	 * version. Once caught up the previous collection is retired.
+	 */
+	public String migrate(String legacy, Mono<Long> copy) {
+		if (!running.compareAndSet(false, true)) {
+			throw new IllegalStateException("Shadow rebuild into " + shadow + " is already running");
+		}
+		String target = collections.active();
+		shadow = target;
+		phase = "MIGRATING";
+		lag = -1;
+		positions.clear();
+		subscriptions = Disposables.composite();
+		AtomicBoolean claimed = new AtomicBoolean();
+		Mono<Void> release = Mono.defer(() -> claimed.get() ? collections.abandonMigration(legacy) : Mono.empty());
+
+		subscriptions.add(Mono.fromCallable(this::recordOffsets)
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMap(offsets -> collections.startMigration(legacy, offsets)
+						.doOnSuccess(v -> claimed.set(true))
+						.then(copy)
+						.doOnNext(copied -> log.info("Copied {} customers from {} into {}, catching up from recorded offsets",
+								copied, legacy, target))
+						.thenReturn(offsets))
+				.subscribe(offsets -> catchUp(target, offsets,
+								collections.completeMigration(legacy).doOnSuccess(v -> phase = "MIGRATED"), release),
+						error -> fail(target, error, release)));
+		return target;
+	}
+
+	public Map<String, Object> status() {
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("phase", phase);
+		status.put("shadow", shadow);
+		status.put("active", collections.active());
+		status.put("lag", lag);
+		return status;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		subscriptions.dispose();
+	}
+
+	private void catchUp(String target, Map<TopicPartition, Long> offsets, Mono<Void> onCaughtUp, Mono<Void> cleanup) {
+		phase = "CATCHING_UP";
+		positions.putAll(offsets);
+
+		Map<String, Object> props = new HashMap<>(consumerFactory.getConfigurationProperties());
+		props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId + "-" + target);
+		props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+		ReceiverOptions<String, Object> options = ReceiverOptions.<String, Object>create(props)
+				.assignment(offsets.keySet())
+				.addAssignListener(partitions -> partitions.forEach(partition ->
+						partition.seek(offsets.get(partition.topicPartition()))));
+		KafkaReceiver<String, Object> receiver = KafkaReceiver.create(options);
+		AtomicBoolean switched = new AtomicBoolean();
+
+		subscriptions.add(receiver.receive()
+				.concatMap(record -> apply(record, target)
+						.doOnSuccess(v -> positions.put(record.receiverOffset().topicPartition(), record.offset() + 1)))
+				.subscribe(null, error -> fail(target, error, cleanup)));
+
+		subscriptions.add(Flux.interval(lagCheckInterval)
+				.concatMap(tick -> receiver.doOnConsumer(consumer -> consumer.endOffsets(offsets.keySet())))
+				.map(this::currentLag)
+				.filter(currentLag -> currentLag == 0 && switched.compareAndSet(false, true))
+				.concatMap(currentLag -> onCaughtUp.then(Mono.delay(gracePeriod)))
+				.subscribe(done -> finish(target), error -> fail(target, error, cleanup)));
+	}
+
+	private long currentLag(Map<TopicPartition, Long> endOffsets) {
+		long total = 0;
+		for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+			total += Math.max(0, entry.getValue() - positions.getOrDefault(entry.getKey(), 0L));
+		}
+		lag = total;
+		return total;
+	}
+
+	/**
+	 * Applies the record to the shadow collection. An event that still fails after the retries fails the whole
+	 * rebuild, so a collection missing it is never cut over to.
+	 */
+	private Mono<Void> apply(ReceiverRecord<String, Object> record, String target) {
+		AbstractDomainEvent event = decode(record);
+		if (!(event instanceof CustomerEvent customerEvent)) {
+			return Mono.empty();
+		}
+		return project(customerEvent, target)
+				.retryWhen(Retry.backoff(3, Duration.ofMillis(200))
+						.onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+				.onErrorMap(e -> new IllegalStateException("Failed to apply %s v%d from %s-%d@%d to shadow collection %s"
+						.formatted(event.getEventType(), event.getVersion(), record.topic(), record.partition(),
+								record.offset(), target), e));
+	}
+
+	/**
+	 * Applies the event to the shadow document, re-fetching missed events from the write side on a gap.
+	 */
+	private Mono<Void> project(CustomerEvent event, String target) {
+		return mongoTemplate.findById(event.getAggregateId(), CustomerReadModel.class, target)
+				.map(Optional::of)
+				.defaultIfEmpty(Optional.empty())
+				.flatMap(existing -> {
+					long current = existing.map(customer -> isNull(customer.getVersion()) ? 0L : customer.getVersion()).orElse(0L);
+					if (current > event.getVersion()) {
+						return Mono.empty();
+					}
+					Mono<List<AbstractDomainEvent>> events = current == event.getVersion()
+							? Mono.just(List.of(event))
+							: eventStoreClient.fetchEvents(event.getAggregateId(), current).collectList();
+					return events.flatMap(history -> save(CustomerReadModelFolder.fold(existing.orElse(null), history),
+							existing.isPresent(), current, target));
+				});
+	}
+
+	private Mono<Void> save(CustomerReadModel customer, boolean exists, long expectedVersion, String target) {
+		if (isNull(customer)) {
+			return Mono.empty();
+		}
+		if (!exists) {
+			return mongoTemplate.insert(customer, target)
+					.onErrorResume(DuplicateKeyException.class, e -> Mono.empty())
+					.then();
+		}
+		Query query = Query.query(Criteria.where("_id").is(customer.getId())
+				.orOperator(Criteria.where("version").is(expectedVersion), Criteria.where("version").exists(false)));
+		return mongoTemplate.findAndReplace(query, customer, FindAndReplaceOptions.none(), target)
+				.then();
+	}
+
+	private AbstractDomainEvent decode(ReceiverRecord<String, Object> record) {
+		Object value = record.value();
+		if (value instanceof AbstractDomainEvent event) {
+			return event;
+		}
+		if (value instanceof byte[] bytes) {
+			try {
+				return objectMapper.readValue(bytes, AbstractDomainEvent.class);
+			} catch (IOException e) {
+				log.warn("Skipping undecodable record {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), e.getMessage());
+			}
+		}
+		return null;
+	}
+
+	private Map<TopicPartition, Long> recordOffsets() throws Exception {
+		List<String> topics = List.of(topicsProvider.getTopics());
+		try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+			Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+					.partitionsToOffsetAndMetadata()
+					.get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+			Map<String, TopicDescription> descriptions = admin.describeTopics(topics)
+					.allTopicNames()
+					.get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+			Map<TopicPartition, Long> offsets = new HashMap<>();
+			descriptions.values().forEach(description -> description.partitions().forEach(info -> {
+				TopicPartition partition = new TopicPartition(description.name(), info.partition());
+				OffsetAndMetadata offset = committed.get(partition);
+				offsets.put(partition, nonNull(offset) ? offset.offset() : 0L);
+			}));
+			log.info("Recorded {} partition offsets of group {} for the shadow rebuild", offsets.size(), groupId);
+			return offsets;
+		}
+	}
+
+	private void finish(String target) {
+		log.info("Shadow rebuild into {} finished, stopping its consumer", target);
+		subscriptions.dispose();
+		phase = "IDLE";
+		running.set(false);
+	}
+
+	private void fail(String target, Throwable error, Mono<Void> cleanup) {
+		log.error("Shadow rebuild into {} failed: {}", target, error.getMessage(), error);
+		subscriptions.dispose();
+		phase = "FAILED";
+		running.set(false);
+		cleanup.subscribe(null, e -> log.warn("Failed to clean up after the failed rebuild into {}: {}", target, e.getMessage()));
+	}
+
+	private Mono<Void> abandon(String target) {
+		return Mono.defer(() -> target.equals(collections.active()) ? Mono.empty() : collections.abandonShadow(target));
+	}
+
+	static String nextCollectionName(String active) {
+		Matcher matcher = VERSION_SUFFIX.matcher(active);
+		if (matcher.matches()) {
+			return matcher.group(1) + "_v" + (Integer.parseInt(matcher.group(2)) + 1);
+		}
+		return active + "_v2";
+	}
+}
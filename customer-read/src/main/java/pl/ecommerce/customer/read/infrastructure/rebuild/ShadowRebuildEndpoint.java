@@ -0,0 +1,29 @@
+package pl.ecommerce.customer.read.infrastructure.rebuild;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Starts a blue/green rebuild with {@code POST /actuator/rebuild}. The rebuild ends with dropping the previous
+ * collection, so the endpoint only exists when {@code projection.shadow.endpoint-enabled} is set; its progress
+ * is reported by the read-only projection endpoint either way.
+ */
+@Component
+@Endpoint(id = "rebuild")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "projection.shadow.endpoint-enabled", havingValue = "true")
+public class ShadowRebuildEndpoint {
+
+	private final ShadowProjection shadowProjection;
+
+	@WriteOperation
+	public Map<String, Object> rebuild() {
+		shadowProjection.start();
+		return shadowProjection.status();
+	}
+}
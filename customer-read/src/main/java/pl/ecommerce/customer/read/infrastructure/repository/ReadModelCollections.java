@@ -0,0 +1,263 @@
+package pl.ecommerce.customer.read.infrastructure.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Resolves which physical collection backs the customer read model. The pointer lives in a single
+ * projection_state document, so switching to a rebuilt shadow collection is one atomic update.
+ * The document is keyed by the default collection of the current schema; instances still running the
+ * previous schema keep following their own pointer under {@code customers}. The pointer is loaded in the
+ * background so startup does not wait on Mongo; until it is, the instance reports itself not ready and
+ * projection writes wait in {@link #resolveActive()}.
+ */
+@Slf4j
+@Component
+public class ReadModelCollections {
+
+	private static final String STATE_COLLECTION = "projection_state";
+	private static final String LEGACY_STATE_ID = "customers";
+	private static final String LEGACY_COLLECTION = "customers";
+
+	private final ReactiveMongoTemplate mongoTemplate;
+	private final String defaultCollection;
+	private final String stateId;
+	private final Duration refreshInterval;
+	private final Duration gracePeriod;
+
+	private final Sinks.Empty<Void> loaded = Sinks.empty();
+
+	private volatile String active;
+	private volatile boolean resolved;
+	private Disposable refresher;
+
+	public ReadModelCollections(ReactiveMongoTemplate mongoTemplate,
+								@Value("${projection.collections.refresh-ms:5000}") long refreshMs,
+								@Value("${projection.collections.grace-period-ms:600000}") long gracePeriodMs) {
+		this.mongoTemplate = mongoTemplate;
+		this.defaultCollection = mongoTemplate.getCollectionName(CustomerReadModel.class);
+		this.stateId = defaultCollection;
+		this.active = defaultCollection;
+		this.refreshInterval = Duration.ofMillis(refreshMs);
+		this.gracePeriod = Duration.ofMillis(gracePeriodMs);
+	}
+
+	@PostConstruct
+	public void init() {
+		refresher = Flux.interval(Duration.ZERO, refreshInterval)
+				.concatMap(tick -> refresh()
+						.doOnSuccess(v -> markResolved())
+						.then(dropExpiredRetired())
+						.onErrorResume(e -> {
+							log.warn("Failed to refresh read model collection state: {}", e.getMessage());
+							return Mono.empty();
+						}))
+				.subscribe();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (nonNull(refresher)) {
+			refresher.dispose();
+		}
+	}
+
+	/**
+	 * Collection currently serving reads and receiving live projection writes.
+	 */
+	public String active() {
+		return active;
+	}
+
+	/**
+	 * Active collection once the pointer has been loaded, for writers that must not fall back to the default.
+	 */
+	public Mono<String> resolveActive() {
+		return loaded.asMono().then(Mono.fromSupplier(() -> active));
+	}
+
+	public boolean isResolved() {
+		return resolved;
+	}
+
+	public Mono<Document> state() {
+		return mongoTemplate.findById(stateId, Document.class, STATE_COLLECTION)
+				.defaultIfEmpty(new Document("_id", stateId).append("active", defaultCollection));
+	}
+
+	/**
+	 * Emits the collection of the previous schema if it still holds customers that were never migrated.
+	 */
+	public Mono<String> pendingMigration() {
+		return state()
+				.filter(state -> !state.containsKey("migratedFrom") && !state.containsKey("migratingFrom"))
+				.flatMap(state -> mongoTemplate.findById(LEGACY_STATE_ID, Document.class, STATE_COLLECTION)
+						.map(legacy -> legacy.getString("active"))
+						.defaultIfEmpty(LEGACY_COLLECTION))
+				.filterWhen(legacy -> mongoTemplate.collectionExists(legacy)
+						.flatMap(exists -> exists ? mongoTemplate.exists(new Query(), legacy) : Mono.just(false)));
+	}
+
+	/**
+	 * Claims the migration of the previous schema collection. Fails if another instance already claimed it.
+	 */
+	public Mono<Void> startMigration(String legacy, Map<TopicPartition, Long> offsets) {
+		Query notMigrated = Query.query(Criteria.where("_id").is(stateId)
+				.and("migratingFrom").exists(false)
+				.and("migratedFrom").exists(false));
+		Update update = new Update()
+				.setOnInsert("active", active)
+				.set("migratingFrom", legacy)
+				.set("migrationOffsets", toDocuments(offsets))
+				.set("migrationStartedAt", Date.from(Instant.now()));
+
+		return mongoTemplate.upsert(notMigrated, update, STATE_COLLECTION)
+				.onErrorMap(DuplicateKeyException.class,
+						e -> new IllegalStateException("The migration from " + legacy + " was already started"))
+				.then();
+	}
+
+	/**
+	 * Marks the migration as done and retires the previous schema collection for the grace period.
+	 */
+	public Mono<Void> completeMigration(String legacy) {
+		Query query = Query.query(Criteria.where("_id").is(stateId).and("migratingFrom").is(legacy));
+		Update update = new Update()
+				.set("migratedFrom", legacy)
+				.set("retired", legacy)
+				.set("retiredAt", Date.from(Instant.now()))
+				.unset("migratingFrom")
+				.unset("migrationOffsets")
+				.unset("migrationStartedAt");
+		return mongoTemplate.updateFirst(query, update, STATE_COLLECTION)
+				.doOnSuccess(result -> log.info("Read model migration from {} into {} completed", legacy, active))
+				.then();
+	}
+
+	public Mono<Void> abandonMigration(String legacy) {
+		Query query = Query.query(Criteria.where("_id").is(stateId).and("migratingFrom").is(legacy));
+		Update update = new Update().unset("migratingFrom").unset("migrationOffsets").unset("migrationStartedAt");
+		return mongoTemplate.updateFirst(query, update, STATE_COLLECTION).then();
+	}
+
+	/**
+	 * Registers a shadow collection together with the consumer offsets it has to catch up from.
+	 * Fails if another shadow rebuild is in progress.
+	 */
+	public Mono<Void> startShadow(String shadow, Map<TopicPartition, Long> offsets) {
+		Query noShadow = Query.query(Criteria.where("_id").is(stateId)
+				.orOperator(Criteria.where("shadow").exists(false), Criteria.where("shadow").is(null)));
+		Update update = new Update()
+				.setOnInsert("active", active)
+				.set("shadow", shadow)
+				.set("shadowOffsets", toDocuments(offsets))
+				.set("shadowStartedAt", Date.from(Instant.now()));
+
+		return mongoTemplate.upsert(noShadow, update, STATE_COLLECTION)
+				.onErrorMap(DuplicateKeyException.class,
+						e -> new IllegalStateException("A shadow rebuild is already in progress"))
+				.then();
+	}
+
+	/**
+	 * Atomically makes the shadow collection active and retires the previous one.
+	 */
+	public Mono<Void> cutover(String shadow) {
+		return state().flatMap(state -> {
+			String previous = state.getString("active");
+			Query query = Query.query(Criteria.where("_id").is(stateId).and("shadow").is(shadow));
+			Update update = new Update()
+					.set("active", shadow)
+					.set("retired", previous)
+					.set("retiredAt", Date.from(Instant.now()))
+					.unset("shadow")
+					.unset("shadowOffsets")
+					.unset("shadowStartedAt");
+			return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+							Document.class, STATE_COLLECTION)
+					.switchIfEmpty(Mono.error(new IllegalStateException("Shadow collection " + shadow + " is not pending cutover")))
+					.doOnNext(updated -> {
+						active = shadow;
+						log.info("Read model switched from {} to {}", previous, shadow);
+					})
+					.then(dropStaleRetired(state.getString("retired"), previous));
+		});
+	}
+
+	public Mono<Void> abandonShadow(String shadow) {
+		Query query = Query.query(Criteria.where("_id").is(stateId).and("shadow").is(shadow));
+		Update update = new Update().unset("shadow").unset("shadowOffsets").unset("shadowStartedAt");
+		return mongoTemplate.updateFirst(query, update, STATE_COLLECTION)
+				.then(mongoTemplate.dropCollection(shadow));
+	}
+
+	private Mono<Void> refresh() {
+		return mongoTemplate.findById(stateId, Document.class, STATE_COLLECTION)
+				.doOnNext(state -> {
+					String current = state.getString("active");
+					if (nonNull(current) && !current.equals(active)) {
+						log.info("Read model collection changed from {} to {}", active, current);
+						active = current;
+					}
+				})
+				.then();
+	}
+
+	private void markResolved() {
+		if (!resolved) {
+			resolved = true;
+			loaded.tryEmitEmpty();
+			log.info("Read model served from {}", active);
+		}
+	}
+
+	private Mono<Void> dropExpiredRetired() {
+		Date cutoff = Date.from(Instant.now().minus(gracePeriod));
+		Query expired = Query.query(Criteria.where("_id").is(stateId)
+				.and("retired").exists(true)
+				.and("retiredAt").lt(cutoff));
+		Update clear = new Update().unset("retired").unset("retiredAt");
+
+		return mongoTemplate.findAndModify(expired, clear, Document.class, STATE_COLLECTION)
+				.map(state -> state.getString("retired"))
+				.filter(retired -> nonNull(retired) && !retired.equals(active))
+				.flatMap(retired -> mongoTemplate.dropCollection(retired)
+						.doOnSuccess(v -> log.info("Dropped retired read model collection {}", retired)));
+	}
+
+	private Mono<Void> dropStaleRetired(String retired, String previous) {
+		return nonNull(retired) && !retired.equals(previous) ? mongoTemplate.dropCollection(retired) : Mono.empty();
+	}
+
+	private static List<Document> toDocuments(Map<TopicPartition, Long> offsets) {
+		return offsets.entrySet().stream()
+				.map(entry -> new Document("topic", entry.getKey().topic())
+						.append("partition", entry.getKey().partition())
+						.append("offset", entry.getValue()))
+				.toList();
+	}
+}
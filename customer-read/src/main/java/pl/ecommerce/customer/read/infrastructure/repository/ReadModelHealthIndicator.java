@@ -0,0 +1,23 @@
+package pl.ecommerce.customer.read.infrastructure.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Part of the readiness group: the instance only takes traffic once it knows which collection to read.
+ */
+@Component("readModel")
+@RequiredArgsConstructor
+public class ReadModelHealthIndicator implements ReactiveHealthIndicator {
+
+	private final ReadModelCollections collections;
+
+	@Override
+	public Mono<Health> health() {
+		Health.Builder health = collections.isResolved() ? Health.up() : Health.outOfService();
+		return Mono.just(health.withDetail("active", collections.active()).build());
+	}
+}
@@ -0,0 +1,168 @@
+package pl.ecommerce.customer.read.infrastructure.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static pl.ecommerce.customer.read.domain.model.CustomerReadModel.CREATED_AT;
+import static pl.ecommerce.customer.read.domain.model.CustomerReadModel.EMAIL;
+import static pl.ecommerce.customer.read.domain.model.CustomerReadModel.FIRST_NAME_LOWER;
+import static pl.ecommerce.customer.read.domain.model.CustomerReadModel.ID;
+import static pl.ecommerce.customer.read.domain.model.CustomerReadModel.LAST_NAME;
+import static pl.ecommerce.customer.read.domain.model.CustomerReadModel.LAST_NAME_LOWER;
+import static pl.ecommerce.customer.read.domain.model.CustomerReadModel.STATUS;
+
+/**
+ * Declares the indexes the customer read model queries depend on. They are built in the background once
+ * the application is ready and after every rebuild, instead of relying on auto-index-creation.
+ * Name searches use status-prefixed indexes on lowercased copies of the names. The email index is not
+ * unique: uniqueness is enforced by customer-write, and a unique index here would reject a projection and
+ * leave every later event of that customer behind a version gap.
+ */
+@Slf4j
+@Component
+public class ReadModelIndexes {
+
+	public static final String EMAIL_INDEX = "email_ci";
+	public static final String STATUS_CREATED_AT_INDEX = "status_1_createdAt_1__id_1";
+	public static final String STATUS_LAST_NAME_INDEX = "status_1_lastName_1__id_1";
+	public static final String STATUS_FIRST_NAME_SEARCH_INDEX = "status_1_firstNameLower_1";
+	public static final String STATUS_LAST_NAME_SEARCH_INDEX = "status_1_lastNameLower_1";
+
+	private static final List<String> DECLARED_INDEXES = List.of(EMAIL_INDEX, STATUS_CREATED_AT_INDEX, STATUS_LAST_NAME_INDEX,
+			STATUS_FIRST_NAME_SEARCH_INDEX, STATUS_LAST_NAME_SEARCH_INDEX);
+
+	/**
+	 * Case-insensitive collation of the email index; email lookups must use it to hit the index.
+	 */
+	public static final Collation EMAIL_COLLATION = Collation.of("en").strength(2);
+
+	/**
+	 * Statuses covered by the partial email index; deleted customers release their email.
+	 */
+	public static final List<CustomerStatus> EMAIL_INDEXED_STATUSES = List.of(CustomerStatus.ACTIVE, CustomerStatus.INACTIVE);
+
+	/**
+	 * Fields status queries can be sorted by, each backed by a status-prefixed compound index ending in _id
+	 * so keyset pagination can seek on the (field, _id) pair.
+	 */
+	public static final Set<String> SORTABLE_FIELDS = Set.of("createdAt", "lastName");
+
+	private final ReactiveMongoTemplate mongoTemplate;
+	private final ReadModelCollections collections;
+	private final MeterRegistry registry;
+	private final String serviceName;
+	private final AtomicInteger missingIndexes = new AtomicInteger();
+	private final Map<String, Counter> unindexedQueries = new ConcurrentHashMap<>();
+
+	public ReadModelIndexes(ReactiveMongoTemplate mongoTemplate, ReadModelCollections collections, MeterRegistry registry,
+							@Value("${spring.application.name:unknown}") String serviceName) {
+		this.mongoTemplate = mongoTemplate;
+		this.collections = collections;
+		this.registry = registry;
+		this.serviceName = serviceName;
+
+		Gauge.builder("read_model_missing_indexes", missingIndexes, AtomicInteger::get)
+				.description("Declared read model indexes missing on the active collection")
+				.tag("service", serviceName)
+				.register(registry);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		collections.resolveActive()
+				.flatMap(collection -> ensureIndexes(collection)
+						.then(verify(collection)))
+				.subscribe(missing -> { },
+						error -> log.error("Failed to build read model indexes on {}: {}", collections.active(), error.getMessage(), error));
+	}
+
+	public Mono<Void> ensureIndexes(String collection) {
+		return Flux.fromIterable(definitions())
+				.concatMap(index -> mongoTemplate.indexOps(collection).ensureIndex(index)
+						.doOnNext(name -> log.info("Ensured read model index {} on {}", name, collection)))
+				.then();
+	}
+
+	/**
+	 * Checks that every declared index exists on the collection and publishes the number of missing ones.
+	 */
+	public Mono<List<String>> verify(String collection) {
+		return mongoTemplate.indexOps(collection).getIndexInfo()
+				.map(IndexInfo::getName)
+				.collectList()
+				.map(existing -> DECLARED_INDEXES.stream()
+						.filter(name -> !existing.contains(name))
+						.toList())
+				.doOnNext(missing -> {
+					missingIndexes.set(missing.size());
+					if (!missing.isEmpty()) {
+						log.warn("Read model collection {} is missing indexes {}", collection, missing);
+					}
+				});
+	}
+
+	/**
+	 * Returns whether a status query sorted this way is covered by an index, counting it as unindexed otherwise.
+	 */
+	public boolean coversSort(String query, Sort sort) {
+		boolean covered = sort.stream().allMatch(order -> SORTABLE_FIELDS.contains(order.getProperty()));
+		if (!covered) {
+			recordUnindexedQuery(query);
+		}
+		return covered;
+	}
+
+	public void recordUnindexedQuery(String query) {
+		unindexedQueries.computeIfAbsent(query, key -> Counter.builder("read_model_unindexed_queries_total")
+						.description("Read model queries that cannot be served by an index")
+						.tag("service", serviceName)
+						.tag("query", key)
+						.register(registry))
+				.increment();
+	}
+
+	private static List<Index> definitions() {
+		List<String> indexedStatuses = EMAIL_INDEXED_STATUSES.stream().map(Enum::name).toList();
+		return List.of(
+				new Index().named(EMAIL_INDEX)
+						.on(EMAIL, Sort.Direction.ASC)
+						.collation(EMAIL_COLLATION)
+						.partial(PartialIndexFilter.of(Criteria.where(STATUS).in(indexedStatuses))),
+				new Index().named(STATUS_CREATED_AT_INDEX)
+						.on(STATUS, Sort.Direction.ASC)
+						.on(CREATED_AT, Sort.Direction.ASC)
+						.on(ID, Sort.Direction.ASC),
+				new Index().named(STATUS_LAST_NAME_INDEX)
+						.on(STATUS, Sort.Direction.ASC)
+						.on(LAST_NAME, Sort.Direction.ASC)
+						.on(ID, Sort.Direction.ASC),
+				new Index().named(STATUS_FIRST_NAME_SEARCH_INDEX)
+						.on(STATUS, Sort.Direction.ASC)
+						.on(FIRST_NAME_LOWER, Sort.Direction.ASC),
+				new Index().named(STATUS_LAST_NAME_SEARCH_INDEX)
+						.on(STATUS, Sort.Direction.ASC)
+						.on(LAST_NAME_LOWER, Sort.Direction.ASC));
+	}
+}
@@ -0,0 +1,219 @@
+package pl.ecommerce.customer.read.infrastructure.stats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Customer counts per status, email verification, marketing consent and preferred language, kept in a
+ * small collection by the projector with atomic $inc. A background job recomputes the cells from the
+ * read model to repair drift, e.g. after a crash between a projection and its counter update. Every
+ * increment also bumps the cell's {@value #SEQUENCE}, which the job compares and sets against, so it
+ * never overwrites or deletes a cell the projector touched while the recount was running.
+ */
+@Slf4j
+@Component
+public class CustomerStatsCounters {
+
+	public static final String STATS_COLLECTION = "customer_stats";
+	static final String SEQUENCE = "seq";
+	private static final int RECONCILE_CONCURRENCY = 8;
+
+	private final ReactiveMongoTemplate mongoTemplate;
+	private final ReadModelCollections collections;
+	private final Duration initialDelay;
+	private final Duration reconcileInterval;
+	private final Duration settleDelay;
+
+	private Disposable reconciler;
+
+	public CustomerStatsCounters(ReactiveMongoTemplate mongoTemplate, ReadModelCollections collections,
+								 @Value("${projection.stats.initial-delay-ms:30000}") long initialDelayMs,
+								 @Value("${projection.stats.reconcile-interval-ms:3600000}") long reconcileIntervalMs,
+								 @Value("${projection.stats.settle-ms:5000}") long settleMs) {
+		this.mongoTemplate = mongoTemplate;
+		this.collections = collections;
+		this.initialDelay = Duration.ofMillis(initialDelayMs);
+		this.reconcileInterval = Duration.ofMillis(reconcileIntervalMs);
+		this.settleDelay = Duration.ofMillis(settleMs);
+	}
+
+	@PostConstruct
+	public void init() {
+		reconciler = Flux.interval(initialDelay, reconcileInterval)
+				.concatMap(tick -> reconcile()
+						.onErrorResume(e -> {
+							log.warn("Failed to reconcile customer statistics: {}", e.getMessage());
+							return Mono.empty();
+						}))
+				.subscribe();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (nonNull(reconciler)) {
+			reconciler.dispose();
+		}
+	}
+
+	public Mono<Void> increment(CustomerStatsKey key) {
+		return mongoTemplate.upsert(cell(key), inc(key, 1), STATS_COLLECTION).then();
+	}
+
+	/**
+	 * Moves one customer between cells, a no-op if the event did not change any dimension.
+	 */
+	public Mono<Void> move(CustomerStatsKey from, CustomerStatsKey to) {
+		if (from.equals(to)) {
+			return Mono.empty();
+		}
+		return mongoTemplate.bulkOps(BulkMode.UNORDERED, STATS_COLLECTION)
+				.upsert(cell(from), inc(from, -1))
+				.upsert(cell(to), inc(to, 1))
+				.execute()
+				.then();
+	}
+
+	public Flux<Document> cells() {
+		return mongoTemplate.find(Query.query(Criteria.where("count").gt(0)), Document.class, STATS_COLLECTION);
+	}
+
+	public Mono<Long> countByStatus(CustomerStatus status) {
+		return mongoTemplate.find(Query.query(Criteria.where("status").is(status.name())), Document.class, STATS_COLLECTION)
+				.map(cell -> cell.get("count", Number.class).longValue())
+				.reduce(0L, Long::sum);
+	}
+
+	/**
+	 * Recomputes every cell from the active read model collection. The cells' sequences are read first and
+	 * the recount only starts after a settle delay, so projections that had written the read model but not
+	 * yet their increment at snapshot time change the sequence before the recount is applied. A corrected
+	 * count is then only written while the sequence still matches the snapshot; cells that moved are left
+	 * to the next run. Cells without customers are set to zero rather than removed.
+	 *
+	 * @return the number of cells whose count was corrected
+	 */
+	public Mono<Long> reconcile() {
+		return collections.resolveActive().flatMap(this::reconcile);
+	}
+
+	private Mono<Long> reconcile(String collection) {
+		Aggregation aggregation = Aggregation.newAggregation(
+				Aggregation.group(Fields.from(
+								Fields.field("status", CustomerReadModel.STATUS),
+								Fields.field("emailVerified", CustomerReadModel.EMAIL_VERIFIED),
+								Fields.field("marketingConsent", CustomerReadModel.PREFERENCES + ".marketingConsent"),
+								Fields.field("preferredLanguage", CustomerReadModel.PREFERENCES + ".preferredLanguage")))
+						.count().as("count"));
+
+		return snapshot()
+				.delayUntil(snapshot -> Mono.delay(settleDelay))
+				.flatMap(snapshot -> mongoTemplate.aggregate(aggregation, collection, Document.class)
+						.collectMap(group -> toKey(group.get("_id", Document.class)),
+								group -> group.get("count", Number.class).longValue())
+						.flatMap(counts -> correct(snapshot, counts)))
+				.doOnNext(corrected -> log.info("Reconciled customer statistics from {}, corrected {} cells", collection, corrected));
+	}
+
+	private Mono<Map<String, Document>> snapshot() {
+		Query query = new Query();
+		query.fields().include("count", SEQUENCE);
+		return mongoTemplate.find(query, Document.class, STATS_COLLECTION)
+				.collectMap(cell -> cell.getString("_id"));
+	}
+
+	private Mono<Long> correct(Map<String, Document> snapshot, Map<CustomerStatsKey, Long> counts) {
+		Date reconciledAt = Date.from(Instant.now());
+		Set<String> populated = counts.keySet().stream()
+				.map(CustomerStatsKey::id)
+				.collect(Collectors.toSet());
+
+		Flux<Boolean> recounted = Flux.fromIterable(counts.entrySet())
+				.flatMap(entry -> {
+					Document cell = snapshot.get(entry.getKey().id());
+					return isNull(cell)
+							? create(entry.getKey(), entry.getValue(), reconciledAt)
+							: compareAndSet(cell, entry.getValue(), reconciledAt);
+				}, RECONCILE_CONCURRENCY);
+		Flux<Boolean> emptied = Flux.fromIterable(snapshot.values())
+				.filter(cell -> !populated.contains(cell.getString("_id")))
+				.flatMap(cell -> compareAndSet(cell, 0L, reconciledAt), RECONCILE_CONCURRENCY);
+
+		return Flux.concat(recounted, emptied)
+				.filter(Boolean::booleanValue)
+				.count();
+	}
+
+	private Mono<Boolean> create(CustomerStatsKey key, long count, Date reconciledAt) {
+		Document cell = new Document("_id", key.id())
+				.append("status", isNull(key.status()) ? null : key.status().name())
+				.append("emailVerified", key.emailVerified())
+				.append("marketingConsent", key.marketingConsent())
+				.append("preferredLanguage", key.preferredLanguage())
+				.append("count", count)
+				.append(SEQUENCE, 0L)
+				.append("reconciledAt", reconciledAt);
+		return mongoTemplate.insert(cell, STATS_COLLECTION)
+				.thenReturn(true)
+				.onErrorResume(DuplicateKeyException.class, e -> Mono.just(false));
+	}
+
+	private Mono<Boolean> compareAndSet(Document cell, long count, Date reconciledAt) {
+		if (cell.get("count", Number.class).longValue() == count) {
+			return Mono.just(false);
+		}
+		Query unchanged = Query.query(Criteria.where("_id").is(cell.getString("_id"))
+				.and(SEQUENCE).is(cell.get(SEQUENCE)));
+		return mongoTemplate.updateFirst(unchanged, new Update().set("count", count).set("reconciledAt", reconciledAt),
+						STATS_COLLECTION)
+				.map(result -> result.getModifiedCount() > 0);
+	}
+
+	private static Query cell(CustomerStatsKey key) {
+		return Query.query(Criteria.where("_id").is(key.id()));
+	}
+
+	private static Update inc(CustomerStatsKey key, long delta) {
+		return new Update().inc("count", delta)
+				.inc(SEQUENCE, 1)
+				.setOnInsert("status", isNull(key.status()) ? null : key.status().name())
+				.setOnInsert("emailVerified", key.emailVerified())
+				.setOnInsert("marketingConsent", key.marketingConsent())
+				.setOnInsert("preferredLanguage", key.preferredLanguage());
+	}
+
+	private static CustomerStatsKey toKey(Document group) {
+		String status = group.getString("status");
+		return new CustomerStatsKey(isNull(status) ? null : CustomerStatus.valueOf(status),
+				Boolean.TRUE.equals(group.get("emailVerified")),
+				Boolean.TRUE.equals(group.get("marketingConsent")),
+				group.getString("preferredLanguage"));
+	}
+}
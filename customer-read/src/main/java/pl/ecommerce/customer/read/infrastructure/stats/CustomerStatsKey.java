@@ -0,0 +1,50 @@
+package pl.ecommerce.customer.read.infrastructure.stats;
+
+import pl.ecommerce.commons.event.customer.*;
+import pl.ecommerce.commons.model.customer.CustomerPreferences;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Dimensions customers are counted by in the statistics cube.
+ */
+public record CustomerStatsKey(CustomerStatus status, boolean emailVerified, boolean marketingConsent,
+							   String preferredLanguage) {
+
+	public static CustomerStatsKey of(CustomerReadModel customer) {
+		CustomerPreferences preferences = customer.getPreferences();
+		return new CustomerStatsKey(customer.getStatus(), customer.isEmailVerified(),
+				nonNull(preferences) && preferences.isMarketingConsent(),
+				isNull(preferences) ? null : preferences.getPreferredLanguage());
+	}
+
+	/**
+	 * Events that move a customer between cube cells; the projector fetches the previous state only for these.
+	 */
+	public static boolean affects(CustomerEvent event) {
+		return event instanceof CustomerEmailChangedEvent || event instanceof CustomerEmailVerifiedEvent
+				|| event instanceof CustomerPreferencesUpdatedEvent || event instanceof CustomerDeactivatedEvent
+				|| event instanceof CustomerReactivatedEvent || event instanceof CustomerDeletedEvent;
+	}
+
+	public CustomerStatsKey apply(CustomerEvent event) {
+		return switch (event) {
+			case CustomerEmailChangedEvent e -> new CustomerStatsKey(status, false, marketingConsent, preferredLanguage);
+			case CustomerEmailVerifiedEvent e -> new CustomerStatsKey(status, true, marketingConsent, preferredLanguage);
+			case CustomerPreferencesUpdatedEvent e -> isNull(e.getPreferences()) ? this
+					: new CustomerStatsKey(status, emailVerified, e.getPreferences().isMarketingConsent(),
+					e.getPreferences().getPreferredLanguage());
+			case CustomerDeactivatedEvent e -> new CustomerStatsKey(CustomerStatus.INACTIVE, emailVerified, marketingConsent, preferredLanguage);
+			case CustomerReactivatedEvent e -> new CustomerStatsKey(CustomerStatus.ACTIVE, emailVerified, marketingConsent, preferredLanguage);
+			case CustomerDeletedEvent e -> new CustomerStatsKey(CustomerStatus.DELETED, emailVerified, marketingConsent, preferredLanguage);
+			default -> this;
+		};
+	}
+
+	public String id() {
+		return status + "|" + emailVerified + "|" + marketingConsent + "|" + preferredLanguage;
+	}
+}
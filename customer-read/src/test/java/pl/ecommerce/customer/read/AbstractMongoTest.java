@@ -0,0 +1,28 @@
+package pl.ecommerce.customer.read;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.bson.UuidRepresentation;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Base class of tests that run against a real MongoDB. The container and the template are started once
+ * and shared by every test class in the run; tests reset the collections they use before each test.
+ */
+public abstract class AbstractMongoTest {
+
+	private static final MongoDBContainer mongoContainer = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+
+	protected static final ReactiveMongoTemplate mongoTemplate;
+
+	static {
+		mongoContainer.start();
+		mongoTemplate = new ReactiveMongoTemplate(MongoClients.create(MongoClientSettings.builder()
+				.applyConnectionString(new ConnectionString(mongoContainer.getConnectionString()))
+				.uuidRepresentation(UuidRepresentation.STANDARD)
+				.build()), "customer_read_test");
+	}
+}
@@ -0,0 +1,114 @@
+package pl.ecommerce.customer.read.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.aplication.dto.CustomerSummary;
+import pl.ecommerce.customer.read.aplication.service.CustomerQueryService;
+import pl.ecommerce.customer.read.aplication.service.SummaryFields;
+import pl.ecommerce.customer.read.domain.model.CustomerSummaryView;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelIndexes;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CustomerQueryControllerExportTest {
+
+	private CustomerQueryService queryService;
+	private WebTestClient webTestClient;
+	private UUID firstId;
+	private UUID secondId;
+
+	@BeforeEach
+	void setUp() {
+		queryService = mock(CustomerQueryService.class);
+		webTestClient = WebTestClient.bindToController(new CustomerQueryController(queryService, mock(ReadModelIndexes.class)))
+				.build();
+		firstId = UUID.randomUUID();
+		secondId = UUID.randomUUID();
+	}
+
+	@Test
+	@DisplayName("Should stream matching customers as newline-delimited JSON")
+	void shouldExportNdjson() {
+		when(queryService.streamCustomers(eq(CustomerStatus.ACTIVE), eq(true), isNull(), eq(SummaryFields.parse("email"))))
+				.thenReturn(Flux.just(view(firstId), view(secondId)));
+
+		Flux<CustomerSummary> body = webTestClient.get()
+				.uri("/api/v1/customers/export?status=active&emailVerified=true&fields=email")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(CustomerSummary.class)
+				.getResponseBody();
+
+		StepVerifier.create(body)
+				.assertNext(customer -> {
+					assertThat(customer.getId()).isEqualTo(firstId);
+					assertThat(customer.getEmail()).isEqualTo(firstId + "@example.com");
+					assertThat(customer.getLastName()).isNull();
+				})
+				.assertNext(customer -> assertThat(customer.getId()).isEqualTo(secondId))
+				.verifyComplete();
+	}
+
+	@Test
+	@DisplayName("Should stream matching customers as server-sent events")
+	void shouldExportServerSentEvents() {
+		when(queryService.streamCustomers(eq(CustomerStatus.INACTIVE), isNull(), eq(false), any()))
+				.thenReturn(Flux.just(view(firstId), view(secondId)));
+
+		Flux<ServerSentEvent<CustomerSummary>> body = webTestClient.get()
+				.uri("/api/v1/customers/export?status=INACTIVE&marketingConsent=false")
+				.accept(MediaType.TEXT_EVENT_STREAM)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+				.returnResult(new ParameterizedTypeReference<ServerSentEvent<CustomerSummary>>() {
+				})
+				.getResponseBody();
+
+		StepVerifier.create(body.map(event -> event.data().getId()))
+				.expectNext(firstId, secondId)
+				.verifyComplete();
+	}
+
+	@Test
+	@DisplayName("Should reject an unknown status or field before streaming anything")
+	void shouldRejectInvalidExport() {
+		webTestClient.get()
+				.uri("/api/v1/customers/export?status=unknown")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isBadRequest();
+		webTestClient.get()
+				.uri("/api/v1/customers/export?fields=password")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isBadRequest();
+
+		verifyNoInteractions(queryService);
+	}
+
+	private static CustomerSummaryView view(UUID customerId) {
+		return CustomerSummaryView.builder()
+				.id(customerId)
+				.email(customerId + "@example.com")
+				.build();
+	}
+}
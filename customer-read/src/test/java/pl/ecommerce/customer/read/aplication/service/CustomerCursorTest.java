@@ -0,0 +1,61 @@
+package pl.ecommerce.customer.read.aplication.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerCursorTest {
+
+	@Test
+	@DisplayName("Should round trip a cursor with a sort key")
+	void shouldRoundTripValue() {
+		CustomerCursor cursor = new CustomerCursor(CustomerStatus.ACTIVE, "lastName", Sort.Direction.DESC,
+				"Kowalski-Żak.", UUID.randomUUID());
+
+		assertThat(CustomerCursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+	@Test
+	@DisplayName("Should keep a missing sort key distinct from an empty one")
+	void shouldRoundTripNullValue() {
+		UUID id = UUID.randomUUID();
+		CustomerCursor missing = new CustomerCursor(CustomerStatus.ACTIVE, "lastName", Sort.Direction.ASC, null, id);
+		CustomerCursor empty = new CustomerCursor(CustomerStatus.ACTIVE, "lastName", Sort.Direction.ASC, "", id);
+
+		assertThat(missing.encode()).isNotEqualTo(empty.encode());
+		assertThat(CustomerCursor.decode(missing.encode())).isEqualTo(missing);
+		assertThat(CustomerCursor.decode(empty.encode())).isEqualTo(empty);
+		assertThat(CustomerCursor.decode(missing.encode()).sortValue()).isNull();
+	}
+
+	@Test
+	@DisplayName("Should restore a createdAt sort key as an instant")
+	void shouldDecodeCreatedAt() {
+		Instant createdAt = Instant.parse("2024-01-01T10:00:00.123Z");
+		CustomerCursor cursor = new CustomerCursor(CustomerStatus.INACTIVE, "createdAt", Sort.Direction.ASC,
+				createdAt.toString(), UUID.randomUUID());
+
+		assertThat(CustomerCursor.decode(cursor.encode()).sortValue()).isEqualTo(createdAt);
+	}
+
+	@Test
+	@DisplayName("Should reject malformed cursors")
+	void shouldRejectMalformedCursor() {
+		String valid = new CustomerCursor(CustomerStatus.ACTIVE, "createdAt", Sort.Direction.ASC,
+				Instant.now().toString(), UUID.randomUUID()).encode();
+		String[] parts = valid.split("\\.");
+
+		assertThatThrownBy(() -> CustomerCursor.decode("abc")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> CustomerCursor.decode(String.join(".", "~", parts[1], parts[2], parts[3], parts[4])))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> CustomerCursor.decode(String.join(".", parts[0], parts[1], parts[2], "bm90LWEtZGF0ZQ", parts[4])))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,103 @@
+package pl.ecommerce.customer.read.aplication.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.AbstractMongoTest;
+import pl.ecommerce.customer.read.aplication.dto.CursorPage;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.domain.model.CustomerSummaryView;
+import pl.ecommerce.customer.read.infrastructure.cache.CustomerReadCache;
+import pl.ecommerce.customer.read.infrastructure.cache.RedisCustomerCache;
+import pl.ecommerce.customer.read.infrastructure.projector.ProjectedVersions;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import pl.ecommerce.customer.read.infrastructure.stats.CustomerStatsCounters;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerQueryServicePagingTest extends AbstractMongoTest {
+
+	private static final String COLLECTION = "customers_compact";
+
+	private CustomerQueryService queryService;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate.dropCollection(COLLECTION).block();
+		ReadModelCollections collections = mock(ReadModelCollections.class);
+		when(collections.active()).thenReturn(COLLECTION);
+		queryService = new CustomerQueryService(mongoTemplate, collections, mock(CustomerStatsCounters.class),
+				mock(CustomerReadCache.class), mock(RedisCustomerCache.class), mock(ProjectedVersions.class));
+
+		Instant createdAt = Instant.parse("2024-01-01T10:00:00Z");
+		List<String> lastNames = new ArrayList<>(List.of("Nowak", "Doe", "Nowak", "Abacki", "Doe"));
+		lastNames.add(null);
+		lastNames.add(null);
+		lastNames.add(null);
+		for (int i = 0; i < lastNames.size(); i++) {
+			mongoTemplate.insert(CustomerReadModel.builder()
+					.id(UUID.randomUUID())
+					.email("customer" + i + "@example.com")
+					.lastName(lastNames.get(i))
+					.status(CustomerStatus.ACTIVE)
+					.createdAt(createdAt.plusSeconds(i % 3))
+					.build(), COLLECTION).block();
+		}
+		mongoTemplate.insert(CustomerReadModel.builder()
+				.id(UUID.randomUUID())
+				.email("inactive@example.com")
+				.lastName("Doe")
+				.status(CustomerStatus.INACTIVE)
+				.createdAt(createdAt)
+				.build(), COLLECTION).block();
+	}
+
+	@ParameterizedTest
+	@EnumSource(Sort.Direction.class)
+	@DisplayName("Should page by last name through customers without one, without gaps or repeats")
+	void shouldPageThroughNullLastNames(Sort.Direction direction) {
+		assertThat(pageThrough("lastName", direction)).containsExactlyElementsOf(expectedOrder("lastName", direction));
+	}
+
+	@ParameterizedTest
+	@EnumSource(Sort.Direction.class)
+	@DisplayName("Should page by creation time through equal timestamps in id order")
+	void shouldPageThroughEqualCreatedAt(Sort.Direction direction) {
+		assertThat(pageThrough("createdAt", direction)).containsExactlyElementsOf(expectedOrder("createdAt", direction));
+	}
+
+	private List<UUID> pageThrough(String sortBy, Sort.Direction direction) {
+		List<UUID> ids = new ArrayList<>();
+		CustomerCursor after = null;
+		do {
+			CursorPage<CustomerSummaryView> page = queryService.findByStatusAfter(CustomerStatus.ACTIVE, sortBy, direction,
+					after, 2, false, SummaryFields.ALL).block();
+			page.getItems().forEach(item -> ids.add(item.getId()));
+			after = nonNull(page.getNextCursor()) ? CustomerCursor.decode(page.getNextCursor()) : null;
+		} while (nonNull(after));
+		return ids;
+	}
+
+	private List<UUID> expectedOrder(String sortBy, Sort.Direction direction) {
+		Query query = Query.query(Criteria.where("status").is(CustomerStatus.ACTIVE)).with(Sort.by(direction, sortBy, "id"));
+		List<UUID> ids = mongoTemplate.find(query, CustomerSummaryView.class, COLLECTION)
+				.map(CustomerSummaryView::getId)
+				.collectList()
+				.block();
+		assertThat(ids).hasSize(8);
+		return ids;
+	}
+}
@@ -0,0 +1,115 @@
+package pl.ecommerce.customer.read.aplication.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.AbstractMongoTest;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.domain.model.CustomerSummaryView;
+import pl.ecommerce.customer.read.infrastructure.cache.CustomerReadCache;
+import pl.ecommerce.customer.read.infrastructure.cache.RedisCustomerCache;
+import pl.ecommerce.customer.read.infrastructure.projector.ProjectedVersions;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import pl.ecommerce.customer.read.infrastructure.stats.CustomerStatsCounters;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static pl.ecommerce.customer.read.infrastructure.projector.CustomerEventProjectorHelper.searchKey;
+
+class CustomerQueryServiceSearchTest extends AbstractMongoTest {
+
+	private static final String COLLECTION = "customers_compact";
+
+	private CustomerQueryService queryService;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate.dropCollection(COLLECTION).block();
+		ReadModelCollections collections = mock(ReadModelCollections.class);
+		when(collections.active()).thenReturn(COLLECTION);
+		queryService = new CustomerQueryService(mongoTemplate, collections, mock(CustomerStatsCounters.class),
+				mock(CustomerReadCache.class), mock(RedisCustomerCache.class), mock(ProjectedVersions.class));
+
+		insert("Jan", "Kowalski", CustomerStatus.ACTIVE);
+		insert("Janina", "Nowak", CustomerStatus.ACTIVE);
+		insert("Adam", "Janowski", CustomerStatus.ACTIVE);
+		insert("Piotr", "Zielinski", CustomerStatus.ACTIVE);
+		insert("Jan", "Nieaktywny", CustomerStatus.INACTIVE);
+	}
+
+	@Test
+	@DisplayName("Should match active customers by first or last name prefix, sorted and counted in one query")
+	void shouldPageAndCountMatches() {
+		StepVerifier.create(queryService.searchByName("JAN", PageRequest.of(0, 2), SummaryFields.ALL))
+				.assertNext(page -> {
+					assertThat(page.getT1()).extracting(CustomerSummaryView::getLastName)
+							.containsExactly("Janowski", "Kowalski");
+					assertThat(page.getT2()).isEqualTo(3);
+				})
+				.verifyComplete();
+
+		StepVerifier.create(queryService.searchByName("jan", PageRequest.of(1, 2), SummaryFields.ALL))
+				.assertNext(page -> {
+					assertThat(page.getT1()).extracting(CustomerSummaryView::getLastName).containsExactly("Nowak");
+					assertThat(page.getT2()).isEqualTo(3);
+				})
+				.verifyComplete();
+	}
+
+	@Test
+	@DisplayName("Should still count all matches when the page is past the last one")
+	void shouldCountBeyondLastPage() {
+		StepVerifier.create(queryService.searchByName("jan", PageRequest.of(5, 2), SummaryFields.ALL))
+				.assertNext(page -> {
+					assertThat(page.getT1()).isEmpty();
+					assertThat(page.getT2()).isEqualTo(3);
+				})
+				.verifyComplete();
+	}
+
+	@Test
+	@DisplayName("Should return an empty page without matches and treat regex characters literally")
+	void shouldReturnEmptyPage() {
+		StepVerifier.create(queryService.searchByName("j.", PageRequest.of(0, 10), SummaryFields.ALL))
+				.assertNext(page -> {
+					assertThat(page.getT1()).isEmpty();
+					assertThat(page.getT2()).isZero();
+				})
+				.verifyComplete();
+	}
+
+	@Test
+	@DisplayName("Should return only the requested fields of matching customers")
+	void shouldProjectRequestedFields() {
+		StepVerifier.create(queryService.searchByName("kow", PageRequest.of(0, 10), SummaryFields.parse("firstName")))
+				.assertNext(page -> {
+					CustomerSummaryView customer = page.getT1().getFirst();
+					assertThat(customer.getId()).isNotNull();
+					assertThat(customer.getFirstName()).isEqualTo("Jan");
+					assertThat(customer.getLastName()).isNull();
+					assertThat(customer.getEmail()).isNull();
+				})
+				.verifyComplete();
+	}
+
+	private static void insert(String firstName, String lastName, CustomerStatus status) {
+		UUID customerId = UUID.randomUUID();
+		mongoTemplate.insert(CustomerReadModel.builder()
+				.id(customerId)
+				.email(customerId + "@example.com")
+				.firstName(firstName)
+				.lastName(lastName)
+				.firstNameLower(searchKey(firstName))
+				.lastNameLower(searchKey(lastName))
+				.status(status)
+				.createdAt(Instant.parse("2024-01-01T10:00:00Z"))
+				.build(), COLLECTION).block();
+	}
+}
@@ -0,0 +1,124 @@
+package pl.ecommerce.customer.read.aplication.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import pl.ecommerce.commons.model.customer.Address;
+import pl.ecommerce.commons.model.customer.AddressType;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.AbstractMongoTest;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.domain.model.CustomerSummaryView;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SummaryFieldsTest extends AbstractMongoTest {
+
+	private static final String COLLECTION = "customers_compact";
+
+	private UUID withAddresses;
+	private UUID withoutAddresses;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate.dropCollection(COLLECTION).block();
+		withAddresses = insert("Abacki", List.of(address(), address()));
+		withoutAddresses = insert("Babacki", null);
+	}
+
+	@Test
+	@DisplayName("Should parse a field list, always adding the id, and fall back to all fields when blank")
+	void shouldParseFields() {
+		SummaryFields fields = SummaryFields.parse(" lastName, email ,");
+
+		assertThat(fields.names()).containsExactly("email", "id", "lastName");
+		assertThat(fields.cacheKey()).isEqualTo("email,id,lastName");
+		assertThat(SummaryFields.parse(null)).isSameAs(SummaryFields.ALL);
+		assertThat(SummaryFields.parse(" ")).isSameAs(SummaryFields.ALL);
+		assertThat(SummaryFields.ALL.names())
+				.containsExactlyInAnyOrder("id", "firstName", "lastName", "email", "status", "createdAt", "addressCount", "traceId");
+	}
+
+	@Test
+	@DisplayName("Should reject fields that are not part of the summary")
+	void shouldRejectUnknownFields() {
+		assertThatThrownBy(() -> SummaryFields.parse("email,passwordHash,addresses"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("[addresses, passwordHash]");
+	}
+
+	@Test
+	@DisplayName("Should only read the requested fields and count addresses in Mongo")
+	void shouldProjectQuery() {
+		Query query = SummaryFields.parse("lastName,addressCount").applyTo(new Query().with(Sort.by("lastName")));
+
+		List<CustomerSummaryView> customers = mongoTemplate.find(query, CustomerSummaryView.class, COLLECTION)
+				.collectList()
+				.block();
+
+		assertThat(customers)
+				.extracting(CustomerSummaryView::getId, CustomerSummaryView::getLastName, CustomerSummaryView::getAddressCount,
+						CustomerSummaryView::getEmail, CustomerSummaryView::getStatus)
+				.containsExactly(tuple(withAddresses, "Abacki", 2, null, null), tuple(withoutAddresses, "Babacki", 0, null, null));
+	}
+
+	@Test
+	@DisplayName("Should add fields the caller needs for itself to the projection")
+	void shouldIncludeRequiredFields() {
+		Query query = SummaryFields.parse("email").applyTo(new Query(), CustomerReadModel.CREATED_AT);
+
+		Document document = mongoTemplate.find(query, Document.class, COLLECTION).blockFirst();
+
+		assertThat(document.keySet()).containsExactlyInAnyOrder(CustomerReadModel.ID, CustomerReadModel.EMAIL,
+				CustomerReadModel.CREATED_AT);
+	}
+
+	@Test
+	@DisplayName("Should apply the same selection as an aggregation stage")
+	void shouldProjectAggregation() {
+		Aggregation aggregation = Aggregation.newAggregation(
+				Aggregation.sort(Sort.by(CustomerReadModel.LAST_NAME)),
+				SummaryFields.parse("addressCount").toProjection());
+
+		List<Document> documents = mongoTemplate.aggregate(aggregation, COLLECTION, Document.class)
+				.collectList()
+				.block();
+
+		assertThat(documents).extracting(document -> document.get("addressCount")).containsExactly(2, 0);
+		assertThat(documents).allSatisfy(document ->
+				assertThat(document.keySet()).containsExactlyInAnyOrder(CustomerReadModel.ID, "addressCount"));
+	}
+
+	private static UUID insert(String lastName, List<Address> addresses) {
+		UUID customerId = UUID.randomUUID();
+		mongoTemplate.insert(CustomerReadModel.builder()
+				.id(customerId)
+				.email(customerId + "@example.com")
+				.lastName(lastName)
+				.status(CustomerStatus.ACTIVE)
+				.createdAt(Instant.parse("2024-01-01T10:00:00Z"))
+				.addresses(addresses)
+				.build(), COLLECTION).block();
+		return customerId;
+	}
+
+	private static Address address() {
+		return Address.builder()
+				.id(UUID.randomUUID())
+				.addressType(AddressType.SHIPPING)
+				.street("Main St")
+				.city("Warsaw")
+				.country("Poland")
+				.build();
+	}
+}
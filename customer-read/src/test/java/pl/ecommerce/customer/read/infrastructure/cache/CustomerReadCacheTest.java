@@ -0,0 +1,148 @@
+package pl.ecommerce.customer.read.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerReadCacheTest {
+
+	private CustomerReadCache readCache;
+	private UUID customerId;
+	private AtomicLong storedVersion;
+	private AtomicInteger loads;
+
+	@BeforeEach
+	void setUp() {
+		readCache = new CustomerReadCache(new SimpleMeterRegistry(), true, 100, 60000, "customer-read");
+		customerId = UUID.randomUUID();
+		storedVersion = new AtomicLong(1);
+		loads = new AtomicInteger();
+	}
+
+	@Test
+	@DisplayName("Should serve a cached document that already reached the requested version")
+	void shouldServeCachedDocumentAtRequestedVersion() {
+		readCache.getById(customerId, this::load).block();
+
+		StepVerifier.create(readCache.getById(customerId, 1, this::load))
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(1L))
+				.verifyComplete();
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	@DisplayName("Should reload and replace a cached document older than the requested version")
+	void shouldBypassStaleEntry() {
+		readCache.getById(customerId, this::load).block();
+		storedVersion.set(2);
+
+		StepVerifier.create(readCache.getById(customerId, 2, this::load))
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(2L))
+				.verifyComplete();
+		StepVerifier.create(readCache.getById(customerId, this::load))
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(2L))
+				.verifyComplete();
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	@DisplayName("Should reload a customer after the projector invalidated it")
+	void shouldReloadAfterInvalidation() {
+		readCache.getById(customerId, this::load).block();
+		storedVersion.set(2);
+		readCache.invalidate(customerId);
+
+		StepVerifier.create(readCache.getById(customerId, this::load))
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(2L))
+				.verifyComplete();
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	@DisplayName("Should not cache a document read before an invalidation that arrived during the lookup")
+	void shouldNotCacheDocumentInvalidatedDuringLookup() {
+		Sinks.One<CustomerReadModel> slowRead = Sinks.one();
+		StepVerifier.create(readCache.getById(customerId, slowRead::asMono))
+				.then(() -> {
+					readCache.invalidate(customerId);
+					slowRead.tryEmitValue(customer(1));
+				})
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(1L))
+				.verifyComplete();
+
+		storedVersion.set(2);
+		StepVerifier.create(readCache.getById(customerId, this::load))
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(2L))
+				.verifyComplete();
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	@DisplayName("Should cache a document loaded after the last invalidation")
+	void shouldCacheDocumentLoadedAfterInvalidation() {
+		readCache.invalidate(customerId);
+		readCache.getById(customerId, this::load).block();
+
+		readCache.getById(customerId, this::load).block();
+
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	@DisplayName("Should serve email lookups from the id entry and miss once that entry is invalidated or changed")
+	void shouldResolveEmailThroughIdEntry() {
+		readCache.getByEmail("John.Doe@example.com", this::load).block();
+		readCache.getByEmail("john.doe@example.com", this::load).block();
+		assertThat(loads).hasValue(1);
+
+		readCache.invalidate(customerId);
+		readCache.getByEmail("john.doe@example.com", this::load).block();
+		assertThat(loads).hasValue(2);
+
+		CustomerReadModel emailChanged = customer(2);
+		emailChanged.setEmail("jan@example.com");
+		readCache.getById(customerId, 2, () -> Mono.just(emailChanged)).block();
+		readCache.getByEmail("john.doe@example.com", this::load).block();
+		assertThat(loads).hasValue(3);
+	}
+
+	@Test
+	@DisplayName("Should always call the loader when the near cache is disabled")
+	void shouldBypassWhenDisabled() {
+		CustomerReadCache disabled = new CustomerReadCache(new SimpleMeterRegistry(), false, 100, 60000, "customer-read");
+
+		disabled.getById(customerId, this::load).block();
+		disabled.getById(customerId, this::load).block();
+		disabled.getByEmail("john.doe@example.com", this::load).block();
+
+		assertThat(loads).hasValue(3);
+	}
+
+	private Mono<CustomerReadModel> load() {
+		return Mono.fromSupplier(() -> {
+			loads.incrementAndGet();
+			return customer(storedVersion.get());
+		});
+	}
+
+	private CustomerReadModel customer(long version) {
+		return CustomerReadModel.builder()
+				.id(customerId)
+				.email("john.doe@example.com")
+				.status(CustomerStatus.ACTIVE)
+				.version(version)
+				.build();
+	}
+}
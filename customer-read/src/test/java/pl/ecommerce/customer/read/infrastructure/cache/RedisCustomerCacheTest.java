@@ -0,0 +1,217 @@
+package pl.ecommerce.customer.read.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.domain.model.CustomerSummaryView;
+import pl.ecommerce.customer.read.infrastructure.projector.ProjectedVersions;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Testcontainers
+class RedisCustomerCacheTest {
+
+	@Container
+	static final GenericContainer<?> redisContainer = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+			.withExposedPorts(6379);
+
+	static LettuceConnectionFactory connectionFactory;
+
+	private RedisCustomerCache cache;
+	private UUID customerId;
+	private AtomicInteger loads;
+
+	@BeforeAll
+	static void setUpConnection() {
+		connectionFactory = new LettuceConnectionFactory(redisContainer.getHost(), redisContainer.getMappedPort(6379));
+		connectionFactory.afterPropertiesSet();
+		connectionFactory.start();
+	}
+
+	@AfterAll
+	static void tearDownConnection() {
+		connectionFactory.destroy();
+	}
+
+	@BeforeEach
+	void setUp() {
+		connectionFactory.getReactiveConnection().serverCommands().flushAll().block();
+		ReadModelCollections collections = mock(ReadModelCollections.class);
+		when(collections.active()).thenReturn("customers");
+		CustomerReadCache readCache = new CustomerReadCache(new SimpleMeterRegistry(), true, 100, 10000, "test");
+
+		cache = new RedisCustomerCache(connectionFactory, new ReactiveStringRedisTemplate(connectionFactory),
+				new ObjectMapper().findAndRegisterModules(), collections, readCache, new ProjectedVersions(2000, 100),
+				true, 60000, 60000, 50);
+		cache.init();
+		customerId = UUID.randomUUID();
+		loads = new AtomicInteger();
+	}
+
+	@AfterEach
+	void tearDown() {
+		cache.shutdown();
+	}
+
+	@Test
+	@DisplayName("Should serve repeated lookups from Redis")
+	void shouldServeRepeatedLookupsFromRedis() {
+		StepVerifier.create(cache.getById(customerId, () -> load(1)))
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(1L))
+				.verifyComplete();
+		StepVerifier.create(cache.getById(customerId, () -> load(1)))
+				.assertNext(customer -> {
+					assertThat(customer.getId()).isEqualTo(customerId);
+					assertThat(customer.getEmail()).isEqualTo("john.doe@example.com");
+				})
+				.verifyComplete();
+
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	@DisplayName("Should coalesce concurrent misses into a single load")
+	void shouldCoalesceConcurrentMisses() {
+		StepVerifier.create(Flux.range(0, 20)
+						.flatMap(i -> cache.getById(customerId, () -> load(1).delayElement(Duration.ofMillis(200)))))
+				.expectNextCount(20)
+				.verifyComplete();
+
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	@DisplayName("Should reload a customer after a projection publishes a newer version")
+	void shouldReloadAfterInvalidation() {
+		StepVerifier.create(cache.getById(customerId, () -> load(1)))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		StepVerifier.create(cache.invalidate(customerId, 2)).verifyComplete();
+
+		StepVerifier.create(cache.getById(customerId, () -> load(2)))
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(2L))
+				.verifyComplete();
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	@DisplayName("Should advance the version pointer before other replicas are told to reload")
+	void shouldPublishAfterVersionPointer() {
+		ReactiveRedisMessageListenerContainer listener = new ReactiveRedisMessageListenerContainer(connectionFactory);
+		ReactiveStringRedisTemplate redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+		try {
+			StepVerifier.create(listener.receive(ChannelTopic.of(RedisCustomerCache.INVALIDATION_CHANNEL))
+							.next()
+							.flatMap(message -> redisTemplate.opsForValue()
+									.get("customer-read:customers:version:" + message.getMessage())))
+					.then(() -> cache.invalidate(customerId, 2).delaySubscription(Duration.ofMillis(200)).subscribe())
+					.expectNext("2")
+					.verifyComplete();
+		} finally {
+			listener.destroy();
+		}
+	}
+
+	@Test
+	@DisplayName("Should never serve a document loaded before the projection that superseded it")
+	void shouldNotServeStaleDocument() {
+		StepVerifier.create(cache.invalidate(customerId, 2)).verifyComplete();
+		StepVerifier.create(cache.getById(customerId, () -> load(1)))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		StepVerifier.create(cache.getById(customerId, () -> load(2)))
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(2L))
+				.verifyComplete();
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	@DisplayName("Should resolve emails case-insensitively through the cached id")
+	void shouldServeEmailLookupsFromRedis() {
+		StepVerifier.create(cache.getByEmail("John.Doe@example.com", () -> load(1)))
+				.expectNextCount(1)
+				.verifyComplete();
+		StepVerifier.create(cache.getByEmail("john.doe@example.com", () -> load(1)))
+				.assertNext(customer -> assertThat(customer.getId()).isEqualTo(customerId))
+				.verifyComplete();
+
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	@DisplayName("Should cache status pages until a projection bumps the list generation")
+	void shouldInvalidateCachedPages() {
+		PageRequest pageable = PageRequest.of(0, 20);
+		CustomerStatus customerStatus = CustomerStatus.ACTIVE;
+		AtomicInteger pageLoads = new AtomicInteger();
+		Supplier<Mono<RedisCustomerCache.CachedPage>> loader = () -> Mono.fromSupplier(() -> {
+			pageLoads.incrementAndGet();
+			return new RedisCustomerCache.CachedPage(List.of(CustomerSummaryView.builder()
+					.id(customerId)
+					.lastName("Doe")
+					.addressCount(0)
+					.build()), 1L);
+		});
+
+		StepVerifier.create(cache.getPage(customerStatus, pageable, "id,lastName", loader)).expectNextCount(1).verifyComplete();
+		StepVerifier.create(cache.getPage(customerStatus, pageable, "id,lastName", loader)).expectNextCount(1).verifyComplete();
+		assertThat(pageLoads).hasValue(1);
+
+		StepVerifier.create(cache.invalidate(customerId, 2)
+						.then(Mono.delay(Duration.ofMillis(300)))
+						.then(cache.getPage(customerStatus, pageable, "id,lastName", loader)))
+				.expectNextCount(1)
+				.verifyComplete();
+		assertThat(pageLoads).hasValue(2);
+	}
+
+	private Mono<CustomerReadModel> load(long version) {
+		return Mono.fromSupplier(() -> {
+			loads.incrementAndGet();
+			return customer(version);
+		});
+	}
+
+	private CustomerReadModel customer(long version) {
+		return CustomerReadModel.builder()
+				.id(customerId)
+				.email("john.doe@example.com")
+				.firstName("John")
+				.lastName("Doe")
+				.status(CustomerStatus.ACTIVE)
+				.createdAt(Instant.parse("2024-01-01T10:00:00Z"))
+				.version(version)
+				.build();
+	}
+}
@@ -0,0 +1,153 @@
+package pl.ecommerce.customer.read.infrastructure.projector;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import pl.ecommerce.commons.event.customer.CustomerAddressAddedEvent;
+import pl.ecommerce.commons.event.customer.CustomerAddressRemovedEvent;
+import pl.ecommerce.commons.event.customer.CustomerAddressUpdatedEvent;
+import pl.ecommerce.commons.event.customer.CustomerRegisteredEvent;
+import pl.ecommerce.commons.model.customer.Address;
+import pl.ecommerce.commons.model.customer.AddressType;
+import pl.ecommerce.customer.read.AbstractMongoTest;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static pl.ecommerce.customer.read.infrastructure.projector.CustomerEventProjectorHelper.*;
+
+class CustomerEventProjectorHelperTest extends AbstractMongoTest {
+
+	private static final String COLLECTION = "customers_compact";
+
+	private UUID customerId;
+	private UUID firstAddressId;
+	private UUID secondAddressId;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate.dropCollection(COLLECTION).block();
+		customerId = UUID.randomUUID();
+		firstAddressId = UUID.randomUUID();
+		secondAddressId = UUID.randomUUID();
+
+		mongoTemplate.insert(buildCustomerReadModel(CustomerRegisteredEvent.builder()
+				.customerId(customerId)
+				.email("john.doe@example.com")
+				.firstName("John")
+				.lastName("Doe")
+				.timestamp(Instant.parse("2024-01-01T10:00:00Z"))
+				.version(0)
+				.build()), COLLECTION).block();
+	}
+
+	@Test
+	@DisplayName("Should add, update and remove addresses matched by their stored _id")
+	void shouldProjectAddressLifecycle() {
+		addAddress(firstAddressId, "Main St", true, 1);
+		addAddress(secondAddressId, "Second St", false, 2);
+
+		apply(buildAddressUpdatedUpdate(updated(firstAddressId, "Updated St", false, 3)), 4);
+		assertThat(stored().getAddresses())
+				.extracting(Address::getId, Address::getStreet, Address::isDefault)
+				.containsExactly(
+						tuple(firstAddressId, "Updated St", true),
+						tuple(secondAddressId, "Second St", false));
+
+		apply(buildAddressRemovedUpdate(removed(secondAddressId, 4)), 5);
+		assertThat(stored().getAddresses())
+				.extracting(Address::getId)
+				.containsExactly(firstAddressId);
+		assertThat(stored().getVersion()).isEqualTo(5L);
+	}
+
+	@Test
+	@DisplayName("Should demote the previous default when another address becomes the default")
+	void shouldMoveDefaultOnUpdate() {
+		addAddress(firstAddressId, "Main St", true, 1);
+		addAddress(secondAddressId, "Second St", false, 2);
+
+		apply(buildAddressUpdatedUpdate(updated(secondAddressId, "Second St", true, 3)), 4);
+
+		List<Address> addresses = stored().getAddresses();
+		assertThat(addresses).filteredOn(Address::isDefault)
+				.extracting(Address::getId)
+				.containsExactly(secondAddressId);
+	}
+
+	@Test
+	@DisplayName("Should promote the first remaining address of the same type when the default is removed")
+	void shouldPromoteAddressWhenDefaultRemoved() {
+		addAddress(firstAddressId, "Main St", true, 1);
+		addAddress(secondAddressId, "Second St", false, 2);
+
+		apply(buildAddressRemovedUpdate(removed(firstAddressId, 3)), 4);
+
+		assertThat(stored().getAddresses()).singleElement()
+				.satisfies(address -> {
+					assertThat(address.getId()).isEqualTo(secondAddressId);
+					assertThat(address.isDefault()).isTrue();
+				});
+	}
+
+	private void addAddress(UUID addressId, String street, boolean isDefault, int version) {
+		CustomerAddressAddedEvent event = CustomerAddressAddedEvent.builder()
+				.customerId(customerId)
+				.addressId(addressId)
+				.addressType(AddressType.SHIPPING)
+				.street(street)
+				.buildingNumber("1")
+				.city("Warsaw")
+				.postalCode("00-001")
+				.country("Poland")
+				.isDefault(isDefault)
+				.timestamp(Instant.now())
+				.version(version)
+				.build();
+		Object document = mongoTemplate.getConverter().convertToMongoType(buildAddress(event));
+		apply(buildAddressAddedUpdate(event, document), version + 1L);
+	}
+
+	private CustomerAddressUpdatedEvent updated(UUID addressId, String street, boolean isDefault, int version) {
+		return CustomerAddressUpdatedEvent.builder()
+				.customerId(customerId)
+				.addressId(addressId)
+				.street(street)
+				.buildingNumber("1")
+				.city("Warsaw")
+				.postalCode("00-001")
+				.country("Poland")
+				.isDefault(isDefault)
+				.timestamp(Instant.now())
+				.version(version)
+				.build();
+	}
+
+	private CustomerAddressRemovedEvent removed(UUID addressId, int version) {
+		return CustomerAddressRemovedEvent.builder()
+				.customerId(customerId)
+				.addressId(addressId)
+				.timestamp(Instant.now())
+				.version(version)
+				.build();
+	}
+
+	private void apply(UpdateDefinition update, long version) {
+		Query query = Query.query(Criteria.where("id").is(customerId));
+		long modified = mongoTemplate.updateFirst(query, withVersion(update, version), CustomerReadModel.class, COLLECTION)
+				.block()
+				.getModifiedCount();
+		assertThat(modified).isEqualTo(1L);
+	}
+
+	private CustomerReadModel stored() {
+		return mongoTemplate.findById(customerId, CustomerReadModel.class, COLLECTION).block();
+	}
+}
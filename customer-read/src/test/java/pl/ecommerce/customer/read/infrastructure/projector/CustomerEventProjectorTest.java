@@ -0,0 +1,177 @@
+package pl.ecommerce.customer.read.infrastructure.projector;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.Environment;
+import pl.ecommerce.commons.event.customer.CustomerRegisteredEvent;
+import pl.ecommerce.commons.event.customer.CustomerUpdatedEvent;
+import pl.ecommerce.commons.kafka.TopicsProvider;
+import pl.ecommerce.customer.read.AbstractMongoTest;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.infrastructure.cache.CustomerReadCache;
+import pl.ecommerce.customer.read.infrastructure.cache.RedisCustomerCache;
+import pl.ecommerce.customer.read.infrastructure.client.CustomerEventStoreClient;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import pl.ecommerce.customer.read.infrastructure.stats.CustomerStatsCounters;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomerEventProjectorTest extends AbstractMongoTest {
+
+	private static final String COLLECTION = "customers_compact";
+	private static final Instant REGISTERED_AT = Instant.parse("2024-01-01T10:00:00Z");
+
+	private SimpleMeterRegistry registry;
+	private CustomerEventStoreClient eventStoreClient;
+	private ProjectionWriteBuffer writeBuffer;
+	private CustomerEventProjector projector;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate.dropCollection(COLLECTION).block();
+		registry = new SimpleMeterRegistry();
+		ProjectionMetrics metrics = new ProjectionMetrics(registry, "customer-read");
+
+		ReadModelCollections collections = mock(ReadModelCollections.class);
+		when(collections.resolveActive()).thenReturn(Mono.just(COLLECTION));
+		CustomerStatsCounters statsCounters = mock(CustomerStatsCounters.class);
+		when(statsCounters.increment(any())).thenReturn(Mono.empty());
+		when(statsCounters.move(any(), any())).thenReturn(Mono.empty());
+		RedisCustomerCache redisCache = mock(RedisCustomerCache.class);
+		when(redisCache.invalidate(any(), anyLong())).thenReturn(Mono.empty());
+		Environment environment = mock(Environment.class);
+		when(environment.getProperty("spring.application.name")).thenReturn("customer-read");
+		eventStoreClient = mock(CustomerEventStoreClient.class);
+
+		writeBuffer = new ProjectionWriteBuffer(mongoTemplate, metrics, collections, 0, 256, 16, 2048, 50);
+		projector = new CustomerEventProjector(mongoTemplate, eventStoreClient, metrics, writeBuffer, collections,
+				statsCounters, mock(CustomerReadCache.class), redisCache, mock(ProjectedVersions.class),
+				new ObjectMapper(), mock(TopicsProvider.class), environment);
+		projector.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		projector.shutdown();
+		writeBuffer.shutdown();
+	}
+
+	@Test
+	@DisplayName("Should apply interleaved customer updates in per-customer version order")
+	void shouldApplyUpdatesInVersionOrder() {
+		UUID first = register();
+		UUID second = register();
+
+		StepVerifier.create(Flux.just(
+						updated(first, 1, Map.of("lastName", "Nowak")),
+						updated(second, 1, Map.of("lastName", "Wisniewski")),
+						updated(first, 2, Map.of("lastName", "Kowalski")),
+						updated(first, 3, Map.of("firstName", "Jan")))
+						.concatMap(projector::on)
+						.then())
+				.verifyComplete();
+
+		CustomerReadModel firstCustomer = stored(first);
+		assertThat(firstCustomer.getFirstName()).isEqualTo("Jan");
+		assertThat(firstCustomer.getLastName()).isEqualTo("Kowalski");
+		assertThat(firstCustomer.getVersion()).isEqualTo(4L);
+		assertThat(stored(second).getLastName()).isEqualTo("Wisniewski");
+		assertThat(stored(second).getVersion()).isEqualTo(2L);
+	}
+
+	@Test
+	@DisplayName("Should skip an event the read model already reflects")
+	void shouldSkipDuplicate() {
+		UUID customerId = register();
+		CustomerUpdatedEvent redelivered = updated(customerId, 1, Map.of("lastName", "Nowak"));
+		projector.on(redelivered).block();
+		projector.on(updated(customerId, 2, Map.of("lastName", "Kowalski"))).block();
+
+		StepVerifier.create(projector.on(redelivered))
+				.verifyComplete();
+
+		assertThat(stored(customerId).getLastName()).isEqualTo("Kowalski");
+		assertThat(stored(customerId).getVersion()).isEqualTo(3L);
+		assertThat(registry.get("projection_duplicate_events_total").counter().count()).isEqualTo(1);
+		verify(eventStoreClient, never()).fetchEvents(any(), anyLong());
+	}
+
+	@Test
+	@DisplayName("Should close a version gap by replaying the missing events from the write side")
+	void shouldReplayMissingEvents() {
+		UUID customerId = register();
+		CustomerUpdatedEvent ahead = updated(customerId, 3, Map.of("firstName", "Jan"));
+		when(eventStoreClient.fetchEvents(customerId, 1L)).thenReturn(Flux.just(
+				updated(customerId, 1, Map.of("lastName", "Nowak")),
+				updated(customerId, 2, Map.of("lastName", "Kowalski")),
+				ahead));
+
+		StepVerifier.create(projector.on(ahead))
+				.verifyComplete();
+
+		CustomerReadModel customer = stored(customerId);
+		assertThat(customer.getFirstName()).isEqualTo("Jan");
+		assertThat(customer.getLastName()).isEqualTo("Kowalski");
+		assertThat(customer.getVersion()).isEqualTo(4L);
+		assertThat(registry.get("projection_version_gaps_total").counter().count()).isEqualTo(1);
+		assertThat(registry.get("projection_replayed_events_total").counter().count()).isEqualTo(3);
+	}
+
+	@Test
+	@DisplayName("Should not replay again when the write side cannot close the gap")
+	void shouldStopWhenGapPersists() {
+		UUID customerId = register();
+		when(eventStoreClient.fetchEvents(customerId, 1L))
+				.thenReturn(Flux.just(updated(customerId, 3, Map.of("firstName", "Jan"))));
+
+		StepVerifier.create(projector.on(updated(customerId, 3, Map.of("firstName", "Jan"))))
+				.verifyComplete();
+
+		assertThat(stored(customerId).getVersion()).isEqualTo(1L);
+		assertThat(registry.get("projection_version_gaps_total").counter().count()).isEqualTo(2);
+		verify(eventStoreClient).fetchEvents(customerId, 1L);
+	}
+
+	private UUID register() {
+		UUID customerId = UUID.randomUUID();
+		projector.on(CustomerRegisteredEvent.builder()
+				.customerId(customerId)
+				.email(customerId + "@example.com")
+				.firstName("John")
+				.lastName("Doe")
+				.timestamp(REGISTERED_AT)
+				.version(0)
+				.build()).block();
+		return customerId;
+	}
+
+	private CustomerReadModel stored(UUID customerId) {
+		return mongoTemplate.findById(customerId, CustomerReadModel.class, COLLECTION).block();
+	}
+
+	private static CustomerUpdatedEvent updated(UUID customerId, int version, Map<String, Object> changes) {
+		return CustomerUpdatedEvent.builder()
+				.customerId(customerId)
+				.changes(changes)
+				.timestamp(REGISTERED_AT.plusSeconds(60L * version))
+				.version(version)
+				.build();
+	}
+}
@@ -0,0 +1,106 @@
+package pl.ecommerce.customer.read.infrastructure.projector;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectedVersionsTest {
+
+	private ProjectedVersions projectedVersions;
+	private UUID customerId;
+	private AtomicLong storedVersion;
+	private AtomicInteger loads;
+
+	@BeforeEach
+	void setUp() {
+		projectedVersions = new ProjectedVersions(500, 100);
+		customerId = UUID.randomUUID();
+		storedVersion = new AtomicLong(1);
+		loads = new AtomicInteger();
+	}
+
+	@Test
+	@DisplayName("Should serve the document right away when it already reached the requested version")
+	void shouldServeReachedVersionImmediately() {
+		StepVerifier.create(projectedVersions.await(customerId, 1, this::load))
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(1L))
+				.verifyComplete();
+
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	@DisplayName("Should hold the read until the projector signals the requested version")
+	void shouldReleaseReadOnProjection() {
+		StepVerifier.create(projectedVersions.await(customerId, 3, this::load))
+				.expectSubscription()
+				.then(() -> project(2))
+				.then(() -> project(3))
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(3L))
+				.verifyComplete();
+
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	@DisplayName("Should reload on invalidations from other replicas")
+	void shouldReloadOnUnknownVersion() {
+		StepVerifier.create(projectedVersions.await(customerId, 2, this::load))
+				.expectSubscription()
+				.then(() -> {
+					storedVersion.set(2);
+					projectedVersions.projected(customerId, ProjectedVersions.UNKNOWN);
+				})
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(2L))
+				.verifyComplete();
+	}
+
+	@Test
+	@DisplayName("Should serve the current document once the timeout expires")
+	void shouldServeCurrentDocumentAfterTimeout() {
+		StepVerifier.create(projectedVersions.await(customerId, 5, this::load))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(300))
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(1L))
+				.verifyComplete();
+	}
+
+	@Test
+	@DisplayName("Should not keep signals for customers nobody waits on")
+	void shouldIgnoreSignalsWithoutWaiters() {
+		project(2);
+
+		StepVerifier.create(projectedVersions.await(customerId, 2, this::load))
+				.assertNext(customer -> assertThat(customer.getVersion()).isEqualTo(2L))
+				.verifyComplete();
+		assertThat(loads).hasValue(1);
+	}
+
+	private void project(long version) {
+		storedVersion.set(version);
+		projectedVersions.projected(customerId, version);
+	}
+
+	private Mono<CustomerReadModel> load() {
+		return Mono.fromSupplier(() -> {
+			loads.incrementAndGet();
+			return CustomerReadModel.builder()
+					.id(customerId)
+					.email("john.doe@example.com")
+					.status(CustomerStatus.ACTIVE)
+					.version(storedVersion.get())
+					.build();
+		});
+	}
+}
@@ -0,0 +1,94 @@
+package pl.ecommerce.customer.read.infrastructure.projector;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.ecommerce.commons.event.customer.CustomerUpdatedEvent;
+import pl.ecommerce.customer.read.infrastructure.rebuild.ShadowProjection;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProjectionEndpointTest {
+
+	private static final String TOPIC = "customer.updated.event";
+
+	private SimpleMeterRegistry registry;
+	private ProjectionMetrics metrics;
+	private ProjectionEndpoint endpoint;
+
+	@BeforeEach
+	void setUp() {
+		registry = new SimpleMeterRegistry();
+		metrics = new ProjectionMetrics(registry, "customer-read");
+		ShadowProjection shadowProjection = mock(ShadowProjection.class);
+		when(shadowProjection.status()).thenReturn(Map.of("phase", "IDLE"));
+		endpoint = new ProjectionEndpoint(metrics, registry, shadowProjection);
+	}
+
+	@Test
+	@DisplayName("Should record freshness per event type and keep the highest applied offset per partition")
+	void shouldRecordAppliedPositions() {
+		Instant eventTimestamp = Instant.now().minusSeconds(5);
+		metrics.recordApplied(updated(eventTimestamp), new ConsumerRecord<>(TOPIC, 0, 42L, "key", "value"));
+		metrics.recordApplied(updated(eventTimestamp.minusSeconds(1)), new ConsumerRecord<>(TOPIC, 0, 41L, "key", "value"));
+
+		Timer freshness = registry.get("projection_freshness_seconds").tag("event_type", "CustomerUpdatedEvent").timer();
+		assertThat(freshness.count()).isEqualTo(2);
+		assertThat(freshness.max(TimeUnit.SECONDS)).isGreaterThanOrEqualTo(6);
+		assertThat(registry.get("projection_last_applied_offset").tag("partition", "0").gauge().value()).isEqualTo(42);
+		assertThat(registry.get("projection_last_applied_event_timestamp_seconds").gauge().value())
+				.isCloseTo(eventTimestamp.minusSeconds(1).toEpochMilli() / 1000.0, within(0.001));
+	}
+
+	@Test
+	@DisplayName("Should report staleness only for partitions that still have lag")
+	void shouldReportStalenessOfLaggingPartitions() {
+		Instant eventTimestamp = Instant.now().minusSeconds(30);
+		metrics.recordApplied(updated(eventTimestamp), new ConsumerRecord<>(TOPIC, 0, 10L, "key", "value"));
+		metrics.recordApplied(updated(eventTimestamp), new ConsumerRecord<>(TOPIC, 1, 20L, "key", "value"));
+		lag(0, 7);
+		lag(1, 0);
+
+		Map<String, Object> staleness = endpoint.staleness();
+
+		assertThat(staleness.get("totalLag")).isEqualTo(7.0);
+		assertThat((long) staleness.get("maxStalenessMs")).isGreaterThanOrEqualTo(30_000);
+		assertThat(staleness.get("rebuild")).isEqualTo(Map.of("phase", "IDLE"));
+		@SuppressWarnings("unchecked")
+		List<Map<String, Object>> partitions = (List<Map<String, Object>>) staleness.get("partitions");
+		assertThat(partitions).hasSize(2);
+		Map<String, Object> caughtUp = partitions.stream().filter(p -> p.get("partition").equals(1)).findFirst().orElseThrow();
+		assertThat(caughtUp.get("stalenessMs")).isEqualTo(0L);
+		assertThat(caughtUp.get("lastAppliedOffset")).isEqualTo(20L);
+	}
+
+	private void lag(int partition, double value) {
+		Gauge.builder("kafka.consumer.fetch.manager.records.lag", () -> value)
+				.tag("topic", TOPIC)
+				.tag("partition", String.valueOf(partition))
+				.tag("client.id", "consumer-" + partition)
+				.register(registry);
+	}
+
+	private static CustomerUpdatedEvent updated(Instant timestamp) {
+		return CustomerUpdatedEvent.builder()
+				.customerId(UUID.randomUUID())
+				.changes(Map.of())
+				.timestamp(timestamp)
+				.version(1)
+				.build();
+	}
+}
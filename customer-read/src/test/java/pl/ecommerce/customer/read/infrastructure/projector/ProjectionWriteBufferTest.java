@@ -0,0 +1,244 @@
+package pl.ecommerce.customer.read.infrastructure.projector;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Update;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.AbstractMongoTest;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProjectionWriteBufferTest extends AbstractMongoTest {
+
+	private static final String COLLECTION = "customers_compact";
+	private static final long LINGER_MS = 200;
+
+	private ReadModelCollections collections;
+	private SimpleMeterRegistry registry;
+	private ProjectionWriteBuffer buffer;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate.dropCollection(COLLECTION).block();
+		collections = mock(ReadModelCollections.class);
+		when(collections.resolveActive()).thenReturn(Mono.just(COLLECTION));
+		registry = new SimpleMeterRegistry();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (nonNull(buffer)) {
+			buffer.shutdown();
+		}
+	}
+
+	@Test
+	@DisplayName("Should write at most one pending write per customer in each bulk write")
+	void shouldCoalescePerCustomer() {
+		buffer = buffer(LINGER_MS, 256, 60_000);
+		UUID first = UUID.randomUUID();
+		UUID second = UUID.randomUUID();
+
+		StepVerifier.create(Mono.zip(
+						buffer.insert(customer(first, 0L)),
+						buffer.insert(customer(second, 0L)),
+						buffer.update(first, 0L, versioned(new Update().set("lastName", "Kowalski"), 1L))))
+				.assertNext(result -> assertThat(result.toList()).containsOnly(true))
+				.verifyComplete();
+
+		DistributionSummary flushes = registry.get("projection_bulk_flush_writes").summary();
+		assertThat(flushes.count()).isEqualTo(2);
+		assertThat(flushes.totalAmount()).isEqualTo(3);
+		assertThat(stored(first).getLastName()).isEqualTo("Kowalski");
+		assertThat(stored(first).getVersion()).isEqualTo(1L);
+	}
+
+	@Test
+	@DisplayName("Should merge successive $set updates of a customer into one write with the last value winning")
+	void shouldMergeSetUpdates() {
+		UUID customerId = UUID.randomUUID();
+		mongoTemplate.insert(customer(customerId, 0L), COLLECTION).block();
+		buffer = buffer(LINGER_MS, 256, 60_000);
+
+		StepVerifier.create(Mono.zip(
+						buffer.update(customerId, 0L, versioned(new Update().set("lastName", "Nowak"), 1L)),
+						buffer.update(customerId, 1L, versioned(new Update().set("firstName", "Jan"), 2L)),
+						buffer.update(customerId, 2L, versioned(new Update().set("lastName", "Kowalski"), 3L))))
+				.assertNext(result -> assertThat(result.toList()).containsOnly(true))
+				.verifyComplete();
+
+		CustomerReadModel customer = stored(customerId);
+		assertThat(customer.getFirstName()).isEqualTo("Jan");
+		assertThat(customer.getLastName()).isEqualTo("Kowalski");
+		assertThat(customer.getVersion()).isEqualTo(3L);
+		assertThat(registry.get("projection_merged_writes_total").counter().count()).isEqualTo(2);
+		assertThat(registry.get("projection_bulk_flush_writes").summary().count()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Should gate a merged update on the version of its first update")
+	void shouldGateMergedUpdateOnFirstVersion() {
+		UUID customerId = UUID.randomUUID();
+		mongoTemplate.insert(customer(customerId, 7L), COLLECTION).block();
+		buffer = buffer(LINGER_MS, 256, 60_000);
+
+		StepVerifier.create(Mono.zip(
+						buffer.update(customerId, 3L, versioned(new Update().set("lastName", "Nowak"), 4L)),
+						buffer.update(customerId, 4L, versioned(new Update().set("firstName", "Jan"), 5L))))
+				.assertNext(result -> assertThat(result.toList()).containsOnly(false))
+				.verifyComplete();
+
+		CustomerReadModel customer = stored(customerId);
+		assertThat(customer.getLastName()).isNull();
+		assertThat(customer.getFirstName()).isNull();
+		assertThat(customer.getVersion()).isEqualTo(7L);
+	}
+
+	@Test
+	@DisplayName("Should not merge an update that does not continue from the pending version")
+	void shouldNotMergeOutOfOrderUpdate() {
+		UUID customerId = UUID.randomUUID();
+		mongoTemplate.insert(customer(customerId, 0L), COLLECTION).block();
+		buffer = buffer(LINGER_MS, 256, 60_000);
+
+		StepVerifier.create(Mono.zip(
+						buffer.update(customerId, 0L, versioned(new Update().set("lastName", "Nowak"), 1L)),
+						buffer.update(customerId, 5L, versioned(new Update().set("lastName", "Kowalski"), 6L))))
+				.assertNext(result -> {
+					assertThat(result.getT1()).isTrue();
+					assertThat(result.getT2()).isFalse();
+				})
+				.verifyComplete();
+
+		assertThat(registry.get("projection_merged_writes_total").counter().count()).isZero();
+		assertThat(stored(customerId).getLastName()).isEqualTo("Nowak");
+		assertThat(stored(customerId).getVersion()).isEqualTo(1L);
+	}
+
+	@Test
+	@DisplayName("Should read back versions to tell applied writes from duplicates and stale updates")
+	void shouldVerifyRoundByReadback() {
+		UUID existing = UUID.randomUUID();
+		UUID stale = UUID.randomUUID();
+		UUID fresh = UUID.randomUUID();
+		mongoTemplate.insert(customer(existing, 0L), COLLECTION).block();
+		mongoTemplate.insert(customer(stale, 4L), COLLECTION).block();
+		buffer = buffer(LINGER_MS, 256, 60_000);
+
+		StepVerifier.create(Mono.zip(
+						buffer.insert(customer(existing, 0L)),
+						buffer.update(stale, 1L, versioned(new Update().set("lastName", "Nowak"), 2L)),
+						buffer.insert(customer(fresh, 0L))))
+				.assertNext(result -> {
+					assertThat(result.getT1()).isFalse();
+					assertThat(result.getT2()).isFalse();
+					assertThat(result.getT3()).isTrue();
+				})
+				.verifyComplete();
+
+		assertThat(stored(stale).getVersion()).isEqualTo(4L);
+		assertThat(stored(fresh)).isNotNull();
+	}
+
+	@Test
+	@DisplayName("Should return the document as it was before the update")
+	void shouldReturnPreviousDocument() {
+		UUID customerId = UUID.randomUUID();
+		mongoTemplate.insert(customer(customerId, 0L), COLLECTION).block();
+		buffer = buffer(0, 256, 60_000);
+
+		StepVerifier.create(buffer.updateReturningPrevious(customerId, 0L,
+						versioned(new Update().set("status", CustomerStatus.INACTIVE), 1L)))
+				.assertNext(previous -> assertThat(previous.getStatus()).isEqualTo(CustomerStatus.ACTIVE))
+				.verifyComplete();
+		StepVerifier.create(buffer.updateReturningPrevious(customerId, 0L,
+						versioned(new Update().set("status", CustomerStatus.DELETED), 1L)))
+				.verifyComplete();
+
+		assertThat(stored(customerId).getStatus()).isEqualTo(CustomerStatus.INACTIVE);
+	}
+
+	@Test
+	@DisplayName("Should grow the batch size additively while flushes meet the latency target")
+	void shouldGrowBatchSize() {
+		buffer = buffer(0, 4, 60_000);
+
+		StepVerifier.create(buffer.insert(customer(UUID.randomUUID(), 0L)))
+				.expectNext(true)
+				.verifyComplete();
+
+		assertThat(awaitBatchSize(6)).isEqualTo(6);
+	}
+
+	@Test
+	@DisplayName("Should halve the batch size, down to the minimum, when flushes miss the latency target")
+	void shouldShrinkBatchSize() {
+		buffer = buffer(0, 8, 0);
+
+		StepVerifier.create(buffer.insert(customer(UUID.randomUUID(), 0L)))
+				.expectNext(true)
+				.verifyComplete();
+		assertThat(awaitBatchSize(4)).isEqualTo(4);
+
+		StepVerifier.create(buffer.insert(customer(UUID.randomUUID(), 0L)))
+				.expectNext(true)
+				.verifyComplete();
+		assertThat(awaitBatchSize(2)).isEqualTo(2);
+
+		StepVerifier.create(buffer.insert(customer(UUID.randomUUID(), 0L)))
+				.expectNext(true)
+				.verifyComplete();
+		assertThat(awaitBatchSize(2)).isEqualTo(2);
+	}
+
+	private ProjectionWriteBuffer buffer(long lingerMs, int initialBatchSize, long targetLatencyMs) {
+		return new ProjectionWriteBuffer(mongoTemplate, new ProjectionMetrics(registry, "customer-read"), collections,
+				lingerMs, initialBatchSize, 2, 8, targetLatencyMs);
+	}
+
+	/**
+	 * The batch size is adjusted once the flush finishes, which may be just after its results were emitted.
+	 */
+	private int awaitBatchSize(int expected) {
+		return Flux.interval(Duration.ofMillis(10))
+				.map(tick -> buffer.currentBatchSize())
+				.filter(size -> size == expected)
+				.next()
+				.timeout(Duration.ofSeconds(5), Mono.fromCallable(buffer::currentBatchSize))
+				.block();
+	}
+
+	private CustomerReadModel stored(UUID customerId) {
+		return mongoTemplate.findById(customerId, CustomerReadModel.class, COLLECTION).block();
+	}
+
+	private static CustomerReadModel customer(UUID customerId, long version) {
+		return CustomerReadModel.builder()
+				.id(customerId)
+				.email(customerId + "@example.com")
+				.status(CustomerStatus.ACTIVE)
+				.createdAt(Instant.parse("2024-01-01T10:00:00Z"))
+				.version(version)
+				.build();
+	}
+
+	private static Update versioned(Update update, long version) {
+		return update.set("version", version);
+	}
+}
@@ -0,0 +1,142 @@
+package pl.ecommerce.customer.read.infrastructure.rebuild;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.ecommerce.commons.event.AbstractDomainEvent;
+import pl.ecommerce.commons.event.customer.CustomerAddressAddedEvent;
+import pl.ecommerce.commons.event.customer.CustomerAddressRemovedEvent;
+import pl.ecommerce.commons.event.customer.CustomerDeactivatedEvent;
+import pl.ecommerce.commons.event.customer.CustomerEmailChangedEvent;
+import pl.ecommerce.commons.event.customer.CustomerEmailVerifiedEvent;
+import pl.ecommerce.commons.event.customer.CustomerRegisteredEvent;
+import pl.ecommerce.commons.event.customer.CustomerUpdatedEvent;
+import pl.ecommerce.commons.model.customer.Address;
+import pl.ecommerce.commons.model.customer.AddressType;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CustomerReadModelFolderTest {
+
+	private static final Instant REGISTERED_AT = Instant.parse("2024-01-01T10:00:00Z");
+
+	private UUID customerId;
+	private UUID firstAddressId;
+	private UUID secondAddressId;
+
+	@BeforeEach
+	void setUp() {
+		customerId = UUID.randomUUID();
+		firstAddressId = UUID.randomUUID();
+		secondAddressId = UUID.randomUUID();
+	}
+
+	@Test
+	@DisplayName("Should fold a customer history into the document the projector would write")
+	void shouldFoldHistory() {
+		CustomerReadModel customer = CustomerReadModelFolder.fold(List.of(
+				registered(),
+				CustomerUpdatedEvent.builder()
+						.customerId(customerId)
+						.changes(Map.of("firstName", "Jan", "lastName", "Kowalski", "ignored", "value"))
+						.timestamp(at(1))
+						.version(1)
+						.build(),
+				CustomerEmailVerifiedEvent.builder().customerId(customerId).timestamp(at(2)).version(2).build(),
+				CustomerEmailChangedEvent.builder()
+						.customerId(customerId)
+						.oldEmail("john.doe@example.com")
+						.newEmail("jan.kowalski@example.com")
+						.timestamp(at(3))
+						.version(3)
+						.build(),
+				CustomerDeactivatedEvent.builder().customerId(customerId).reason("request").timestamp(at(4)).version(4).build()));
+
+		assertThat(customer.getId()).isEqualTo(customerId);
+		assertThat(customer.getFirstName()).isEqualTo("Jan");
+		assertThat(customer.getLastName()).isEqualTo("Kowalski");
+		assertThat(customer.getLastNameLower()).isEqualTo("kowalski");
+		assertThat(customer.getEmail()).isEqualTo("jan.kowalski@example.com");
+		assertThat(customer.isEmailVerified()).isFalse();
+		assertThat(customer.getStatus()).isEqualTo(CustomerStatus.INACTIVE);
+		assertThat(customer.getUpdatedAt()).isEqualTo(at(4));
+		assertThat(customer.getVersion()).isEqualTo(5L);
+	}
+
+	@Test
+	@DisplayName("Should keep one default address per type and promote another when the default is removed")
+	void shouldFoldAddressDefaults() {
+		CustomerReadModel customer = CustomerReadModelFolder.fold(List.of(
+				registered(),
+				addressAdded(firstAddressId, true, 1),
+				addressAdded(secondAddressId, true, 2)));
+
+		assertThat(customer.getAddresses())
+				.extracting(Address::getId, Address::isDefault)
+				.containsExactly(tuple(firstAddressId, false), tuple(secondAddressId, true));
+
+		CustomerReadModelFolder.fold(customer, List.of(CustomerAddressRemovedEvent.builder()
+				.customerId(customerId)
+				.addressId(secondAddressId)
+				.timestamp(at(3))
+				.version(3)
+				.build()));
+
+		assertThat(customer.getAddresses())
+				.extracting(Address::getId, Address::isDefault)
+				.containsExactly(tuple(firstAddressId, true));
+		assertThat(customer.getVersion()).isEqualTo(4L);
+	}
+
+	@Test
+	@DisplayName("Should ignore events before the registration and return null without one")
+	void shouldRequireRegistration() {
+		List<AbstractDomainEvent> withoutRegistration = List.of(
+				CustomerEmailVerifiedEvent.builder().customerId(customerId).timestamp(at(1)).version(1).build());
+
+		assertThat(CustomerReadModelFolder.fold(withoutRegistration)).isNull();
+
+		CustomerReadModel customer = CustomerReadModelFolder.fold(List.of(withoutRegistration.getFirst(), registered()));
+		assertThat(customer.isEmailVerified()).isFalse();
+		assertThat(customer.getVersion()).isEqualTo(1L);
+	}
+
+	private CustomerRegisteredEvent registered() {
+		return CustomerRegisteredEvent.builder()
+				.customerId(customerId)
+				.email("john.doe@example.com")
+				.firstName("John")
+				.lastName("Doe")
+				.timestamp(REGISTERED_AT)
+				.version(0)
+				.build();
+	}
+
+	private CustomerAddressAddedEvent addressAdded(UUID addressId, boolean isDefault, int version) {
+		return CustomerAddressAddedEvent.builder()
+				.customerId(customerId)
+				.addressId(addressId)
+				.addressType(AddressType.SHIPPING)
+				.street("Main St")
+				.buildingNumber("1")
+				.city("Warsaw")
+				.postalCode("00-001")
+				.country("Poland")
+				.isDefault(isDefault)
+				.timestamp(at(version))
+				.version(version)
+				.build();
+	}
+
+	private static Instant at(int minutes) {
+		return REGISTERED_AT.plusSeconds(60L * minutes);
+	}
+}
@@ -0,0 +1,90 @@
+package pl.ecommerce.customer.read.infrastructure.rebuild;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import pl.ecommerce.commons.model.customer.AddressType;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LegacyCustomerDocumentsTest {
+
+	private MappingMongoConverter converter;
+	private UUID customerId;
+	private UUID addressId;
+
+	@BeforeEach
+	void setUp() {
+		converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+		converter.afterPropertiesSet();
+		customerId = UUID.randomUUID();
+		addressId = UUID.randomUUID();
+	}
+
+	@Test
+	@DisplayName("Should read a schema v1 document with string ids and personal data")
+	void shouldReadLegacyDocument() {
+		CustomerReadModel customer = LegacyCustomerDocuments.read(legacyDocument(), converter);
+
+		assertThat(customer.getId()).isEqualTo(customerId);
+		assertThat(customer.getEmail()).isEqualTo("john.doe@example.com");
+		assertThat(customer.getLastName()).isEqualTo("Doe");
+		assertThat(customer.getLastNameLower()).isEqualTo("doe");
+		assertThat(customer.getPhoneNumber()).isEqualTo("+48123456789");
+		assertThat(customer.isEmailVerified()).isTrue();
+		assertThat(customer.getStatus()).isEqualTo(CustomerStatus.ACTIVE);
+		assertThat(customer.getCreatedAt()).isEqualTo(Instant.parse("2024-01-01T10:00:00Z"));
+		assertThat(customer.getAddresses()).singleElement()
+				.satisfies(address -> {
+					assertThat(address.getId()).isEqualTo(addressId);
+					assertThat(address.getAddressType()).isEqualTo(AddressType.SHIPPING);
+				});
+		assertThat(customer.getPreferences().isMarketingConsent()).isTrue();
+		assertThat(customer.getVersion()).isEqualTo(3L);
+	}
+
+	@Test
+	@DisplayName("Should write migrated customers with short field names and binary ids")
+	void shouldWriteCompactDocument() {
+		CustomerReadModel customer = LegacyCustomerDocuments.read(legacyDocument(), converter);
+
+		Document written = new Document();
+		converter.write(customer, written);
+
+		assertThat(written.get(CustomerReadModel.ID)).isEqualTo(customerId);
+		assertThat(written.getString(CustomerReadModel.EMAIL)).isEqualTo("john.doe@example.com");
+		assertThat(written.get(CustomerReadModel.VERSION)).isEqualTo(3L);
+		assertThat(written).doesNotContainKeys("email", "personalData", "lastOperation", "lastUpdatedAt", "version");
+	}
+
+	private Document legacyDocument() {
+		return new Document("_id", customerId.toString())
+				.append("email", "john.doe@example.com")
+				.append("firstName", "John")
+				.append("lastName", "Doe")
+				.append("emailVerified", true)
+				.append("status", "ACTIVE")
+				.append("createdAt", Date.from(Instant.parse("2024-01-01T10:00:00Z")))
+				.append("personalData", new Document("email", "john.doe@example.com")
+						.append("phoneNumber", "+48123456789"))
+				.append("addresses", List.of(new Document("_id", addressId.toString())
+						.append("addressType", "SHIPPING")
+						.append("city", "Warsaw")
+						.append("isDefault", true)))
+				.append("preferences", new Document("marketingConsent", true).append("preferredLanguage", "pl"))
+				.append("lastOperation", "VerifyEmail")
+				.append("lastUpdatedAt", new Date())
+				.append("version", 3L);
+	}
+}
@@ -0,0 +1,126 @@
+package pl.ecommerce.customer.read.infrastructure.rebuild;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.AbstractMongoTest;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ReadModelSchemaMigrationTest extends AbstractMongoTest {
+
+	private static final String LEGACY_COLLECTION = "customers";
+	private static final String COLLECTION = "customers_compact";
+
+	private ReadModelCollections collections;
+	private ShadowProjection shadowProjection;
+	private UUID projectedId;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate.dropCollection(LEGACY_COLLECTION).block();
+		mongoTemplate.dropCollection(COLLECTION).block();
+		collections = mock(ReadModelCollections.class);
+		when(collections.resolveActive()).thenReturn(Mono.just(COLLECTION));
+		when(collections.active()).thenReturn(COLLECTION);
+		shadowProjection = mock(ShadowProjection.class);
+
+		projectedId = UUID.randomUUID();
+		for (int i = 0; i < 4; i++) {
+			mongoTemplate.insert(legacyDocument(UUID.randomUUID(), "Doe" + i), LEGACY_COLLECTION).block();
+		}
+		mongoTemplate.insert(legacyDocument(projectedId, "Legacy"), LEGACY_COLLECTION).block();
+		mongoTemplate.insert(CustomerReadModel.builder()
+				.id(projectedId)
+				.email(projectedId + "@example.com")
+				.lastName("Projected")
+				.status(CustomerStatus.ACTIVE)
+				.version(5L)
+				.build(), COLLECTION).block();
+	}
+
+	@Test
+	@DisplayName("Should copy v1 customers in batches into compact documents and keep customers already projected")
+	void shouldCopyLegacyCustomers() {
+		StepVerifier.create(migration(true).copy(LEGACY_COLLECTION, COLLECTION))
+				.expectNext(4L)
+				.verifyComplete();
+
+		assertThat(mongoTemplate.count(new Query(), COLLECTION).block()).isEqualTo(5);
+		CustomerReadModel projected = mongoTemplate.findById(projectedId, CustomerReadModel.class, COLLECTION).block();
+		assertThat(projected.getLastName()).isEqualTo("Projected");
+		assertThat(projected.getVersion()).isEqualTo(5L);
+
+		Document migrated = mongoTemplate.findOne(Query.query(Criteria.where(CustomerReadModel.LAST_NAME).is("Doe0")),
+				Document.class, COLLECTION).block();
+		assertThat(migrated.get(CustomerReadModel.ID)).isInstanceOf(UUID.class);
+		assertThat(migrated.getString(CustomerReadModel.LAST_NAME_LOWER)).isEqualTo("doe0");
+		assertThat(migrated.get(CustomerReadModel.VERSION)).isEqualTo(3L);
+		assertThat(migrated).doesNotContainKeys("email", "lastName", "personalData", "version");
+	}
+
+	@Test
+	@DisplayName("Should hand a pending migration and its copy to the shadow projection once the pointer is loaded")
+	void shouldStartPendingMigration() {
+		when(collections.pendingMigration()).thenReturn(Mono.just(LEGACY_COLLECTION));
+
+		migration(true).onApplicationReady();
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<Mono<Long>> copy = ArgumentCaptor.forClass(Mono.class);
+		verify(shadowProjection).migrate(eq(LEGACY_COLLECTION), copy.capture());
+		StepVerifier.create(copy.getValue())
+				.expectNext(4L)
+				.verifyComplete();
+	}
+
+	@Test
+	@DisplayName("Should not migrate when nothing is pending or migration is disabled")
+	void shouldSkipMigration() {
+		when(collections.pendingMigration()).thenReturn(Mono.empty());
+
+		migration(true).onApplicationReady();
+		verify(shadowProjection, never()).migrate(anyString(), any());
+
+		ReadModelCollections untouched = mock(ReadModelCollections.class);
+		new ReadModelSchemaMigration(mongoTemplate, untouched, shadowProjection, false, 2).onApplicationReady();
+		verifyNoInteractions(untouched);
+	}
+
+	private ReadModelSchemaMigration migration(boolean enabled) {
+		return new ReadModelSchemaMigration(mongoTemplate, collections, shadowProjection, enabled, 2);
+	}
+
+	private static Document legacyDocument(UUID customerId, String lastName) {
+		return new Document("_id", customerId.toString())
+				.append("email", customerId + "@example.com")
+				.append("firstName", "John")
+				.append("lastName", lastName)
+				.append("emailVerified", true)
+				.append("status", "ACTIVE")
+				.append("createdAt", Date.from(Instant.parse("2024-01-01T10:00:00Z")))
+				.append("personalData", new Document("email", customerId + "@example.com"))
+				.append("version", 3L);
+	}
+}
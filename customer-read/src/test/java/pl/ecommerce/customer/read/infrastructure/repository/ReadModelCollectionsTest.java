@@ -0,0 +1,76 @@
+package pl.ecommerce.customer.read.infrastructure.repository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadModelCollectionsTest {
+
+	private static final String DEFAULT_COLLECTION = "customers_compact";
+
+	private ReactiveMongoTemplate mongoTemplate;
+	private ReadModelCollections collections;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate = mock(ReactiveMongoTemplate.class);
+		when(mongoTemplate.getCollectionName(CustomerReadModel.class)).thenReturn(DEFAULT_COLLECTION);
+		when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Document.class), eq("projection_state")))
+				.thenReturn(Mono.empty());
+		collections = new ReadModelCollections(mongoTemplate, 60_000, 600_000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		collections.shutdown();
+	}
+
+	@Test
+	@DisplayName("Should start without waiting for the pointer and hold writers until it is loaded")
+	void shouldResolvePointerInBackground() {
+		when(mongoTemplate.findById(DEFAULT_COLLECTION, Document.class, "projection_state"))
+				.thenReturn(Mono.delay(Duration.ofMillis(300))
+						.map(tick -> new Document("_id", DEFAULT_COLLECTION).append("active", "customers_compact_v2")));
+
+		collections.init();
+
+		assertThat(collections.isResolved()).isFalse();
+		assertThat(collections.active()).isEqualTo(DEFAULT_COLLECTION);
+		StepVerifier.create(collections.resolveActive())
+				.expectNext("customers_compact_v2")
+				.verifyComplete();
+		assertThat(collections.isResolved()).isTrue();
+	}
+
+	@Test
+	@DisplayName("Should not report the pointer as loaded while Mongo is unavailable")
+	void shouldStayUnresolvedWhileMongoFails() {
+		when(mongoTemplate.findById(DEFAULT_COLLECTION, Document.class, "projection_state"))
+				.thenReturn(Mono.error(new IllegalStateException("mongo down")));
+
+		collections.init();
+
+		StepVerifier.create(collections.resolveActive())
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(300))
+				.thenCancel()
+				.verify();
+		assertThat(collections.isResolved()).isFalse();
+	}
+}
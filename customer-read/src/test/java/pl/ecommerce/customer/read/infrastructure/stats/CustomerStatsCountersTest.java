@@ -0,0 +1,128 @@
+package pl.ecommerce.customer.read.infrastructure.stats;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import pl.ecommerce.commons.model.customer.CustomerStatus;
+import pl.ecommerce.customer.read.AbstractMongoTest;
+import pl.ecommerce.customer.read.domain.model.CustomerReadModel;
+import pl.ecommerce.customer.read.infrastructure.repository.ReadModelCollections;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerStatsCountersTest extends AbstractMongoTest {
+
+	private static final String COLLECTION = "customers_compact";
+	private static final CustomerStatsKey ACTIVE = new CustomerStatsKey(CustomerStatus.ACTIVE, false, false, null);
+	private static final CustomerStatsKey INACTIVE = new CustomerStatsKey(CustomerStatus.INACTIVE, false, false, null);
+
+	private ReadModelCollections collections;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate.dropCollection(COLLECTION).block();
+		mongoTemplate.dropCollection(CustomerStatsCounters.STATS_COLLECTION).block();
+		collections = mock(ReadModelCollections.class);
+		when(collections.resolveActive()).thenReturn(Mono.just(COLLECTION));
+	}
+
+	@Test
+	@DisplayName("Should correct drifted cells, zero empty ones and create missing ones")
+	void shouldRecountCells() {
+		CustomerStatsCounters counters = counters(0);
+		insertCustomer(CustomerStatus.ACTIVE);
+		insertCustomer(CustomerStatus.ACTIVE);
+		insertCustomer(CustomerStatus.INACTIVE);
+		for (int i = 0; i < 5; i++) {
+			counters.increment(ACTIVE).block();
+		}
+		CustomerStatsKey deleted = new CustomerStatsKey(CustomerStatus.DELETED, false, false, null);
+		counters.increment(deleted).block();
+
+		StepVerifier.create(counters.reconcile())
+				.expectNext(3L)
+				.verifyComplete();
+
+		assertThat(count(ACTIVE)).isEqualTo(2);
+		assertThat(count(INACTIVE)).isEqualTo(1);
+		assertThat(count(deleted)).isZero();
+		assertThat(cell(deleted)).isNotNull();
+	}
+
+	@Test
+	@DisplayName("Should not overwrite a cell incremented while the recount was running")
+	void shouldKeepConcurrentIncrement() {
+		CustomerStatsCounters counters = counters(2000);
+		insertCustomer(CustomerStatus.ACTIVE);
+		for (int i = 0; i < 4; i++) {
+			counters.increment(ACTIVE).block();
+		}
+
+		Mono<Void> projection = Mono.delay(Duration.ofMillis(1000))
+				.then(customer(CustomerStatus.ACTIVE))
+				.then(counters.increment(ACTIVE));
+		StepVerifier.create(Mono.zip(counters.reconcile(), projection.thenReturn(true)))
+				.assertNext(result -> assertThat(result.getT1()).isZero())
+				.verifyComplete();
+		assertThat(count(ACTIVE)).isEqualTo(5);
+
+		StepVerifier.create(counters.reconcile())
+				.expectNext(1L)
+				.verifyComplete();
+		assertThat(count(ACTIVE)).isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("Should correct cells written before increments carried a sequence")
+	void shouldCorrectLegacyCell() {
+		insertCustomer(CustomerStatus.ACTIVE);
+		mongoTemplate.insert(new Document("_id", ACTIVE.id())
+				.append("status", CustomerStatus.ACTIVE.name())
+				.append("emailVerified", false)
+				.append("marketingConsent", false)
+				.append("preferredLanguage", null)
+				.append("count", 7L), CustomerStatsCounters.STATS_COLLECTION).block();
+
+		StepVerifier.create(counters(0).reconcile())
+				.expectNext(1L)
+				.verifyComplete();
+		assertThat(count(ACTIVE)).isEqualTo(1);
+	}
+
+	private CustomerStatsCounters counters(long settleMs) {
+		return new CustomerStatsCounters(mongoTemplate, collections, 0, 3_600_000, settleMs);
+	}
+
+	private void insertCustomer(CustomerStatus status) {
+		customer(status).block();
+	}
+
+	private Mono<CustomerReadModel> customer(CustomerStatus status) {
+		return mongoTemplate.insert(CustomerReadModel.builder()
+				.id(UUID.randomUUID())
+				.email(UUID.randomUUID() + "@example.com")
+				.status(status)
+				.createdAt(Instant.now())
+				.build(), COLLECTION);
+	}
+
+	private Document cell(CustomerStatsKey key) {
+		return mongoTemplate.findOne(Query.query(Criteria.where("_id").is(key.id())), Document.class,
+				CustomerStatsCounters.STATS_COLLECTION).block();
+	}
+
+	private long count(CustomerStatsKey key) {
+		return cell(key).get("count", Number.class).longValue();
+	}
+}
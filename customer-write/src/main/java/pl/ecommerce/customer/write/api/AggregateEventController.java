@@ -0,0 +1,36 @@
+package pl.ecommerce.customer.write.api;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pl.ecommerce.commons.event.AbstractDomainEvent;
+import pl.ecommerce.commons.tracing.TracedOperation;
+import pl.ecommerce.customer.write.infrastructure.eventstore.EventStore;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/internal/v1/customers")
+@RequiredArgsConstructor
+@Slf4j
+public class AggregateEventController {
+
+	private final EventStore eventStore;
+
+	@GetMapping("/{id}/events")
+	@TracedOperation("getCustomerEvents")
+	public Flux<AbstractDomainEvent> getEvents(@PathVariable UUID id,
+											   @RequestParam(defaultValue = "0") int afterVersion) {
+		log.debug("Fetching events for customer {} after version {}", id, afterVersion);
+		return Mono.fromCallable(() -> eventStore.getEventsForAggregate(id, afterVersion))
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMapMany(Flux::fromIterable);
+	}
+}
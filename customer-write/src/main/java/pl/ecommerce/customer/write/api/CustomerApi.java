@@ -18,6 +18,12 @@ import java.util.UUID;
 @RequestMapping("/api/v1/customers")
 public interface CustomerApi {
 
+	/**
+	 * Response header carrying the aggregate version written by the command; pass it to customer-read as
+	 * {@code minVersion} to read your own writes.
+	 */
+	String CONSISTENCY_TOKEN_HEADER = "X-Consistency-Token";
+
 	@Operation(summary = "Register a new customer", description = "Creates a new customer based on the provided request data")
 	@PostMapping
 	@ResponseStatus(HttpStatus.CREATED)
@@ -8,6 +8,7 @@ import pl.ecommerce.commons.tracing.TracedOperation;
 import pl.ecommerce.customer.write.api.dto.*;
 import pl.ecommerce.customer.write.api.mapper.CommandMapper;
 import pl.ecommerce.customer.write.application.CustomerApplicationService;
+import pl.ecommerce.customer.write.domain.aggregate.CustomerAggregate;
 import pl.ecommerce.customer.write.domain.commands.*;
 import reactor.core.publisher.Mono;
 
@@ -31,6 +32,7 @@ public class CustomerController implements CustomerApi {
 		return customerApplicationService.registerCustomer(registerCustomerCommand)
 				.map(customerAggregate -> {
 					log.debug("Customer registered successfully: {}", customerAggregate);
+					withConsistencyToken(exchange, customerAggregate);
 					return map(customerAggregate);
 				});
 	}
@@ -42,6 +44,7 @@ public class CustomerController implements CustomerApi {
 		log.info("Received updateCustomer request for id: {}", id);
 		var updateCustomerCommand = CommandMapper.map(id, request);
 		return customerApplicationService.updateCustomer(updateCustomerCommand)
+				.doOnNext(customerAggregate -> withConsistencyToken(exchange, customerAggregate))
 				.then();
 	}
 
@@ -55,6 +58,7 @@ public class CustomerController implements CustomerApi {
 					.newEmail(newEmail)
 					.build();
 			return customerApplicationService.changeEmail(changeCustomerEmailCommand)
+					.doOnNext(customerAggregate -> withConsistencyToken(exchange, customerAggregate))
 					.then();
 		}
 
@@ -68,6 +72,7 @@ public class CustomerController implements CustomerApi {
 					.verificationToken(token)
 					.build();
 			return customerApplicationService.verifyEmail(verifyCustomerEmailCommand)
+					.doOnNext(customerAggregate -> withConsistencyToken(exchange, customerAggregate))
 					.then();
 	}
 
@@ -75,6 +80,7 @@ public class CustomerController implements CustomerApi {
 	@TracedOperation("deleteCustomer")
 	public Mono<Void> deleteCustomer(UUID id, ServerWebExchange exchange) {
 			return customerApplicationService.deleteCustomer(id)
+					.doOnNext(customerAggregate -> withConsistencyToken(exchange, customerAggregate))
 					.then();
 	}
 
@@ -87,6 +93,7 @@ public class CustomerController implements CustomerApi {
 				.verificationToken(verificationToken)
 				.build();
 		return customerApplicationService.verifyPhoneNumber(verifyCustomerPhoneCommand)
+				.doOnNext(customerAggregate -> withConsistencyToken(exchange, customerAggregate))
 				.then();
 	}
 
@@ -96,6 +103,7 @@ public class CustomerController implements CustomerApi {
 			UUID id, AddShippingAddressRequest request, ServerWebExchange exchange) {
 			var addAddressCommand = CommandMapper.map(id, request);
 			return customerApplicationService.addShippingAddress(addAddressCommand)
+					.doOnNext(customerAggregate -> withConsistencyToken(exchange, customerAggregate))
 					.then();
 	}
 
@@ -106,6 +114,7 @@ public class CustomerController implements CustomerApi {
 
 			var updateAddressCommand = CommandMapper.map(id, addressId, request);
 			return customerApplicationService.updateShippingAddress(updateAddressCommand)
+					.doOnNext(customerAggregate -> withConsistencyToken(exchange, customerAggregate))
 					.then();
 	}
 
@@ -115,6 +124,7 @@ public class CustomerController implements CustomerApi {
 			UUID id, UUID addressId, ServerWebExchange exchange) {
 			var removeAddressCommand = CommandMapper.map(id, addressId);
 			return customerApplicationService.removeShippingAddress(removeAddressCommand)
+					.doOnNext(customerAggregate -> withConsistencyToken(exchange, customerAggregate))
 					.then();
 	}
 
@@ -124,6 +134,7 @@ public class CustomerController implements CustomerApi {
 			UUID id, UpdatePreferencesRequest request, ServerWebExchange exchange) {
 			var updatePreferencesCommand = CommandMapper.map(id, request);
 			return customerApplicationService.updatePreferences(updatePreferencesCommand)
+					.doOnNext(customerAggregate -> withConsistencyToken(exchange, customerAggregate))
 					.then();
 	}
 
@@ -136,6 +147,7 @@ public class CustomerController implements CustomerApi {
 					.reason(reason)
 					.build();
 			return customerApplicationService.deactivate(deactivateCommand)
+					.doOnNext(customerAggregate -> withConsistencyToken(exchange, customerAggregate))
 					.then();
 	}
 
@@ -148,6 +160,15 @@ public class CustomerController implements CustomerApi {
 					.note(note)
 					.build();
 			return customerApplicationService.reactivate(reactivateCommand)
+					.doOnNext(customerAggregate -> withConsistencyToken(exchange, customerAggregate))
 					.then();
 	}
+
+	/**
+	 * Exposes the aggregate version after the command, so clients can ask customer-read to wait for it.
+	 */
+	private static void withConsistencyToken(ServerWebExchange exchange, CustomerAggregate customerAggregate) {
+		exchange.getResponse().getHeaders()
+				.set(CONSISTENCY_TOKEN_HEADER, Integer.toString(customerAggregate.getVersion()));
+	}
 }
@@ -0,0 +1,68 @@
+package pl.ecommerce.customer.write.api;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pl.ecommerce.customer.write.infrastructure.eventstore.EventStore;
+import pl.ecommerce.customer.write.infrastructure.eventstore.ExportedEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams the event store for read model rebuilds. Aggregates are split into contiguous id ranges so
+ * partitions can be exported in parallel, and each partition is read in keyset-paginated pages.
+ */
+@RestController
+@RequestMapping("/internal/v1/customers/events")
+@RequiredArgsConstructor
+@Slf4j
+public class EventExportController {
+
+	private static final BigInteger ID_SPACE = BigInteger.ONE.shiftLeft(128);
+	private static final int PAGE_SIZE = 5000;
+
+	private final EventStore eventStore;
+
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<String> export(@RequestParam(defaultValue = "0") int partition,
+							   @RequestParam(defaultValue = "1") int partitions) {
+		if (partitions < 1 || partition < 0 || partition >= partitions) {
+			return Flux.error(new IllegalArgumentException("Invalid partition " + partition + " of " + partitions));
+		}
+		UUID lowerBound = boundary(partition, partitions);
+		UUID upperBound = partition + 1 < partitions ? boundary(partition + 1, partitions) : null;
+		log.info("Exporting events for partition {}/{} ({} - {})", partition, partitions, lowerBound, upperBound);
+
+		return fetchPage(lowerBound, -1, upperBound)
+				.expand(page -> page.size() < PAGE_SIZE
+						? Mono.empty()
+						: fetchPage(page.getLast().aggregateId(), page.getLast().version(), upperBound))
+				.flatMapIterable(page -> page)
+				.map(event -> event.eventData() + "\n");
+	}
+
+	@GetMapping("/count")
+	public Mono<Long> count() {
+		return Mono.fromCallable(eventStore::countEvents)
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private Mono<List<ExportedEvent>> fetchPage(UUID afterAggregateId, int afterVersion, UUID upperBound) {
+		return Mono.fromCallable(() -> eventStore.exportEvents(afterAggregateId, afterVersion, upperBound, PAGE_SIZE))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private static UUID boundary(int index, int partitions) {
+		BigInteger value = ID_SPACE.multiply(BigInteger.valueOf(index)).divide(BigInteger.valueOf(partitions));
+		return new UUID(value.shiftRight(64).longValue(), value.longValue());
+	}
+}
@@ -13,6 +13,8 @@ public record CustomerRegistrationResponse(
 		@Schema(description = "Customer's first name", example = "John")
 		String firstName,
 		@Schema(description = "Customer's last name", example = "Doe")
-		String lastName
+		String lastName,
+		@Schema(description = "Aggregate version, usable as minVersion on customer-read", example = "1")
+		int version
 ) {
 }
\ No newline at end of file
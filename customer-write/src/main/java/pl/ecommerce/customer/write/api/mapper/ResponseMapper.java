@@ -10,7 +10,8 @@ public interface ResponseMapper {
 				customerAggregate.getId(),
 				customerAggregate.getEmail(),
 				customerAggregate.getFirstName(),
-				customerAggregate.getLastName()
+				customerAggregate.getLastName(),
+				customerAggregate.getVersion()
 		);
 	}
 }
@@ -44,40 +44,40 @@ public class CustomerApplicationService {
 				});
 	}
 
-	public Mono<Void> updateCustomer(UpdateCustomerCommand command) {
+	public Mono<CustomerAggregate> updateCustomer(UpdateCustomerCommand command) {
 		UUID customerId = command.customerId();
 		log.info("Updating customer with ID: {}", customerId);
 		return modifyCustomer(customerId,
 				"Customer updated successfully: {}",
-				customer -> customer.updateBasicInfo(command))
-				.then();
+				customer -> customer.updateBasicInfo(command));
 	}
 
-	public Mono<Void> changeEmail(ChangeCustomerEmailCommand command) {
+	public Mono<CustomerAggregate> changeEmail(ChangeCustomerEmailCommand command) {
 		UUID customerId = command.customerId();
 		log.info("Changing email for customer with ID: {}", customerId);
-		return modifyCustomer(customerId,
-				"Customer email changed successfully: {}",
-				customer -> customer.changeEmail(command))
-				.then();
+		return customerRepository.findByEmail(command.newEmail())
+				.filter(owner -> !owner.getId().equals(customerId))
+				.flatMap(owner -> Mono.<CustomerAggregate>error(
+						new CustomerAlreadyExistsException("Customer with email already exists", command.newEmail())))
+				.switchIfEmpty(Mono.defer(() -> modifyCustomer(customerId,
+						"Customer email changed successfully: {}",
+						customer -> customer.changeEmail(command))));
 	}
 
-	public Mono<Void> verifyEmail(VerifyCustomerEmailCommand command) {
+	public Mono<CustomerAggregate> verifyEmail(VerifyCustomerEmailCommand command) {
 		UUID customerId = command.customerId();
 		log.info("Verifying email for customer with ID: {}", customerId);
 		return modifyCustomer(customerId,
 				"Customer email verified successfully: {}",
-				customer -> customer.verifyEmail(command))
-				.then();
+				customer -> customer.verifyEmail(command));
 	}
 
-	public Mono<Void> verifyPhoneNumber(VerifyCustomerPhoneCommand command) {
+	public Mono<CustomerAggregate> verifyPhoneNumber(VerifyCustomerPhoneCommand command) {
 		UUID customerId = command.customerId();
 		log.info("Verifying phone number for customer with ID: {}", customerId);
 		return modifyCustomer(customerId,
 				"Customer phone verified successfully: {}",
-				customer -> customer.verifyPhoneNumber(command))
-				.then();
+				customer -> customer.verifyPhoneNumber(command));
 	}
 
 	public Mono<CustomerAggregate> addShippingAddress(AddShippingAddressCommand command) {
@@ -96,50 +96,45 @@ public class CustomerApplicationService {
 				customer -> customer.updateShippingAddress(command));
 	}
 
-	public Mono<Void> removeShippingAddress(RemoveShippingAddressCommand command) {
+	public Mono<CustomerAggregate> removeShippingAddress(RemoveShippingAddressCommand command) {
 		UUID customerId = command.customerId();
 		log.info("Removing shipping address for customer with ID: {}", customerId);
 		return modifyCustomer(customerId,
 				"Customer shipping address removed successfully: {}",
-				customer -> customer.removeShippingAddress(command))
-				.then();
+				customer -> customer.removeShippingAddress(command));
 	}
 
-	public Mono<Void> updatePreferences(UpdateCustomerPreferencesCommand command) {
+	public Mono<CustomerAggregate> updatePreferences(UpdateCustomerPreferencesCommand command) {
 		UUID customerId = command.customerId();
 		log.info("Updating preferences for customer with ID: {}", customerId);
 		return modifyCustomer(customerId,
 				"Customer preferences updated successfully: {}",
-				customer -> customer.updatePreferences(command))
-				.then();
+				customer -> customer.updatePreferences(command));
 	}
 
-	public Mono<Void> deactivate(DeactivateCustomerCommand command) {
+	public Mono<CustomerAggregate> deactivate(DeactivateCustomerCommand command) {
 		UUID customerId = command.customerId();
 		log.info("Deactivating customer with ID: {}", customerId);
 		return modifyCustomer(customerId,
 				"Customer deactivated successfully: {}",
-				customer -> customer.deactivate(command))
-				.then();
+				customer -> customer.deactivate(command));
 	}
 
-	public Mono<Void> reactivate(ReactivateCustomerCommand command) {
+	public Mono<CustomerAggregate> reactivate(ReactivateCustomerCommand command) {
 		UUID customerId = command.getId();
 		log.info("Reactivating customer with ID: {}", customerId);
 		return modifyCustomer(command.getId(),
 				"Customer reactivated successfully: {}",
-				customer -> customer.reactivate(command))
-				.then();
+				customer -> customer.reactivate(command));
 	}
 
-	public Mono<Void> deleteCustomer(UUID customerId) {
+	public Mono<CustomerAggregate> deleteCustomer(UUID customerId) {
 		return Mono.deferContextual(contextView -> modifyCustomer(customerId,
 						"Customer marked as deleted: {}",
 						customer -> customer.delete(DeleteCustomerCommand.builder()
 								.customerId(customerId)
 								.reason("User requested deletion")
-								.build())))
-				.then();
+								.build())));
 	}
 
 	private Mono<CustomerAggregate> loadCustomerAggregate(UUID customerId) {
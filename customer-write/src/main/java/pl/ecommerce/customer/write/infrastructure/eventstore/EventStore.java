@@ -11,5 +11,15 @@ public interface EventStore {
 
 	List<AbstractDomainEvent> getEventsForAggregate(UUID aggregateId);
 
+	List<AbstractDomainEvent> getEventsForAggregate(UUID aggregateId, int afterVersion);
+
 	void markEventsAsDeleted(UUID aggregateId);
+
+	/**
+	 * Returns up to {@code limit} raw events ordered by aggregate id and version, starting after the given
+	 * position and ending before {@code upperBound} (unbounded when null).
+	 */
+	List<ExportedEvent> exportEvents(UUID afterAggregateId, int afterVersion, UUID upperBound, int limit);
+
+	long countEvents();
 }
\ No newline at end of file
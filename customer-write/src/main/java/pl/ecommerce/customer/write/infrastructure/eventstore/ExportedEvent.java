@@ -0,0 +1,6 @@
+package pl.ecommerce.customer.write.infrastructure.eventstore;
+
+import java.util.UUID;
+
+public record ExportedEvent(UUID aggregateId, int version, String eventData) {
+}
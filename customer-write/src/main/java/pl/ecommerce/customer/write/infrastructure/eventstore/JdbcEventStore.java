@@ -59,6 +59,22 @@ public class JdbcEventStore implements EventStore {
 		return events;
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<AbstractDomainEvent> getEventsForAggregate(UUID aggregateId, int afterVersion) {
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+				"SELECT * FROM event_store WHERE aggregate_id = ? AND version > ? AND deleted = false ORDER BY version ASC",
+				aggregateId,
+				afterVersion
+		);
+
+		List<AbstractDomainEvent> events = new ArrayList<>();
+		for (Map<String, Object> row : rows) {
+			events.add(processEventRow(row));
+		}
+		return events;
+	}
+
 	@Override
 	@Transactional
 	public void markEventsAsDeleted(UUID aggregateId) {
@@ -69,6 +85,31 @@ public class JdbcEventStore implements EventStore {
 		log.info("Marked events for aggregate {} as deleted", aggregateId);
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<ExportedEvent> exportEvents(UUID afterAggregateId, int afterVersion, UUID upperBound, int limit) {
+		String sql = "SELECT aggregate_id, version, event_data FROM event_store " +
+				"WHERE deleted = false AND (aggregate_id, version) > (?, ?) " +
+				(Objects.nonNull(upperBound) ? "AND aggregate_id < ? " : "") +
+				"ORDER BY aggregate_id, version LIMIT ?";
+		Object[] args = Objects.nonNull(upperBound)
+				? new Object[]{afterAggregateId, afterVersion, upperBound, limit}
+				: new Object[]{afterAggregateId, afterVersion, limit};
+
+		return jdbcTemplate.query(sql, (rs, rowNum) -> new ExportedEvent(
+				rs.getObject("aggregate_id", UUID.class),
+				rs.getInt("version"),
+				rs.getString("event_data")), args);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public long countEvents() {
+		Long count = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM event_store WHERE deleted = false", Long.class);
+		return Objects.nonNull(count) ? count : 0L;
+	}
+
 	private int getCurrentVersion(UUID aggregateId) {
 		Integer version = jdbcTemplate.queryForObject(
 				"SELECT COALESCE(MAX(version), 0) FROM event_store WHERE aggregate_id = ? AND deleted = false",
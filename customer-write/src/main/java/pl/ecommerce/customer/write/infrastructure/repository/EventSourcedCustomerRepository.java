@@ -193,7 +193,7 @@ public class EventSourcedCustomerRepository implements CustomerRepository {
 	}
 
 	private Boolean existsByEmailInternal(String email) {
-		final String sql = "SELECT COUNT(*) FROM customer_email_view WHERE email = ?";
+		final String sql = "SELECT COUNT(*) FROM customer_email_view WHERE lower(email) = lower(?)";
 		try {
 			Integer count = jdbcTemplate.queryForObject(sql, Integer.class, email);
 			return nonNull(count) && count > 0;
@@ -204,7 +204,7 @@ public class EventSourcedCustomerRepository implements CustomerRepository {
 	}
 
 	private UUID findCustomerIdByEmail(String email) {
-		final String sql = "SELECT customer_id FROM customer_email_view WHERE email = ? LIMIT 1";
+		final String sql = "SELECT customer_id FROM customer_email_view WHERE lower(email) = lower(?) LIMIT 1";
 		try {
 			List<UUID> customerIds = jdbcTemplate.query(
 					sql,
@@ -0,0 +1,13 @@
+CREATE OR REPLACE VIEW customer_email_view AS
+SELECT DISTINCT ON (aggregate_id) aggregate_id                                                AS customer_id,
+                                  COALESCE(event_data ->> 'newEmail', event_data ->> 'email') AS email,
+                                  (event_data ->> 'firstName')                                AS first_name,
+                                  (event_data ->> 'lastName')                                 AS last_name,
+                                  MAX(version)                                                AS latest_version
+FROM event_store
+WHERE aggregate_type = 'Customer'
+  AND event_type IN ('CustomerRegisteredEvent', 'CustomerEmailChangedEvent')
+  AND deleted = false
+GROUP BY aggregate_id, COALESCE(event_data ->> 'newEmail', event_data ->> 'email'), event_data ->> 'firstName',
+         event_data ->> 'lastName'
+ORDER BY aggregate_id, latest_version DESC;
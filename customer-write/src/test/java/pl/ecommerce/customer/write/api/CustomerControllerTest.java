@@ -33,6 +33,7 @@ import java.util.UUID;
 
 import static java.util.Objects.nonNull;
 import static org.assertj.core.api.Assertions.assertThat;
+import static pl.ecommerce.customer.write.api.CustomerApi.CONSISTENCY_TOKEN_HEADER;
 import static pl.ecommerce.commons.model.customer.CustomerStatus.DELETED;
 
 @Slf4j
@@ -124,7 +125,10 @@ class CustomerControllerTest {
 				.contentType(MediaType.APPLICATION_JSON)
 				.bodyValue(request)
 				.exchange()
-				.expectStatus().isCreated();
+				.expectStatus().isCreated()
+				.expectHeader().valueEquals(CONSISTENCY_TOKEN_HEADER, "1")
+				.expectBody(CustomerRegistrationResponse.class)
+				.value(response -> assertThat(response.version()).isEqualTo(1));
 
 		var saved = customerRepository.findByEmail(request.email()).block();
 		assertThat(saved).isNotNull();
@@ -179,7 +183,8 @@ class CustomerControllerTest {
 		webTestClient.put()
 				.uri(uriBuilder -> uriBuilder.path("/{id}/email").queryParam("newEmail", newEmail).build(customerId))
 				.exchange()
-				.expectStatus().isNoContent();
+				.expectStatus().isNoContent()
+				.expectHeader().valueEquals(CONSISTENCY_TOKEN_HEADER, "2");
 
 		var updated = customerRepository.findById(customerId).block();
 		assertThat(updated).isNotNull();
@@ -291,7 +296,8 @@ class CustomerControllerTest {
 		webTestClient.post()
 				.uri(uriBuilder -> uriBuilder.path("/{id}/deactivate").queryParam("reason", "Customer requested deactivation").build(customerId))
 				.exchange()
-				.expectStatus().isNoContent();
+				.expectStatus().isNoContent()
+				.expectHeader().valueEquals(CONSISTENCY_TOKEN_HEADER, "2");
 
 		var deactivated = customerRepository.findById(customerId).block();
 		assertThat(deactivated).isNotNull();
@@ -300,7 +306,8 @@ class CustomerControllerTest {
 		webTestClient.post()
 				.uri(uriBuilder -> uriBuilder.path("/{id}/reactivate").queryParam("note", "Customer requested reactivation").build(customerId))
 				.exchange()
-				.expectStatus().isNoContent();
+				.expectStatus().isNoContent()
+				.expectHeader().valueEquals(CONSISTENCY_TOKEN_HEADER, "3");
 
 		var reactivated = customerRepository.findById(customerId).block();
 		assertThat(reactivated).isNotNull();
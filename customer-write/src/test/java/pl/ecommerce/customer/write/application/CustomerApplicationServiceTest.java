@@ -170,6 +170,7 @@ class CustomerApplicationServiceTest {
 			
 
 			StepVerifier.create(customerApplicationService.updateCustomer(command))
+					.expectNext(mockCustomerAggregate)
 					.verifyComplete();
 
 			verify(mockCustomerAggregate).updateBasicInfo(command);
@@ -210,16 +211,36 @@ class CustomerApplicationServiceTest {
 					.newEmail("new.email@example.com")
 					.build();
 
+			when(customerRepository.findByEmail(command.newEmail())).thenReturn(Mono.empty());
 			when(customerRepository.findById(customerId)).thenReturn(Mono.just(mockCustomerAggregate));
 			when(customerRepository.save(mockCustomerAggregate)).thenReturn(Mono.just(mockCustomerAggregate));
 			
 
 			StepVerifier.create(customerApplicationService.changeEmail(command))
+					.expectNext(mockCustomerAggregate)
 					.verifyComplete();
 
 			verify(mockCustomerAggregate).changeEmail(command);
 			verify(customerRepository).save(mockCustomerAggregate);
 		}
+
+		@Test
+		@DisplayName("Should throw exception when the new email belongs to another customer")
+		void shouldThrowExceptionWhenEmailTakenByAnotherCustomer() {
+			ChangeCustomerEmailCommand command = ChangeCustomerEmailCommand.builder()
+					.customerId(customerId)
+					.newEmail("taken@example.com")
+					.build();
+			CustomerAggregate owner = mock(CustomerAggregate.class);
+			when(owner.getId()).thenReturn(UUID.randomUUID());
+			when(customerRepository.findByEmail(command.newEmail())).thenReturn(Mono.just(owner));
+
+			StepVerifier.create(customerApplicationService.changeEmail(command))
+					.expectError(CustomerAlreadyExistsException.class)
+					.verify();
+
+			verify(customerRepository, never()).save(any(CustomerAggregate.class));
+		}
 	}
 
 	@Nested
@@ -239,6 +260,7 @@ class CustomerApplicationServiceTest {
 			
 
 			StepVerifier.create(customerApplicationService.verifyEmail(command))
+					.expectNext(mockCustomerAggregate)
 					.verifyComplete();
 
 			verify(mockCustomerAggregate).verifyEmail(command);
@@ -263,6 +285,7 @@ class CustomerApplicationServiceTest {
 			
 
 			StepVerifier.create(customerApplicationService.verifyPhoneNumber(command))
+					.expectNext(mockCustomerAggregate)
 					.verifyComplete();
 
 			verify(mockCustomerAggregate).verifyPhoneNumber(command);
@@ -343,6 +366,7 @@ class CustomerApplicationServiceTest {
 			
 
 			StepVerifier.create(customerApplicationService.removeShippingAddress(command))
+					.expectNext(mockCustomerAggregate)
 					.verifyComplete();
 
 			verify(mockCustomerAggregate).removeShippingAddress(command);
@@ -375,6 +399,7 @@ class CustomerApplicationServiceTest {
 			
 
 			StepVerifier.create(customerApplicationService.updatePreferences(command))
+					.expectNext(mockCustomerAggregate)
 					.verifyComplete();
 
 			verify(mockCustomerAggregate).updatePreferences(command);
@@ -398,6 +423,7 @@ class CustomerApplicationServiceTest {
 			when(customerRepository.save(mockCustomerAggregate)).thenReturn(Mono.just(mockCustomerAggregate));
 
 			StepVerifier.create(customerApplicationService.deactivate(command))
+					.expectNext(mockCustomerAggregate)
 					.verifyComplete();
 
 			verify(mockCustomerAggregate).deactivate(command);
@@ -417,6 +443,7 @@ class CustomerApplicationServiceTest {
 			
 
 			StepVerifier.create(customerApplicationService.reactivate(command))
+					.expectNext(mockCustomerAggregate)
 					.verifyComplete();
 
 			verify(mockCustomerAggregate).reactivate(command);
@@ -431,6 +458,7 @@ class CustomerApplicationServiceTest {
 			
 
 			StepVerifier.create(customerApplicationService.deleteCustomer(customerId))
+					.expectNext(mockCustomerAggregate)
 					.verifyComplete();
 
 			verify(mockCustomerAggregate).delete(any(DeleteCustomerCommand.class));
@@ -447,6 +475,7 @@ class CustomerApplicationServiceTest {
 				.customerId(customerId)
 				.newEmail("test@example.com")
 				.build();
+		when(customerRepository.findByEmail(emailCommand.newEmail())).thenReturn(Mono.empty());
 
 		StepVerifier.create(customerApplicationService.changeEmail(emailCommand))
 				.expectErrorMatches(throwable -> throwable instanceof CustomerNotFoundException)
@@ -0,0 +1,148 @@
+package pl.ecommerce.customer.write.infrastructure.eventstore;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import pl.ecommerce.commons.event.AbstractDomainEvent;
+import pl.ecommerce.commons.event.customer.CustomerEmailVerifiedEvent;
+import pl.ecommerce.commons.event.customer.CustomerRegisteredEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+class JdbcEventStoreTest {
+
+	private static final UUID LOWEST = new UUID(0, 0);
+
+	@Container
+	static final PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+			.withDatabaseName("customer_event_store")
+			.withUsername("test")
+			.withPassword("test");
+
+	static JdbcTemplate jdbcTemplate;
+
+	private JdbcEventStore eventStore;
+	private List<UUID> customerIds;
+
+	@BeforeAll
+	static void setUpDatabase() {
+		PGSimpleDataSource dataSource = new PGSimpleDataSource();
+		dataSource.setURL(postgresContainer.getJdbcUrl());
+		dataSource.setUser(postgresContainer.getUsername());
+		dataSource.setPassword(postgresContainer.getPassword());
+		Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM event_store");
+		eventStore = new JdbcEventStore(jdbcTemplate, new ObjectMapper().findAndRegisterModules());
+		customerIds = IntStream.range(0, 7).mapToObj(i -> UUID.randomUUID()).toList();
+		customerIds.forEach(customerId -> eventStore.saveEvents(customerId, history(customerId), -1));
+	}
+
+	@Test
+	@DisplayName("Should page through every event in (aggregate, version) order without gaps or repeats")
+	void shouldExportInKeysetPages() {
+		List<ExportedEvent> exported = exportAll(LOWEST, null, 4);
+
+		assertThat(exported).hasSize(21);
+		assertThat(exported).extracting(event -> event.aggregateId() + "/" + event.version())
+				.doesNotHaveDuplicates();
+		assertThat(exported).extracting(ExportedEvent::aggregateId)
+				.containsExactlyElementsOf(sorted(customerIds).stream()
+						.flatMap(customerId -> IntStream.range(0, 3).mapToObj(i -> customerId))
+						.toList());
+		assertThat(exported).extracting(ExportedEvent::version)
+				.containsExactlyElementsOf(IntStream.range(0, 21).map(i -> i % 3 + 1).boxed().toList());
+	}
+
+	@Test
+	@DisplayName("Should only export aggregates within the requested id range")
+	void shouldRespectUpperBound() {
+		List<UUID> ordered = sorted(customerIds);
+		UUID upperBound = ordered.get(3);
+
+		List<ExportedEvent> exported = exportAll(LOWEST, upperBound, 2);
+
+		assertThat(exported).extracting(ExportedEvent::aggregateId)
+				.containsOnly(ordered.get(0), ordered.get(1), ordered.get(2))
+				.hasSize(9);
+	}
+
+	@Test
+	@DisplayName("Should skip deleted events")
+	void shouldSkipDeletedEvents() {
+		UUID deleted = customerIds.getFirst();
+		eventStore.markEventsAsDeleted(deleted);
+
+		List<ExportedEvent> exported = exportAll(LOWEST, null, 5);
+
+		assertThat(exported).hasSize(18);
+		assertThat(exported).extracting(ExportedEvent::aggregateId).doesNotContain(deleted);
+		assertThat(eventStore.countEvents()).isEqualTo(18);
+	}
+
+	/**
+	 * Pages the way EventExportController does: from the lowest key, continuing after the last row of a full page.
+	 */
+	private List<ExportedEvent> exportAll(UUID lowerBound, UUID upperBound, int limit) {
+		List<ExportedEvent> exported = new ArrayList<>();
+		List<ExportedEvent> page = eventStore.exportEvents(lowerBound, -1, upperBound, limit);
+		exported.addAll(page);
+		while (page.size() == limit) {
+			ExportedEvent last = page.getLast();
+			page = eventStore.exportEvents(last.aggregateId(), last.version(), upperBound, limit);
+			exported.addAll(page);
+		}
+		return exported;
+	}
+
+	private static List<AbstractDomainEvent> history(UUID customerId) {
+		Instant registeredAt = Instant.parse("2024-01-01T10:00:00Z");
+		return List.of(
+				CustomerRegisteredEvent.builder()
+						.customerId(customerId)
+						.email(customerId + "@example.com")
+						.timestamp(registeredAt)
+						.version(0)
+						.build(),
+				CustomerEmailVerifiedEvent.builder()
+						.customerId(customerId)
+						.email(customerId + "@example.com")
+						.timestamp(registeredAt.plusSeconds(60))
+						.version(1)
+						.build(),
+				CustomerEmailVerifiedEvent.builder()
+						.customerId(customerId)
+						.email(customerId + "@example.com")
+						.timestamp(registeredAt.plusSeconds(120))
+						.version(2)
+						.build());
+	}
+
+	/**
+	 * Postgres compares uuids as unsigned bytes, which matches their lowercase string form.
+	 */
+	private static List<UUID> sorted(List<UUID> ids) {
+		return ids.stream().sorted(Comparator.comparing(UUID::toString)).toList();
+	}
+}